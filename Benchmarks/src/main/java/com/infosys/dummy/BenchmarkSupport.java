@@ -0,0 +1,84 @@
+package com.infosys.dummy;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared setup for the benchmarks.
+ */
+public enum BenchmarkSupport {
+  ;
+
+  /**
+   * Starts the application on a random port, using a new, empty in-memory database, from the h2-mem profile. These
+   * settings are passed as command-line arguments, so they override the application.properties file in the Server
+   * jar. (The controllers need a web application context, so the server can't be left out.)
+   * @param extraArgs Additional settings, such as {@code --my-app.cache.shared.enabled=false}
+   * @return The running application. Close it when the benchmark is done.
+   */
+  public static ConfigurableApplicationContext startServer(String... extraArgs) {
+    return startServer(new Class<?>[0], extraArgs);
+  }
+
+  /**
+   * Starts the application, as {@link #startServer(String...)} does, with some extra beans.
+   * @param extraSources Classes to register as beans, such as a BeanPostProcessor that changes the application's beans
+   * @param extraArgs Additional settings
+   * @return The running application. Close it when the benchmark is done.
+   */
+  public static ConfigurableApplicationContext startServer(Class<?>[] extraSources, String... extraArgs) {
+    String url = "jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    return start(extraSources, extraArgs, "--spring.profiles.active=h2-mem", "--spring.datasource.url=" + url);
+  }
+
+  /**
+   * Starts the application, as {@link #startServer(String...)} does, but with a file database, configured as in
+   * application.properties, so the benchmark includes writing to the disk.
+   * @param databaseFile The path of the database file, without the .mv.db extension. If there's no such file, it
+   *                     starts empty.
+   * @param extraArgs Additional settings
+   * @return The running application. Close it when the benchmark is done.
+   */
+  public static ConfigurableApplicationContext startFileServer(Path databaseFile, String... extraArgs) {
+    return start(new Class<?>[0], extraArgs, "--my-app.db.file=" + databaseFile.toAbsolutePath());
+  }
+
+  private static ConfigurableApplicationContext start(
+      Class<?>[] extraSources,
+      String[] extraArgs,
+      String... databaseArgs
+  ) {
+    List<String> args = new ArrayList<>(Arrays.asList(
+        "--server.port=0",
+        "--spring.main.banner-mode=off",
+        "--spring.jpa.show-sql=false",
+        "--logging.level.com.infosys.dummy=WARN",
+        "--logging.level.org.openapitools=WARN",
+        "--logging.level.org.springframework.web=WARN"
+    ));
+    args.addAll(Arrays.asList(databaseArgs));
+    args.addAll(Arrays.asList(extraArgs));
+    Class<?>[] sources = new Class<?>[extraSources.length + 1];
+    sources[0] = ServerMaster.class;
+    System.arraycopy(extraSources, 0, sources, 1, extraSources.length);
+    return SpringApplication.run(sources, args.toArray(new String[0]));
+  }
+
+  /**
+   * Sets the level of one of the application's loggers. The logback.xml file sends them all to a NOPAppender, so
+   * this controls how much logging work the benchmark includes, without writing anything.
+   * @param loggerClass The class that owns the logger
+   * @param level The level, such as "WARN" or "DEBUG"
+   */
+  public static void setLogLevel(Class<?> loggerClass, String level) {
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(loggerClass)).setLevel(Level.toLevel(level));
+  }
+}
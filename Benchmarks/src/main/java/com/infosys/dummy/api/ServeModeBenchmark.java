@@ -0,0 +1,153 @@
+package com.infosys.dummy.api;
+
+import com.infosys.dummy.BenchmarkSupport;
+import com.infosys.dummy.engine.DataEngine;
+import com.infosys.dummy.model.MenuItemDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A load test of the async serve mode, over HTTP. Half the client threads add menu items, which need a database
+ * connection, and the other half read a menu item, which comes from the cache. The server has only 8 Tomcat threads
+ * and 2 database connections, and the database is slowed down, to act like one on another machine. Each connection
+ * is held for an extra 50 ms, so the writers wait for a connection.
+ * <p>
+ * With no async endpoints, the waiting writers hold on to Tomcat's threads, and the readers wait behind them. With
+ * addMenuItem async, the writers wait on the serve threads instead, and the Tomcat threads are free for the readers.
+ * <p>
+ * Two connections held for 50 ms each allow at most 40 writes/s, so the sync write score, which can exceed that, is
+ * inflated. JMH counts requests that finish after an iteration ends, and in sync mode a 2 s iteration ran for 6 to 10
+ * s. Counted by the clock, sync mode wrote about 38/s, and async about 31/s. The async writes are slower because the
+ * readers are no longer starved, and on one CPU each write then waits longer for the CPU while it holds its
+ * connection: about 7.5 ms past the 50 ms, against 1.5 ms in sync mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dhttp.maxConnections=64") // Keep every client connection alive
+public class ServeModeBenchmark {
+
+  @Param({"", "addMenuItem"})
+  private String asyncEndpoints;
+
+  private static final byte[] NEW_ITEM
+      = "{\"name\":\"Tiramisu\",\"itemPrice\":6.50}".getBytes(StandardCharsets.UTF_8);
+
+  private ConfigurableApplicationContext context;
+  private URL readUrl;
+  private URL writeUrl;
+
+  @Setup
+  public void setup() throws IOException {
+    context = BenchmarkSupport.startServer(
+        new Class<?>[]{SlowDatabase.class},
+        "--server.tomcat.threads.max=8",
+        "--spring.datasource.hikari.maximum-pool-size=2",
+        "--my-app.serve.async-endpoints=" + asyncEndpoints
+    );
+    MenuItemDto dto = new MenuItemDto();
+    dto.setName("Cannoli");
+    dto.setItemPrice(new BigDecimal("4.00"));
+    Integer id = context.getBean(DataEngine.class).addMenuItemFromDto(dto);
+    String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/demo";
+    readUrl = new URL(base + "/menuItem/" + id);
+    writeUrl = new URL(base + "/admin/menuItem/add");
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(32)
+  public int read() throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) readUrl.openConnection();
+    return finish(connection);
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(32)
+  public int write() throws IOException {
+    HttpURLConnection connection = (HttpURLConnection) writeUrl.openConnection();
+    connection.setRequestMethod("PUT");
+    connection.setRequestProperty("Content-Type", "application/json");
+    connection.setDoOutput(true);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(NEW_ITEM);
+    }
+    return finish(connection);
+  }
+
+  /**
+   * Wraps the DataSource, so that each connection it hands out is held for an extra 50 ms. This stands in for the
+   * network round trips to a real database server.
+   */
+  public static class SlowDatabase implements BeanPostProcessor {
+    private static final long LATENCY_MILLIS = 50;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (!(bean instanceof DataSource)) {
+        return bean;
+      }
+      return new DelegatingDataSource((DataSource) bean) {
+        @Override
+        public Connection getConnection() throws SQLException {
+          Connection connection = super.getConnection();
+          try {
+            Thread.sleep(LATENCY_MILLIS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return connection;
+        }
+      };
+    }
+  }
+
+  /**
+   * Reads the whole response, so the connection can be reused.
+   */
+  private static int finish(HttpURLConnection connection) throws IOException {
+    int status = connection.getResponseCode();
+    try (InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+      byte[] buffer = new byte[4096];
+      while ((in != null) && (in.read(buffer) >= 0)) {
+        // Discard it.
+      }
+    }
+    return status;
+  }
+}
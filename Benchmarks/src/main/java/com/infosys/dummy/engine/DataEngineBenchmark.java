@@ -0,0 +1,110 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.BenchmarkSupport;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks DataEngine against an H2 database, with the caches configured as in application.properties. The database
+ * is either in memory, as the h2-mem profile configures it, or in a new file, as the default configuration does. Each benchmark runs in its
+ * own fork, so the items added by addMenuItemFromDto() don't affect the others.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataEngineBenchmark {
+
+  /** The number of MenuItems on the menu before the benchmark starts. */
+  @Param({"10", "100"})
+  private int menuSize;
+
+  /** Where the database is kept: memory or file. */
+  @Param({"memory", "file"})
+  private String database;
+
+  private static final int OPTIONS_PER_ITEM = 6;
+
+  private Path databaseDirectory;
+  private ConfigurableApplicationContext context;
+  private DataEngine dataEngine;
+
+  @Setup
+  public void setup() throws IOException {
+    if ("file".equals(database)) {
+      databaseDirectory = Files.createTempDirectory("benchmark");
+      context = BenchmarkSupport.startFileServer(databaseDirectory.resolve("benchmark"));
+    } else {
+      context = BenchmarkSupport.startServer();
+    }
+    dataEngine = context.getBean(DataEngine.class);
+    for (int i = 0; i < menuSize; ++i) {
+      dataEngine.addMenuItemFromDto(makeMenuItemDto(i));
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    context.close();
+    if (databaseDirectory != null) {
+      try (Stream<Path> files = Files.list(databaseDirectory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(databaseDirectory);
+    }
+  }
+
+  /** The usual case: The menu hasn't changed, so it comes from the cache. */
+  @Benchmark
+  public MenuSnapshot getAllMenuItems() {
+    return dataEngine.getAllMenuItems();
+  }
+
+  /** The cost of a cache miss: Read the menu from the database, map it to DTOs, and serialize it. */
+  @Benchmark
+  public MenuSnapshot buildMenuSnapshot() {
+    return dataEngine.buildMenuSnapshot();
+  }
+
+  @Benchmark
+  public Integer addMenuItemFromDto() {
+    return dataEngine.addMenuItemFromDto(makeMenuItemDto(menuSize));
+  }
+
+  private static MenuItemDto makeMenuItemDto(int index) {
+    MenuItemDto dto = new MenuItemDto();
+    dto.setName("Item " + index);
+    dto.setItemPrice(new BigDecimal("9.95"));
+    for (int i = 0; i < OPTIONS_PER_ITEM; ++i) {
+      MenuItemOptionDto option = new MenuItemOptionDto();
+      option.setName("Option " + i);
+      option.setDeltaPrice(new BigDecimal("0.50"));
+      dto.addAllowedOptionsItem(option);
+    }
+    return dto;
+  }
+}
@@ -0,0 +1,55 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.engine.EmployeeSearch.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the grouping methods in EmployeeSearch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSearchBenchmark {
+  private static final String[] DEPARTMENTS = {EmployeeSearch.IT, EmployeeSearch.HR, EmployeeSearch.SALES, EmployeeSearch.AC};
+
+  @Param({"20", "10000"})
+  private int employeeCount;
+
+  private List<Employee> employees;
+
+  @Setup
+  public void setup() {
+    employees = new ArrayList<>(employeeCount);
+    for (int i = 0; i < employeeCount; ++i) {
+      employees.add(new Employee("Employee " + i, DEPARTMENTS[i % DEPARTMENTS.length]));
+    }
+  }
+
+  @Benchmark
+  public Map<String, List<Employee>> getEmployeesOrderedByDepartment() {
+    return EmployeeSearch.getEmployeesOrderedByDepartment(employees);
+  }
+
+  @Benchmark
+  public Map<String, List<Employee>> getEmployeeByDepartment() {
+    return EmployeeSearch.getEmployeeByDepartment(employees);
+  }
+}
@@ -0,0 +1,84 @@
+package com.infosys.dummy.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.MenuItemDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares MenuItemMapper with the ObjectMapper.convertValue() calls it replaced in DataEngine. The convertValue
+ * benchmarks include the loop that DataEngine used to set the back-references. Run with -prof gc to compare the
+ * allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuItemMapperBenchmark {
+
+  @Param({"0", "6", "30"})
+  private int optionCount;
+
+  // Configured the same way as the ObjectMapper that Spring Boot gives DataEngine.
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private MenuItem menuItem;
+  private MenuItemDto menuItemDto;
+
+  @Setup
+  public void setup() {
+    menuItem = new MenuItem();
+    menuItem.setId(1);
+    menuItem.setName("14 inch pizza");
+    menuItem.setItemPrice(new BigDecimal("12.50"));
+    for (int i = 0; i < optionCount; ++i) {
+      MenuItemOption option = new MenuItemOption();
+      option.setId(i + 2);
+      option.setName("Option " + i);
+      option.setDeltaPrice(new BigDecimal("0.50"));
+      option.setMenuItem(menuItem);
+      menuItem.getAllowedOptions().add(option);
+    }
+    menuItemDto = MenuItemMapper.toDto(menuItem);
+  }
+
+  @Benchmark
+  public MenuItemDto toDtoMapper() {
+    return MenuItemMapper.toDto(menuItem);
+  }
+
+  @Benchmark
+  public MenuItemDto toDtoConvertValue() {
+    return objectMapper.convertValue(menuItem, MenuItemDto.class);
+  }
+
+  @Benchmark
+  public MenuItem toEntityMapper() {
+    return MenuItemMapper.toEntity(menuItemDto);
+  }
+
+  @Benchmark
+  public MenuItem toEntityConvertValue() {
+    MenuItem item = objectMapper.convertValue(menuItemDto, MenuItem.class);
+    for (MenuItemOption option : item.getAllowedOptions()) {
+      option.setMenuItem(item);
+    }
+    return item;
+  }
+}
@@ -0,0 +1,104 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.MenuItemDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches a MenuSearchIndex. The menu has items named like "Large Pizza 17", with a size, one of ten dishes, and a
+ * number, and options named like "Topping 3". Each search is the kind a client would otherwise make by downloading
+ * the whole menu. The updates measure what DataEngine adds to each change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuSearchIndexBenchmark {
+  private static final String[] SIZES = {"Small", "Medium", "Large"};
+  private static final String[] DISHES
+      = {"Pizza", "Salad", "Soup", "Calzone", "Pasta", "Sandwich", "Burger", "Taco", "Curry", "Stew"};
+  private static final int OPTIONS_PER_ITEM = 6;
+
+  /** The number of MenuItems on the menu. */
+  @Param({"100", "10000"})
+  private int menuSize;
+
+  private final MenuSearchIndex index = new MenuSearchIndex();
+  private MenuItemOption movingOption;
+  private MenuItem[] owners;
+  private long version = 0;
+
+  @Setup
+  public void setup() {
+    List<MenuItem> menuItems = new ArrayList<>(menuSize);
+    for (int i = 0; i < menuSize; ++i) {
+      MenuItem menuItem = new MenuItem();
+      menuItem.setId(i + 1);
+      menuItem.setName(String.format("%s %s %d", SIZES[i % SIZES.length], DISHES[i % DISHES.length], i));
+      menuItem.setItemPrice(BigDecimal.valueOf(500 + (i % 1500), 2));
+      for (int j = 0; j < OPTIONS_PER_ITEM; ++j) {
+        MenuItemOption option = new MenuItemOption();
+        option.setId((i * OPTIONS_PER_ITEM) + j + 1);
+        option.setName(String.format("Topping %d", (i + j) % 20));
+        option.setDeltaPrice(new BigDecimal("0.50"));
+        option.setMenuItem(menuItem);
+        menuItem.getAllowedOptions().add(option);
+      }
+      menuItems.add(menuItem);
+    }
+    index.rebuild(menuItems);
+    movingOption = menuItems.get(0).getAllowedOptions().iterator().next();
+    owners = new MenuItem[] {menuItems.get(0), menuItems.get(1)};
+  }
+
+  /** A whole word, in a tenth of the items. */
+  @Benchmark
+  public List<MenuItemDto> name() {
+    return index.search("pizza", null, null, null, null);
+  }
+
+  /** Two words, as they're typed, which narrow it down to a thirtieth. */
+  @Benchmark
+  public List<MenuItemDto> prefix() {
+    return index.search(null, "large piz", null, null, null);
+  }
+
+  /** A word, an option, and a price range, which narrow it down to a few hundredths. */
+  @Benchmark
+  public List<MenuItemDto> combined() {
+    return index.search("salad", null, "topping 3", new BigDecimal("5.00"), new BigDecimal("10.00"));
+  }
+
+  /** A word that isn't there. */
+  @Benchmark
+  public List<MenuItemDto> noMatch() {
+    return index.search("lasagna", null, null, null, null);
+  }
+
+  /** Moves an option back and forth between two items. */
+  @Benchmark
+  public MenuItemOption moveOption() {
+    movingOption.setMenuItem(owners[(int) (version % 2)]);
+    movingOption.setVersion(++version);
+    index.putOption(movingOption);
+    return movingOption;
+  }
+}
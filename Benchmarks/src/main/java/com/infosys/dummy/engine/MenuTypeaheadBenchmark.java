@@ -0,0 +1,90 @@
+package com.infosys.dummy.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggests menu names as they're typed. The menu has names like "Large Pizza 17", and options named like
+ * "Topping 3", and the popularity of the names is random. This samples the time of each suggestion, so the results
+ * include the percentiles. The one-letter prefixes rank the most names, so they're run with and without the hot
+ * prefix cache. The cached rankings are refreshed as often as the default settings allow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuTypeaheadBenchmark {
+  private static final String[] SIZES = {"Small", "Medium", "Large"};
+  private static final String[] DISHES
+      = {"Pizza", "Salad", "Soup", "Calzone", "Pasta", "Sandwich", "Burger", "Taco", "Curry", "Stew"};
+
+  /** The number of item names on the menu. */
+  @Param({"100", "10000"})
+  private int menuSize;
+
+  private final MenuTypeahead cached = new MenuTypeahead();
+  private final MenuTypeahead uncached = new MenuTypeahead(10, -1, 0, Duration.ZERO);
+
+  @Setup
+  public void setup() {
+    List<String> names = new ArrayList<>(menuSize + 20);
+    for (int i = 0; i < menuSize; ++i) {
+      names.add(String.format("%s %s %d", SIZES[i % SIZES.length], DISHES[i % DISHES.length], i));
+    }
+    for (int i = 0; i < 20; ++i) {
+      names.add("Topping " + i);
+    }
+    Random random = new Random(17);
+    for (MenuTypeahead typeahead : new MenuTypeahead[] {cached, uncached}) {
+      typeahead.addNames(names);
+      for (String name : names) {
+        List<String> use = Collections.singletonList(name);
+        for (int uses = random.nextInt(100); uses > 0; --uses) {
+          typeahead.recordUse(use);
+        }
+      }
+    }
+  }
+
+  /** One letter, from the cache. */
+  @Benchmark
+  public List<String> shortPrefix() {
+    return cached.suggest("s", 10);
+  }
+
+  /** One letter, ranked each time. */
+  @Benchmark
+  public List<String> shortPrefixUncached() {
+    return uncached.suggest("s", 10);
+  }
+
+  /** Two words, as they're typed, which match a thirtieth of the items. */
+  @Benchmark
+  public List<String> longPrefix() {
+    return cached.suggest("large pi", 10);
+  }
+
+  /** A prefix that isn't there. */
+  @Benchmark
+  public List<String> noMatch() {
+    return cached.suggest("lasag", 10);
+  }
+}
@@ -0,0 +1,99 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.OrderNodeDto;
+import com.infosys.dummy.model.OrderQuoteDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices an order of several menu items, each with a few options, from a menu of 10,000 items with six options
+ * each. The deep order nests the same items in a chain of groups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPricerBenchmark {
+  private static final int MENU_SIZE = 10_000;
+  private static final int OPTIONS_PER_ITEM = 6;
+
+  /** The number of menu items in the order. */
+  @Param({"1", "10", "1000"})
+  private int orderSize;
+
+  private final MenuSearchIndex index = new MenuSearchIndex();
+  private OrderNodeDto order;
+  private OrderNodeDto deepOrder;
+
+  @Setup
+  public void setup() {
+    List<MenuItem> menuItems = new ArrayList<>(MENU_SIZE);
+    for (int i = 0; i < MENU_SIZE; ++i) {
+      MenuItem menuItem = new MenuItem();
+      menuItem.setId(i + 1);
+      menuItem.setName("Item " + i);
+      menuItem.setItemPrice(BigDecimal.valueOf(500 + (i % 1500), 2));
+      for (int j = 0; j < OPTIONS_PER_ITEM; ++j) {
+        MenuItemOption option = new MenuItemOption();
+        option.setId((i * OPTIONS_PER_ITEM) + j + 1);
+        option.setName("Option " + j);
+        option.setDeltaPrice(new BigDecimal("0.50"));
+        option.setMenuItem(menuItem);
+        menuItem.getAllowedOptions().add(option);
+      }
+      menuItems.add(menuItem);
+    }
+    index.rebuild(menuItems);
+
+    order = new OrderNodeDto();
+    deepOrder = new OrderNodeDto();
+    OrderNodeDto deepest = deepOrder;
+    for (int i = 0; i < orderSize; ++i) {
+      int itemIndex = (i * 997) % MENU_SIZE;
+      order.addOptionsItem(orderedItem(itemIndex));
+      OrderNodeDto group = new OrderNodeDto();
+      deepest.addOptionsItem(orderedItem(itemIndex));
+      deepest.addOptionsItem(group);
+      deepest = group;
+    }
+  }
+
+  private static OrderNodeDto orderedItem(int itemIndex) {
+    OrderNodeDto item = new OrderNodeDto();
+    item.setMenuItemId(itemIndex + 1);
+    for (int j = 0; j < 3; ++j) {
+      OrderNodeDto option = new OrderNodeDto();
+      option.setOptionId((itemIndex * OPTIONS_PER_ITEM) + j + 1);
+      item.addOptionsItem(option);
+    }
+    return item;
+  }
+
+  @Benchmark
+  public OrderQuoteDto quote() {
+    return index.readPrices(prices -> OrderPricer.quote(order, prices));
+  }
+
+  @Benchmark
+  public OrderQuoteDto quoteDeep() {
+    return index.readPrices(prices -> OrderPricer.quote(deepOrder, prices));
+  }
+}
@@ -0,0 +1,67 @@
+package com.infosys.dummy.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adds up the prices of an order, as BigDecimals and as cents. Each price has two decimal places, like the ones in
+ * the database, and is under $20. Run this with -prof gc to see the allocation of each BigDecimal.add().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+  /** The number of prices in the order, counting items and options. */
+  @Param({"10", "1000", "100000"})
+  private int orderSize;
+
+  private BigDecimal[] prices;
+  private long[] cents;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(17);
+    prices = new BigDecimal[orderSize];
+    cents = new long[orderSize];
+    for (int i = 0; i < orderSize; ++i) {
+      cents[i] = random.nextInt(2000);
+      prices[i] = BigDecimal.valueOf(cents[i], Cents.SCALE);
+    }
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalTotal() {
+    BigDecimal total = BigDecimal.ZERO;
+    for (BigDecimal price : prices) {
+      total = total.add(price);
+    }
+    return total;
+  }
+
+  /** Adds up the cents, then converts the total, as OrderPricer does. */
+  @Benchmark
+  public BigDecimal centsTotal() {
+    long total = 0L;
+    for (long price : cents) {
+      total = Math.addExact(total, price);
+    }
+    return Cents.toBigDecimal(total);
+  }
+}
@@ -0,0 +1,106 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.BenchmarkSupport;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import com.infosys.dummy.model.OrderNodeDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Places orders from 16 threads at once, against an H2 database in memory or in a file. A batch size of 1 gives
+ * each order a transaction of its own, as a save() per request would. Larger batches let the waiting orders share
+ * a commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class OrderWriterBenchmark {
+
+  /** The most orders saved in one transaction. */
+  @Param({"1", "500"})
+  private int batchSize;
+
+  /** Where the database is kept: memory or file. */
+  @Param({"memory", "file"})
+  private String database;
+
+  private Path databaseDirectory;
+  private ConfigurableApplicationContext context;
+  private DataEngine dataEngine;
+  private OrderNodeDto order;
+
+  @Setup
+  public void setup() throws IOException {
+    String batchArg = "--my-app.orders.batch-size=" + batchSize;
+    if ("file".equals(database)) {
+      databaseDirectory = Files.createTempDirectory("benchmark");
+      context = BenchmarkSupport.startFileServer(databaseDirectory.resolve("benchmark"), batchArg);
+    } else {
+      context = BenchmarkSupport.startServer(batchArg);
+    }
+    dataEngine = context.getBean(DataEngine.class);
+
+    MenuItemDto pizza = new MenuItemDto();
+    pizza.setName("Pizza");
+    pizza.setItemPrice(new BigDecimal("9.95"));
+    MenuItemOptionDto onions = new MenuItemOptionDto();
+    onions.setName("Onions");
+    onions.setDeltaPrice(new BigDecimal("0.50"));
+    pizza.addAllowedOptionsItem(onions);
+    Integer pizzaId = dataEngine.addMenuItemFromDto(pizza);
+    Integer onionsId = dataEngine.getMenuItemDto(pizzaId).getAllowedOptions().get(0).getId();
+
+    // Two pizzas with onions. Orders aren't changed once they're placed, so every thread can place the same one.
+    order = new OrderNodeDto();
+    for (int i = 0; i < 2; ++i) {
+      OrderNodeDto item = new OrderNodeDto();
+      item.setMenuItemId(pizzaId);
+      OrderNodeDto option = new OrderNodeDto();
+      option.setOptionId(onionsId);
+      item.addOptionsItem(option);
+      order.addOptionsItem(item);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    context.close();
+    if (databaseDirectory != null) {
+      try (Stream<Path> files = Files.list(databaseDirectory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(databaseDirectory);
+    }
+  }
+
+  @Benchmark
+  public Integer placeOrder() {
+    return dataEngine.placeOrder(order);
+  }
+}
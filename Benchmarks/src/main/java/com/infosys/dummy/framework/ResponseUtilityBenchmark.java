@@ -0,0 +1,82 @@
+package com.infosys.dummy.framework;
+
+import com.infosys.dummy.server.LatencyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead that the ResponseUtility wrappers add to each request, apart from the work of the service
+ * method itself. With timed set, serve() also times the method, with the application's default settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseUtilityBenchmark {
+  private static final String E_TAG = "\"17f1a2b3c4d-42\"";
+
+  @Param({"false", "true"})
+  private boolean timed;
+
+  private final String body = "body";
+  private NativeWebRequest matchingRequest;
+  private NativeWebRequest staleRequest;
+
+  @Setup
+  public void setup() {
+    ResponseUtility.setServiceTimers(
+        timed ? new LatencyProperties().createTimers(new SimpleMeterRegistry(), "api.service", "Service methods") : null
+    );
+    MockHttpServletRequest matching = new MockHttpServletRequest("GET", "/demo/menuItem");
+    matching.addHeader(HttpHeaders.IF_NONE_MATCH, E_TAG);
+    matchingRequest = new ServletWebRequest(matching);
+    MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/demo/menuItem");
+    stale.addHeader(HttpHeaders.IF_NONE_MATCH, "\"17f1a2b3c4d-41\"");
+    staleRequest = new ServletWebRequest(stale);
+  }
+
+  @Benchmark
+  public ResponseEntity<String> serve() {
+    return ResponseUtility.serve(HttpStatus.OK, () -> body);
+  }
+
+  @Benchmark
+  public ResponseEntity<String> serveCreatedEntity() {
+    return ResponseUtility.serveCreatedEntity(() -> 12345);
+  }
+
+  @Benchmark
+  public ResponseEntity<String> serveOKIfModifiedMatch() {
+    return ResponseUtility.serveOKIfModified(matchingRequest, () -> body, b -> E_TAG);
+  }
+
+  @Benchmark
+  public ResponseEntity<String> serveOKIfModifiedKnownMatch() {
+    return ResponseUtility.serveOKIfModified(matchingRequest, E_TAG, () -> body, b -> E_TAG);
+  }
+
+  @Benchmark
+  public ResponseEntity<String> serveOKIfModifiedStale() {
+    return ResponseUtility.serveOKIfModified(staleRequest, () -> body, b -> E_TAG);
+  }
+}
@@ -0,0 +1,84 @@
+package com.infosys.dummy.framework.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares step-by-step ReplaceChains with compiled ones, on five replacements that escape HTML. In the literal
+ * chains, every pattern is a literal, so the compiled chain is an Aho-Corasick automaton. In the regex chains, the
+ * ampersand pattern skips existing entities, so the compiled chain is a single alternation. The text parameter has a
+ * path with nothing to replace, and a sentence with something to replace in almost every word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplaceChainBenchmark {
+  private static final String[] FIND = {"&", "<", ">", "\"", "'"};
+  private static final String[] REPLACE = {"&amp;", "&lt;", "&gt;", "&quot;", "&#39;"};
+
+  private static final Pattern[] LITERAL_PATTERNS = new Pattern[FIND.length];
+  private static final Pattern[] REGEX_PATTERNS = new Pattern[FIND.length];
+  private static final ReplaceChain.Compiled LITERALS;
+  private static final ReplaceChain.Compiled REGEXES;
+
+  static {
+    ReplaceChain.Builder literals = ReplaceChain.compile();
+    ReplaceChain.Builder regexes = ReplaceChain.compile();
+    for (int i = 0; i < FIND.length; i++) {
+      LITERAL_PATTERNS[i] = Pattern.compile(Pattern.quote(FIND[i]));
+      REGEX_PATTERNS[i] = (i == 0) ? Pattern.compile("&(?![a-z]+;)") : LITERAL_PATTERNS[i];
+      literals.replace(FIND[i], REPLACE[i]);
+      regexes.replaceAll(REGEX_PATTERNS[i], REPLACE[i]);
+    }
+    LITERALS = literals.build();
+    REGEXES = regexes.build();
+  }
+
+  @Param({
+      "/demo/menuItem/42/options",
+      "<p class=\"menu\">Tom & Jerry's <b>pizza</b> & \"pasta\" > yours</p>",
+  })
+  private String text;
+
+  @Benchmark
+  public String literalChain() {
+    return chain(LITERAL_PATTERNS);
+  }
+
+  @Benchmark
+  public String regexChain() {
+    return chain(REGEX_PATTERNS);
+  }
+
+  private String chain(Pattern[] patterns) {
+    ReplaceChain chain = ReplaceChain.build(text);
+    for (int i = 0; i < patterns.length; i++) {
+      chain.replaceAll(patterns[i], REPLACE[i]);
+    }
+    return chain.toString();
+  }
+
+  @Benchmark
+  public String compiledLiterals() {
+    return LITERALS.apply(text);
+  }
+
+  @Benchmark
+  public String compiledRegexes() {
+    return REGEXES.apply(text);
+  }
+}
@@ -0,0 +1,95 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.BenchmarkSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ApiOriginFilter.doFilter(), with an empty filter chain, for a cross-origin request and for a preflight
+ * request. The requests are wrapped the way Spring wraps them. Each request is timed, with percentiles.
+ * At the DEBUG level, the filter queues the request to be logged on another thread. The uri parameter has a path with
+ * and without encoded braces.
+ * <p>
+ * The response benchmark only creates the response, so the filter's own cost per request is the difference between
+ * the two. Run with -prof gc to see its allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiOriginFilterBenchmark {
+
+  @Param({"INFO", "DEBUG"})
+  private String level;
+
+  @Param({"/demo/menuItem", "/demo/menuItem/%7Bid%7D/options"})
+  private String uri;
+
+  private static final FilterChain EMPTY_CHAIN = (request, response) -> { };
+
+  private final ApiOriginFilter filter = new ApiOriginFilter(
+      new CorsProperties(),
+      new LatencyProperties(),
+      new SimpleMeterRegistry()
+  );
+  private ServletRequest request;
+  private ServletRequest preflightRequest;
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.setLogLevel(ApiOriginFilter.class, level);
+    MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", uri);
+    mockRequest.addHeader("Origin", "https://menu.example.com");
+    request = new HttpServletRequestWrapper(mockRequest);
+    MockHttpServletRequest mockPreflight = new MockHttpServletRequest("OPTIONS", uri);
+    mockPreflight.addHeader("Origin", "https://menu.example.com");
+    mockPreflight.addHeader("Access-Control-Request-Method", "POST");
+    preflightRequest = new HttpServletRequestWrapper(mockPreflight);
+  }
+
+  @Benchmark
+  public MockHttpServletResponse doFilter() throws IOException, ServletException {
+    // The filter adds headers, so each call needs a new response.
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, EMPTY_CHAIN);
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse preflight() throws IOException, ServletException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(preflightRequest, response, EMPTY_CHAIN);
+    return response;
+  }
+
+  @Benchmark
+  public MockHttpServletResponse response() {
+    return new MockHttpServletResponse();
+  }
+
+  @Benchmark
+  public String decodeBraces() {
+    return ApiOriginFilter.decodeBraces(uri);
+  }
+}
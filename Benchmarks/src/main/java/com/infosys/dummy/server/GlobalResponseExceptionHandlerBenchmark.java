@@ -0,0 +1,103 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.BenchmarkSupport;
+import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.exception.InternalError500Exception;
+import com.infosys.dummy.exception.NotFound404Exception;
+import com.infosys.dummy.exception.ResponseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of an error response, from creating the exception to writing the body. The level parameter
+ * controls whether the handler's log messages are created. The stackless parameter turns on ResponseException's
+ * stackless mode, which only affects the 4xx benchmarks. Every request has the same path, so the ErrorLogLimiter
+ * suppresses nearly every log message, as it would during a flood of bad requests. The body is written to a reused buffer, as the
+ * ErrorResponseHttpMessageConverter would write it to the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalResponseExceptionHandlerBenchmark {
+
+  @Param({"WARN", "INFO"})
+  private String level;
+
+  @Param({"false", "true"})
+  private boolean stackless;
+
+  private GlobalResponseExceptionHandler handler;
+  private ServletWebRequest request;
+  private final ErrorResponseHttpMessageConverter converter = new ErrorResponseHttpMessageConverter(false);
+  private final ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+  private final HttpHeaders headers = new HttpHeaders();
+  private final HttpOutputMessage outputMessage = new HttpOutputMessage() {
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  };
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.setLogLevel(GlobalResponseExceptionHandler.class, level);
+    ErrorLogLimiter errorLogLimiter = new ErrorLogLimiter(new SimpleMeterRegistry(), 5, Duration.ofSeconds(1), 10000);
+    handler = new GlobalResponseExceptionHandler(new StaticApplicationContext(), errorLogLimiter);
+    ResponseException.setStackless(stackless);
+    request = new ServletWebRequest(new MockHttpServletRequest("POST", "/demo/admin/menuItem/addOption/1"));
+  }
+
+  @Benchmark
+  public int badRequest() throws IOException {
+    return write(handler.handleResponseException(new BadRequest400Exception("Non null field ID = 44"), request));
+  }
+
+  @Benchmark
+  public int notFound() throws IOException {
+    return write(handler.handleResponseException(new NotFound404Exception("Missing object at id 44"), request));
+  }
+
+  @Benchmark
+  public int internalError() throws IOException {
+    return write(handler.handleResponseException(
+        new InternalError500Exception(new IllegalStateException("Unexpected failure")), request
+    ));
+  }
+
+  private int write(ResponseEntity<Object> responseEntity) throws IOException {
+    body.reset();
+    converter.write((ErrorResponse) responseEntity.getBody(), MediaType.APPLICATION_JSON, outputMessage);
+    return body.size();
+  }
+}
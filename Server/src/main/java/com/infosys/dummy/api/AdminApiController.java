@@ -6,6 +6,7 @@ import com.infosys.dummy.model.MenuItemOptionDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -56,6 +57,12 @@ public class AdminApiController implements AdminApi {
         return serveCreatedEntity(() -> dataEngine.addMenuItemFromDto(menuItemDto));
     }
 
+    @Override
+    public ResponseEntity<String> importMenuItems(final Resource body) {
+        log.trace("importMenuItems()");
+        return serveCreatedEntity(() -> dataEngine.importMenuItems(body));
+    }
+
     @Override
     public ResponseEntity<String> addNewMenuItemOption(@Valid final MenuItemOptionDto menuItemOptionDto) {
         log.trace("addNewMenuItemOption(): {}", menuItemOptionDto);
@@ -1,16 +1,20 @@
 package com.infosys.dummy.api;
 
+import com.infosys.dummy.cache.MenuVersion;
 import com.infosys.dummy.engine.DataEngine;
+import com.infosys.dummy.engine.MenuSnapshot;
 import com.infosys.dummy.framework.ResponseUtility;
 import com.infosys.dummy.model.MenuItemDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.context.request.NativeWebRequest;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,15 +28,19 @@ public class MenuItemApiController implements MenuItemApi {
   private final NativeWebRequest request;
 
   private final DataEngine dataEngine;
+
+  private final MenuVersion menuVersion;
   
   @Autowired
   public MenuItemApiController(
       @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
       NativeWebRequest request,
-      DataEngine dataEngine
+      DataEngine dataEngine,
+      MenuVersion menuVersion
   ) {
     this.request = request;
     this.dataEngine = dataEngine;
+    this.menuVersion = menuVersion;
   }
 
   @Override
@@ -43,12 +51,48 @@ public class MenuItemApiController implements MenuItemApi {
   @Override
   public ResponseEntity<MenuItemDto> getMenuItem(final Integer id) {
 //    logHeaders(request, "MenuItemApiController.getMenuItem(id)");
-    return ResponseUtility.serveOK(() -> dataEngine.getMenuItemDto(id));
+    // Read the version before the item, so a concurrent change can only make the ETag look older than the item.
+    String eTag = menuVersion.getETag();
+    ResponseEntity<MenuItemDto> response
+        = ResponseUtility.serveOKIfModified(request, () -> dataEngine.getMenuItemDto(id), dto -> eTag);
+    // Only a view with a body counts. A 304 is just a client checking its copy, and may come from a poll.
+    if (response.hasBody()) {
+      dataEngine.recordMenuItemView(id);
+    }
+    return response;
+  }
+
+  @Override
+  public ResponseEntity<Resource> exportMenuItems() {
+    return ResponseUtility.serveOK(dataEngine::exportMenuItems);
+  }
+
+  @Override
+  public ResponseEntity<List<MenuItemDto>> searchMenuItems(
+      final String name,
+      final String prefix,
+      final String option,
+      final BigDecimal minPrice,
+      final BigDecimal maxPrice
+  ) {
+    return ResponseUtility.serveOK(() -> dataEngine.searchMenuItems(name, prefix, option, minPrice, maxPrice));
+  }
+
+  @Override
+  public ResponseEntity<List<String>> suggestMenuNames(final String prefix, final Integer limit) {
+    return ResponseUtility.serveOK(() -> dataEngine.suggestMenuNames(prefix, limit));
   }
 
   @Override
   public ResponseEntity<List<MenuItemDto>> getAll() {
 //    logHeaders(request, "MenuItemApiController.getAll()");
-    return ResponseUtility.serveOK(dataEngine::getAllMenuItems);
+    // A client whose ETag is still current gets its 304 without touching DataEngine. Otherwise, the snapshot's own
+    // ETag decides, which may still be a 304 if the menu changed back, or if the snapshot came from another node.
+    return ResponseUtility.serveOKIfModified(
+        request,
+        menuVersion.getMenuETag(),
+        dataEngine::getAllMenuItems,
+        MenuSnapshot::getETag
+    );
   }
 }
@@ -0,0 +1,47 @@
+package com.infosys.dummy.api;
+
+import com.infosys.dummy.engine.DataEngine;
+import com.infosys.dummy.framework.ResponseUtility;
+import com.infosys.dummy.model.OrderNodeDto;
+import com.infosys.dummy.model.OrderQuoteDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.Optional;
+
+@Controller
+@RequestMapping("${openapi.customerOrders.base-path:}")
+public class OrderApiController implements OrderApi {
+
+  private final NativeWebRequest request;
+
+  private final DataEngine dataEngine;
+
+  @Autowired
+  public OrderApiController(
+      @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+      NativeWebRequest request,
+      DataEngine dataEngine
+  ) {
+    this.request = request;
+    this.dataEngine = dataEngine;
+  }
+
+  @Override
+  public Optional<NativeWebRequest> getRequest() {
+    return Optional.ofNullable(request);
+  }
+
+  @Override
+  public ResponseEntity<OrderQuoteDto> quoteOrder(final OrderNodeDto order) {
+    return ResponseUtility.serveOK(() -> dataEngine.quoteOrder(order));
+  }
+
+  @Override
+  public ResponseEntity<String> placeOrder(final OrderNodeDto order) {
+    return ResponseUtility.serveCreatedEntity(() -> dataEngine.placeOrder(order));
+  }
+}
@@ -0,0 +1,151 @@
+package com.infosys.dummy.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.infosys.dummy.engine.DataEngine;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static com.infosys.dummy.repository.MenuItemRepository.MENU_ITEM_CACHE;
+import static com.infosys.dummy.repository.MenuItemRepository.MENU_ITEM_DTO_CACHE;
+
+/**
+ * Cache configuration. Caching itself is turned on in ServerMaster.
+ * <p>
+ * Each cache is a bounded Caffeine cache, configured by the my-app.cache properties. (See CacheProperties.) The
+ * menu caches, and any caches listed in the properties, are created at startup, so the actuator can publish their
+ * statistics under the cache.gets, cache.puts, and cache.evictions metrics. Caches that are first used later get
+ * the default specification, but no metrics.
+ * <p>
+ * If my-app.cache.shared.enabled is true, the menu caches get a shared tier behind the local one, and their evictions
+ * are broadcast to the other nodes, which update their ETags and search indexes from them. To share them across
+ * machines, define SharedCacheStore and CacheInvalidationBus beans backed by a real server. Otherwise, in-memory
+ * stand-ins are used.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+  private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
+  @Bean
+  public CacheManager cacheManager(
+      CacheProperties cacheProperties,
+      MenuVersion menuVersion,
+      ObjectProvider<DataEngine> dataEngineProvider,
+      SharedCacheStore sharedCacheStore,
+      CacheInvalidationBus cacheInvalidationBus
+  ) {
+    final boolean shared = cacheProperties.getShared().isEnabled();
+    CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager() {
+      @Override
+      protected @NotNull Cache<Object, Object> createNativeCaffeineCache(@NotNull final String name) {
+        // A refreshed value goes to the shared tier too, or the other nodes would keep loading the old one from it.
+        final boolean sharedCache = shared && (MENU_ITEM_CACHE.equals(name) || MENU_ITEM_DTO_CACHE.equals(name));
+        MenuCacheLoader loader = sharedCache
+            ? new MenuCacheLoader(dataEngineProvider, menuVersion, sharedCacheStore, name)
+            : new MenuCacheLoader(dataEngineProvider, menuVersion);
+        return buildCache(name, cacheProperties.getSpec(name), loader);
+      }
+
+      @Override
+      protected @NotNull org.springframework.cache.Cache adaptCaffeineCache(
+          @NotNull final String name,
+          @NotNull final Cache<Object, Object> cache
+      ) {
+        return new RefreshingCaffeineCache(name, cache, isAllowNullValues());
+      }
+    };
+    CacheManager localCacheManager = caffeineCacheManager;
+    if (shared) {
+      TwoTierCacheManager twoTierCacheManager = new TwoTierCacheManager(
+          caffeineCacheManager,
+          sharedCacheStore,
+          cacheInvalidationBus,
+          menuVersion,
+          MENU_ITEM_CACHE,
+          MENU_ITEM_DTO_CACHE
+      );
+      // Another node changed the menu, so our ETags are out of date.
+      twoTierCacheManager.addRemoteInvalidationListener(invalidation -> menuVersion.bump());
+      // ... and so is our search index, which only our own writes update.
+      twoTierCacheManager.addRemoteInvalidationListener(invalidation -> dataEngineProvider.getObject()
+          .refreshSearchIndex(invalidation.getCacheName(), invalidation.getKey()));
+      localCacheManager = twoTierCacheManager;
+    }
+    VersionedCacheManager cacheManager
+        = new VersionedCacheManager(localCacheManager, menuVersion, MENU_ITEM_CACHE, MENU_ITEM_DTO_CACHE);
+
+    Set<String> startupCaches = new LinkedHashSet<>(cacheProperties.getSpecs().keySet());
+    startupCaches.add(MENU_ITEM_CACHE);
+    startupCaches.add(MENU_ITEM_DTO_CACHE);
+    startupCaches.forEach(cacheManager::getCache);
+    return cacheManager;
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public SharedCacheStore sharedCacheStore(CacheProperties cacheProperties) {
+    return new InMemorySharedCacheStore(cacheProperties.getShared().getSpec());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public CacheInvalidationBus cacheInvalidationBus() {
+    return new InMemoryCacheInvalidationBus();
+  }
+
+  @Bean
+  public VersionedCacheMeterBinderProvider versionedCacheMeterBinderProvider() {
+    return new VersionedCacheMeterBinderProvider();
+  }
+
+  /**
+   * A CaffeineCache that never loads a missing entry through its loader. Spring looks up a key in a LoadingCache with
+   * get(), which calls the loader on a miss. Our loader only refreshes, so each miss would be counted as a failed load.
+   * getIfPresent() counts it as a miss, and still starts a refresh when an entry is due for one.
+   */
+  static final class RefreshingCaffeineCache extends CaffeineCache {
+    RefreshingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+      super(name, cache, allowNullValues);
+    }
+
+    @Override
+    protected @Nullable Object lookup(@NotNull final Object key) {
+      return getNativeCache().getIfPresent(key);
+    }
+  }
+
+  /**
+   * Builds a Caffeine cache from a specification. If the specification has a maximumWeight, entries are weighed by
+   * a MenuCacheWeigher. If it has a refreshAfterWrite, entries are refreshed by the loader.
+   * @param name The name of the cache, for logging
+   * @param spec The Caffeine specification
+   * @param loader The loader, used only to refresh entries
+   * @return The native Caffeine cache
+   */
+  static Cache<Object, Object> buildCache(String name, String spec, CacheLoader<Object, Object> loader) {
+    log.debug("Building cache {} with spec {}", name, spec);
+    Caffeine<Object, Object> builder = Caffeine.from(spec);
+    if (spec.contains("maximumWeight")) {
+      builder.weigher(new MenuCacheWeigher());
+    }
+    if (spec.contains("refreshAfterWrite")) {
+      return builder.build(loader);
+    }
+    return builder.build();
+  }
+}
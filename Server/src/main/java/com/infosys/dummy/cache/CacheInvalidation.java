@@ -0,0 +1,55 @@
+package com.infosys.dummy.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An eviction made by one node, broadcast to the others on the CacheInvalidationBus so they can drop the entry from
+ * their local tier.
+ */
+public final class CacheInvalidation {
+  private final String originNode;
+  private final String cacheName;
+  private final @Nullable Object key;
+
+  /**
+   * Creates a CacheInvalidation.
+   * @param originNode The id of the node that made the eviction
+   * @param cacheName The name of the cache
+   * @param key The evicted key, or null if the whole cache was cleared
+   */
+  public CacheInvalidation(@NotNull String originNode, @NotNull String cacheName, @Nullable Object key) {
+    this.originNode = originNode;
+    this.cacheName = cacheName;
+    this.key = key;
+  }
+
+  public String getOriginNode() {
+    return originNode;
+  }
+
+  public String getCacheName() {
+    return cacheName;
+  }
+
+  /**
+   * Returns the evicted key.
+   * @return the evicted key, or null if the whole cache was cleared
+   */
+  public @Nullable Object getKey() {
+    return key;
+  }
+
+  public boolean isClear() {
+    return key == null;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheInvalidation{" +
+        "originNode='" + originNode + '\'' +
+        ", cacheName='" + cacheName + '\'' +
+        ", key=" + key +
+        '}';
+  }
+}
@@ -0,0 +1,23 @@
+package com.infosys.dummy.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache evictions to every node, including the one that published them. Subscribers are expected to
+ * ignore their own invalidations. A Redis pub/sub channel would go here. InMemoryCacheInvalidationBus is a stand-in
+ * for testing on one machine.
+ */
+public interface CacheInvalidationBus {
+
+  /**
+   * Sends an invalidation to every subscriber.
+   * @param invalidation The invalidation
+   */
+  void publish(CacheInvalidation invalidation);
+
+  /**
+   * Registers a subscriber to receive every invalidation published after this call.
+   * @param subscriber The subscriber
+   */
+  void subscribe(Consumer<CacheInvalidation> subscriber);
+}
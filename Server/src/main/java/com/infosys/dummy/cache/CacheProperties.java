@@ -0,0 +1,95 @@
+package com.infosys.dummy.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for the local caches, taken from the my-app.cache properties. Each cache is configured with a Caffeine
+ * specification String, as described in com.github.benmanes.caffeine.cache.CaffeineSpec. For example:
+ * <pre>
+ *   my-app.cache.default-spec=maximumSize=1000,expireAfterWrite=10m,recordStats
+ *   my-app.cache.specs.menuItems=maximumWeight=100000,expireAfterWrite=30m,refreshAfterWrite=5m,recordStats
+ * </pre>
+ * A maximumWeight is measured in menu entries, where each MenuItem and each MenuItemOption counts as one. (See
+ * MenuCacheWeigher.) Include recordStats to publish the hit, miss, and eviction counts through the actuator.
+ * <p>
+ * Set my-app.cache.shared.enabled to back the menu caches with a shared tier. (See TwoTierCacheManager.)
+ */
+@ConfigurationProperties(prefix = "my-app.cache")
+public class CacheProperties {
+  private String defaultSpec = "maximumSize=10000,expireAfterWrite=1h,recordStats";
+  private Map<String, String> specs = new HashMap<>();
+  private final Shared shared = new Shared();
+
+  /**
+   * Returns the specification for any cache that doesn't have its own entry in the specs.
+   * @return the default specification
+   */
+  public String getDefaultSpec() {
+    return defaultSpec;
+  }
+
+  public void setDefaultSpec(final String defaultSpec) {
+    this.defaultSpec = defaultSpec;
+  }
+
+  /**
+   * Returns the specifications, keyed by cache name. Each of these caches is created at startup.
+   * @return the specifications
+   */
+  public Map<String, String> getSpecs() {
+    return specs;
+  }
+
+  public void setSpecs(final Map<String, String> specs) {
+    this.specs = specs;
+  }
+
+  /**
+   * Returns the specification for the named cache.
+   * @param cacheName The name of the cache
+   * @return The specification for the cache, or the default specification if it doesn't have its own
+   */
+  public String getSpec(String cacheName) {
+    return specs.getOrDefault(cacheName, defaultSpec);
+  }
+
+  public Shared getShared() {
+    return shared;
+  }
+
+  /**
+   * Settings for the shared tier.
+   */
+  public static class Shared {
+    private boolean enabled = false;
+    private String spec = InMemorySharedCacheStore.DEFAULT_SPEC;
+
+    /**
+     * Returns true if the menu caches have a shared tier behind the local one.
+     * @return true if the shared tier is enabled
+     */
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    /**
+     * Returns the Caffeine specification for each cache in the in-memory shared tier. A shared tier on a real server
+     * is configured there instead.
+     * @return the specification
+     */
+    public String getSpec() {
+      return spec;
+    }
+
+    public void setSpec(final String spec) {
+      this.spec = spec;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package com.infosys.dummy.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A CacheInvalidationBus held in this JVM. Invalidations are delivered synchronously, on the publishing thread, to
+ * every node that subscribed to this instance. A failing subscriber is logged, and doesn't stop delivery to the
+ * others.
+ */
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+  private static final Logger log = LoggerFactory.getLogger(InMemoryCacheInvalidationBus.class);
+
+  private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(final CacheInvalidation invalidation) {
+    for (Consumer<CacheInvalidation> subscriber : subscribers) {
+      try {
+        subscriber.accept(invalidation);
+      } catch (RuntimeException e) {
+        log.warn("Failed to deliver {}", invalidation, e);
+      }
+    }
+  }
+
+  @Override
+  public void subscribe(final Consumer<CacheInvalidation> subscriber) {
+    subscribers.add(subscriber);
+  }
+}
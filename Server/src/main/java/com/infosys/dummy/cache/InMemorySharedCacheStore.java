@@ -0,0 +1,74 @@
+package com.infosys.dummy.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A SharedCacheStore held in this JVM. This only shares values among the nodes that share this instance, so it's
+ * useful for tests, and for running a single node without a Redis server. Values are stored by reference, not
+ * serialized, so they must not be modified once they're cached.
+ * <p>
+ * Each cache is a Caffeine cache, built from the same specification, so it's bounded, and its values expire, as a
+ * real shared store's would. Without an expiry, a value that slipped in after an eviction would be served forever.
+ * A maximumWeight is measured in menu entries, as it is for the local caches. (See MenuCacheWeigher.)
+ */
+public class InMemorySharedCacheStore implements SharedCacheStore {
+  /** The specification used by the no-argument constructor. */
+  public static final String DEFAULT_SPEC = "maximumWeight=100000,expireAfterWrite=30m";
+
+  private final String spec;
+  private final Map<String, com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper>> caches
+      = new ConcurrentHashMap<>();
+
+  public InMemorySharedCacheStore() {
+    this(DEFAULT_SPEC);
+  }
+
+  /**
+   * Creates an empty store.
+   * @param spec The Caffeine specification for each cache, which should set a bound and an expiry
+   */
+  public InMemorySharedCacheStore(String spec) {
+    this.spec = spec;
+  }
+
+  @Override
+  public @Nullable Cache.ValueWrapper get(@NotNull final String cacheName, @NotNull final Object key) {
+    return getCache(cacheName).getIfPresent(key);
+  }
+
+  @Override
+  public void put(@NotNull final String cacheName, @NotNull final Object key, @Nullable final Object value) {
+    getCache(cacheName).put(key, new SimpleValueWrapper(value));
+  }
+
+  @Override
+  public void evict(@NotNull final String cacheName, @NotNull final Object key) {
+    getCache(cacheName).invalidate(key);
+  }
+
+  @Override
+  public void clear(@NotNull final String cacheName) {
+    getCache(cacheName).invalidateAll();
+  }
+
+  private com.github.benmanes.caffeine.cache.Cache<Object, Cache.ValueWrapper> getCache(String cacheName) {
+    return caches.computeIfAbsent(cacheName, n -> {
+      Caffeine<Object, Object> builder = Caffeine.from(spec);
+      if (spec.contains("maximumWeight")) {
+        MenuCacheWeigher weigher = new MenuCacheWeigher();
+        builder.weigher((Object key, Object wrapper) -> {
+          Object value = ((Cache.ValueWrapper) wrapper).get();
+          return (value == null) ? 1 : weigher.weigh(key, value);
+        });
+      }
+      return builder.build();
+    });
+  }
+}
@@ -0,0 +1,112 @@
+package com.infosys.dummy.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.infosys.dummy.engine.DataEngine;
+import com.infosys.dummy.engine.MenuSnapshot;
+import com.infosys.dummy.model.MenuItemDto;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Objects;
+
+/**
+ * Refreshes menu cache entries in the background, for caches with a refreshAfterWrite setting. This picks up
+ * changes that didn't go through the repositories, which would otherwise have evicted the entries.
+ * <p>
+ * This never loads a missing entry. The cached methods do that themselves, as they do with any other cache. Spring
+ * only calls getIfPresent() on these caches (see CacheConfig.RefreshingCaffeineCache), so {@link #load(Object)} isn't
+ * called, and a miss is counted as a miss, not as a failed load.
+ * <p>
+ * If a refresh finds that the menu has changed, it bumps the MenuVersion, so clients holding an old ETag will get the
+ * new menu. A changed snapshot is built only once. If anything else changed the menu while it was being built, it's
+ * dropped instead. Any value this can't
+ * refresh is dropped too, and the next caller reloads it.
+ * <p>
+ * For a cache with a shared tier, a changed value is written to the shared tier too, since Caffeine only replaces it
+ * in the local tier. Without that, the other nodes would keep loading the old value from the shared tier.
+ */
+public class MenuCacheLoader implements CacheLoader<Object, Object> {
+  private static final Logger log = LoggerFactory.getLogger(MenuCacheLoader.class);
+
+  // This is looked up lazily, because DataEngine depends on the repositories, which depend on the CacheManager.
+  private final ObjectProvider<DataEngine> dataEngineProvider;
+  private final MenuVersion menuVersion;
+  private final @Nullable SharedCacheStore sharedStore;
+  private final @Nullable String cacheName;
+
+  /**
+   * Creates a loader for a cache with no shared tier.
+   */
+  public MenuCacheLoader(ObjectProvider<DataEngine> dataEngineProvider, MenuVersion menuVersion) {
+    this(dataEngineProvider, menuVersion, null, null);
+  }
+
+  /**
+   * Creates a loader for a cache whose refreshed values are written to a shared tier.
+   * @param sharedStore The shared tier, or null if there isn't one
+   * @param cacheName The name of the cache in the shared tier, or null if there isn't one
+   */
+  public MenuCacheLoader(
+      ObjectProvider<DataEngine> dataEngineProvider,
+      MenuVersion menuVersion,
+      @Nullable SharedCacheStore sharedStore,
+      @Nullable String cacheName
+  ) {
+    this.dataEngineProvider = dataEngineProvider;
+    this.menuVersion = menuVersion;
+    this.sharedStore = sharedStore;
+    this.cacheName = cacheName;
+  }
+
+  @Override
+  public @Nullable Object load(@NotNull final Object key) {
+    return null;
+  }
+
+  @Override
+  public @Nullable Object reload(@NotNull final Object key, @NotNull final Object oldValue) {
+    Object value = refresh(key, oldValue);
+    if ((value != oldValue) && (sharedStore != null) && (cacheName != null)) {
+      try {
+        if (value == null) {
+          sharedStore.evict(cacheName, key);
+        } else {
+          sharedStore.put(cacheName, key, value);
+        }
+      } catch (RuntimeException e) {
+        log.warn("Failed to write refreshed {} to shared cache {}", key, cacheName, e);
+      }
+    }
+    return value;
+  }
+
+  private @Nullable Object refresh(final Object key, final Object oldValue) {
+    DataEngine dataEngine = dataEngineProvider.getObject();
+    if (oldValue instanceof MenuSnapshot) {
+      final long version = menuVersion.current();
+      MenuSnapshot snapshot = dataEngine.buildMenuSnapshot();
+      if (snapshot.hasSameJson((MenuSnapshot) oldValue)) {
+        return oldValue;
+      }
+      log.debug("Menu changed outside the repositories. Refreshing the snapshot.");
+      final long newVersion = menuVersion.bump();
+      if (newVersion != (version + 1)) {
+        return null; // Some other change got in while the snapshot was being built, so it may have missed that one.
+      }
+      menuVersion.setMenuETag(newVersion, snapshot.getETag());
+      return snapshot;
+    }
+    if ((oldValue instanceof MenuItemDto) && (key instanceof Integer)) {
+      MenuItemDto menuItemDto = dataEngine.loadMenuItemDto((Integer) key);
+      if (!Objects.equals(menuItemDto, oldValue)) {
+        log.debug("MenuItem {} changed outside the repositories.", key);
+        menuVersion.bump();
+      }
+      return menuItemDto; // null removes the entry
+    }
+    return null;
+  }
+}
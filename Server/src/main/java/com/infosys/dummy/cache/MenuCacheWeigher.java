@@ -0,0 +1,41 @@
+package com.infosys.dummy.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.model.MenuItemDto;
+import org.hibernate.Hibernate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Weighs cached values by the number of menu entries they hold, where each MenuItem and each MenuItemOption counts
+ * as one. So a snapshot of a menu with 10 items with 4 options each weighs 50. Values that hold no menu entries
+ * weigh 1.
+ */
+public class MenuCacheWeigher implements Weigher<Object, Object> {
+
+  @Override
+  public int weigh(@NotNull final Object key, @NotNull final Object value) {
+    return Math.max(1, entries(value));
+  }
+
+  private static int entries(Object value) {
+    if (value instanceof MenuItemDto) {
+      final Collection<?> options = ((MenuItemDto) value).getAllowedOptions();
+      return 1 + ((options == null) ? 0 : options.size());
+    }
+    if (value instanceof MenuItem) {
+      final Collection<?> options = ((MenuItem) value).getAllowedOptions();
+      return 1 + (Hibernate.isInitialized(options) ? options.size() : 0);
+    }
+    if (value instanceof Collection) {
+      int total = 0;
+      for (Object element : (Collection<?>) value) {
+        total += entries(element);
+      }
+      return total;
+    }
+    return 1;
+  }
+}
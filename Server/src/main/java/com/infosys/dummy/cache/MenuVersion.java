@@ -0,0 +1,100 @@
+package com.infosys.dummy.cache;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the version of the menu. The version goes up every time one of the menu caches is evicted, which
+ * happens on every save or delete of a MenuItem or MenuItemOption. (See VersionedCacheManager.) Clients can send
+ * the ETag back in an If-None-Match header, which lets us tell them their copy is current without ever reading the
+ * menu.
+ * <p>
+ * The ETag includes the time the server was launched, so a version from a previous run never matches a version
+ * from the current run. Versions are local to each node, and are only compared with versions from the same node. A
+ * value shared between nodes, like the full menu snapshot, can't take its ETag from here. (See MenuSnapshot.)
+ * <p>
+ * This does remember the ETag of the last snapshot built on this node, along with the version it was built from. As
+ * long as the version hasn't changed since, that's still the ETag of the menu, so a client that sends it can get its
+ * 304 without anybody looking at the snapshot. (See getMenuETag().)
+ */
+@Component
+public class MenuVersion {
+  private final String epoch = Long.toHexString(System.currentTimeMillis());
+  private final AtomicLong version = new AtomicLong();
+  private volatile @Nullable MenuETag menuETag = null;
+
+  /**
+   * Returns the current version of the menu.
+   * @return the current version
+   */
+  public long current() {
+    return version.get();
+  }
+
+  /**
+   * Increments the version. Call this whenever the menu changes.
+   * @return the new version
+   */
+  public long bump() {
+    return version.incrementAndGet();
+  }
+
+  /**
+   * Returns true if the menu changed after a load began, so the loaded value may be stale, and mustn't be cached.
+   * Versions are local to this node, so the load version must have been read here, from this MenuVersion.
+   * @param loadVersion The version that was current when the load began
+   * @return true if the loaded value may be stale
+   */
+  public boolean isStale(long loadVersion) {
+    return loadVersion < current();
+  }
+
+  /**
+   * Records the ETag of the full menu, as of the specified version. Only call this with a version that was current
+   * before the menu was read, and still was after it was read, so nothing could have changed in between.
+   * @param menuVersion The version of the menu that was read
+   * @param eTag The ETag of the menu snapshot, including the quotes
+   */
+  public void setMenuETag(long menuVersion, String eTag) {
+    menuETag = new MenuETag(menuVersion, eTag);
+  }
+
+  /**
+   * Returns the ETag of the full menu, if it was recorded for the current version.
+   * @return The ETag, including the quotes, or null if the menu has changed since it was recorded, or it never was
+   */
+  public @Nullable String getMenuETag() {
+    MenuETag recorded = menuETag;
+    return ((recorded != null) && (recorded.version == current())) ? recorded.eTag : null;
+  }
+
+  /**
+   * Returns a strong ETag for the current version, including the quotes.
+   * @return The ETag
+   */
+  public String getETag() {
+    return getETag(current());
+  }
+
+  /**
+   * Returns a strong ETag for the specified version, including the quotes.
+   * @param menuVersion The version
+   * @return The ETag
+   */
+  public String getETag(long menuVersion) {
+    //noinspection StringConcatenation,MagicCharacter
+    return '"' + epoch + '-' + menuVersion + '"';
+  }
+
+  private static final class MenuETag {
+    private final long version;
+    private final String eTag;
+
+    MenuETag(long version, String eTag) {
+      this.version = version;
+      this.eTag = eTag;
+    }
+  }
+}
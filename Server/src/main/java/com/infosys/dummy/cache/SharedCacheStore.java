@@ -0,0 +1,45 @@
+package com.infosys.dummy.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.Cache;
+
+/**
+ * The shared, second-level tier of a TwoTierCache. Every node reads and writes the same store, so a value loaded on
+ * one node can be served by all the others without going to the database. A Redis or Hazelcast implementation would
+ * go here. InMemorySharedCacheStore is a stand-in for testing on one machine.
+ * <p>
+ * Implementations must be thread-safe. Their failures are logged by TwoTierCache, and treated as misses, so a down
+ * shared tier slows the nodes down without breaking them.
+ */
+public interface SharedCacheStore {
+
+  /**
+   * Returns the cached value, wrapped so a cached null can be told apart from a miss.
+   * @param cacheName The name of the cache
+   * @param key The key
+   * @return The wrapped value, or null if the key isn't cached
+   */
+  @Nullable Cache.ValueWrapper get(@NotNull String cacheName, @NotNull Object key);
+
+  /**
+   * Caches a value, replacing any previous value.
+   * @param cacheName The name of the cache
+   * @param key The key
+   * @param value The value, which may be null
+   */
+  void put(@NotNull String cacheName, @NotNull Object key, @Nullable Object value);
+
+  /**
+   * Removes a value, if it's present.
+   * @param cacheName The name of the cache
+   * @param key The key
+   */
+  void evict(@NotNull String cacheName, @NotNull Object key);
+
+  /**
+   * Removes every value from the named cache.
+   * @param cacheName The name of the cache
+   */
+  void clear(@NotNull String cacheName);
+}
@@ -0,0 +1,271 @@
+package com.infosys.dummy.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Wraps a CacheManager of local caches, backing the listed caches with a SharedCacheStore. Each of these caches has
+ * two tiers: the local cache, in this JVM, and the shared store, which every node can read. A miss in the local tier
+ * falls back to the shared tier before it goes to the database.
+ * <p>
+ * Evictions go to both tiers, and are broadcast on the CacheInvalidationBus, so the other nodes drop the entry from
+ * their local tiers too. Without this, an admin write on one node would leave a stale menu on all the others.
+ * <p>
+ * A value loaded from the database is only written to the shared tier if the MenuVersion didn't change while it was
+ * being loaded. (See MenuVersion.isStale().) Otherwise, a value read just before another node's write could land in
+ * the shared tier after that write's eviction, and every node would serve it. The version goes up on every eviction
+ * here, and on every invalidation from another node, as long as the listener in CacheConfig bumps it.
+ * Caches that aren't listed are returned unwrapped.
+ */
+public class TwoTierCacheManager implements CacheManager {
+  private static final Logger log = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final CacheManager localManager;
+  private final SharedCacheStore sharedStore;
+  private final CacheInvalidationBus invalidationBus;
+  private final MenuVersion menuVersion;
+  private final Set<String> sharedCacheNames;
+  private final Map<String, TwoTierCache> sharedCaches = new ConcurrentHashMap<>();
+  private final List<Consumer<CacheInvalidation>> remoteInvalidationListeners = new CopyOnWriteArrayList<>();
+
+  public TwoTierCacheManager(
+      CacheManager localManager,
+      SharedCacheStore sharedStore,
+      CacheInvalidationBus invalidationBus,
+      MenuVersion menuVersion,
+      String... sharedCacheNames
+  ) {
+    this.localManager = localManager;
+    this.sharedStore = sharedStore;
+    this.invalidationBus = invalidationBus;
+    this.menuVersion = menuVersion;
+    this.sharedCacheNames = new HashSet<>(Arrays.asList(sharedCacheNames));
+    invalidationBus.subscribe(this::onInvalidation);
+  }
+
+  /**
+   * Returns the id that identifies this node's invalidations.
+   * @return the node id
+   */
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * Registers a listener to be notified after an invalidation from another node has been applied to the local tier.
+   * @param listener The listener
+   */
+  public void addRemoteInvalidationListener(Consumer<CacheInvalidation> listener) {
+    remoteInvalidationListeners.add(listener);
+  }
+
+  @Override
+  public @Nullable Cache getCache(@NotNull final String name) {
+    if (!sharedCacheNames.contains(name)) {
+      return localManager.getCache(name);
+    }
+    return sharedCaches.computeIfAbsent(name, n -> {
+      Cache cache = localManager.getCache(n);
+      return (cache == null) ? null : new TwoTierCache(cache, this);
+    });
+  }
+
+  @Override
+  public @NotNull Collection<String> getCacheNames() {
+    return localManager.getCacheNames();
+  }
+
+  private void onInvalidation(CacheInvalidation invalidation) {
+    if (nodeId.equals(invalidation.getOriginNode())) {
+      return;
+    }
+    Cache cache = getCache(invalidation.getCacheName());
+    if (!(cache instanceof TwoTierCache)) {
+      return;
+    }
+    log.trace("Applying {}", invalidation);
+    Cache localCache = ((TwoTierCache) cache).getLocalCache();
+    Object key = invalidation.getKey();
+    if (key == null) {
+      localCache.clear();
+    } else {
+      localCache.evict(key);
+    }
+    remoteInvalidationListeners.forEach(listener -> listener.accept(invalidation));
+  }
+
+  private void broadcast(String cacheName, @Nullable Object key) {
+    invalidationBus.publish(new CacheInvalidation(nodeId, cacheName, key));
+  }
+
+  /**
+   * A Cache with a local tier and a shared tier. Failures of the shared tier are logged and treated as misses.
+   */
+  public static class TwoTierCache implements Cache {
+    private final Cache localCache;
+    private final TwoTierCacheManager manager;
+    private final SharedCacheStore sharedStore;
+    private final MenuVersion menuVersion;
+
+    TwoTierCache(Cache localCache, TwoTierCacheManager manager) {
+      this.localCache = localCache;
+      this.manager = manager;
+      this.sharedStore = manager.sharedStore;
+      this.menuVersion = manager.menuVersion;
+    }
+
+    /**
+     * Returns the local tier.
+     * @return the local tier
+     */
+    public Cache getLocalCache() {
+      return localCache;
+    }
+
+    @Override
+    public @NotNull String getName() {
+      return localCache.getName();
+    }
+
+    @Override
+    public @NotNull Object getNativeCache() {
+      return localCache.getNativeCache();
+    }
+
+    @Override
+    public @Nullable ValueWrapper get(@NotNull final Object key) {
+      ValueWrapper localValue = localCache.get(key);
+      if (localValue != null) {
+        return localValue;
+      }
+      ValueWrapper sharedValue = getShared(key);
+      if (sharedValue != null) {
+        localCache.put(key, sharedValue.get());
+      }
+      return sharedValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> @Nullable T get(@NotNull final Object key, @Nullable final Class<T> type) {
+      ValueWrapper wrapper = get(key);
+      Object value = (wrapper == null) ? null : wrapper.get();
+      if ((value != null) && (type != null) && !type.isInstance(value)) {
+        throw new IllegalStateException(
+            String.format("Cached value is not of required type [%s]: %s", type.getName(), value)
+        );
+      }
+      return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> @Nullable T get(@NotNull final Object key, @NotNull final Callable<T> valueLoader) {
+      return localCache.get(key, () -> {
+        ValueWrapper sharedValue = getShared(key);
+        if (sharedValue != null) {
+          return (T) sharedValue.get();
+        }
+        final long version = menuVersion.current();
+        T value = valueLoader.call();
+        putShared(key, value, version);
+        return value;
+      });
+    }
+
+    @Override
+    public void put(@NotNull final Object key, @Nullable final Object value) {
+      localCache.put(key, value);
+      putShared(key, value, menuVersion.current());
+    }
+
+    @Override
+    public @Nullable ValueWrapper putIfAbsent(@NotNull final Object key, @Nullable final Object value) {
+      ValueWrapper existing = localCache.putIfAbsent(key, value);
+      if (existing == null) {
+        putShared(key, value, menuVersion.current());
+      }
+      return existing;
+    }
+
+    @Override
+    public void evict(@NotNull final Object key) {
+      localCache.evict(key);
+      try {
+        sharedStore.evict(getName(), key);
+      } catch (RuntimeException e) {
+        log.error("Failed to evict {} from shared cache {}", key, getName(), e);
+      }
+      manager.broadcast(getName(), key);
+    }
+
+    @Override
+    public boolean evictIfPresent(@NotNull final Object key) {
+      boolean evicted = localCache.evictIfPresent(key);
+      evict(key);
+      return evicted;
+    }
+
+    @Override
+    public void clear() {
+      localCache.clear();
+      try {
+        sharedStore.clear(getName());
+      } catch (RuntimeException e) {
+        log.error("Failed to clear shared cache {}", getName(), e);
+      }
+      manager.broadcast(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+      boolean invalidated = localCache.invalidate();
+      clear();
+      return invalidated;
+    }
+
+    private @Nullable ValueWrapper getShared(Object key) {
+      try {
+        return sharedStore.get(getName(), key);
+      } catch (RuntimeException e) {
+        log.warn("Failed to read {} from shared cache {}", key, getName(), e);
+        return null;
+      }
+    }
+
+    /**
+     * Writes a value to the shared tier, unless the menu changed after its load began. If the version changes during
+     * the write, the value is evicted again, since the eviction it raced with may have come first.
+     */
+    private void putShared(Object key, @Nullable Object value, long loadVersion) {
+      if (menuVersion.isStale(loadVersion)) {
+        return;
+      }
+      try {
+        sharedStore.put(getName(), key, value);
+        if (menuVersion.isStale(loadVersion)) {
+          sharedStore.evict(getName(), key);
+        }
+      } catch (RuntimeException e) {
+        log.warn("Failed to write {} to shared cache {}", key, getName(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.infosys.dummy.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps another CacheManager, bumping the MenuVersion whenever anything gets evicted from one of the menu caches.
+ * Since every {@literal @}CacheEvict annotation on the repositories evicts from a menu cache, this ties the version
+ * to every write, no matter who does the writing. Caches that aren't listed are returned unwrapped.
+ * <p>
+ * It also keeps values loaded from an older version out of the cache. Otherwise, a value read just before a write
+ * could be put after the write's eviction, and would be served as current until the next change.
+ */
+public class VersionedCacheManager implements CacheManager {
+  private final CacheManager delegate;
+  private final MenuVersion menuVersion;
+  private final Set<String> versionedCacheNames;
+  private final Map<String, Cache> versionedCaches = new ConcurrentHashMap<>();
+
+  public VersionedCacheManager(CacheManager delegate, MenuVersion menuVersion, String... versionedCacheNames) {
+    this.delegate = delegate;
+    this.menuVersion = menuVersion;
+    this.versionedCacheNames = new HashSet<>(Arrays.asList(versionedCacheNames));
+  }
+
+  @Override
+  public @Nullable Cache getCache(@NotNull final String name) {
+    if (!versionedCacheNames.contains(name)) {
+      return delegate.getCache(name);
+    }
+    return versionedCaches.computeIfAbsent(name, n -> {
+      Cache cache = delegate.getCache(n);
+      return (cache == null) ? null : new VersionedCache(cache, menuVersion);
+    });
+  }
+
+  @Override
+  public @NotNull Collection<String> getCacheNames() {
+    return delegate.getCacheNames();
+  }
+
+  /**
+   * A Cache that bumps the MenuVersion on every eviction, and drops values whose load overlapped a change to the menu.
+   * (See MenuVersion.isStale().)
+   */
+  public static class VersionedCache implements Cache {
+    private final Cache cache;
+    private final MenuVersion menuVersion;
+
+    VersionedCache(Cache cache, MenuVersion menuVersion) {
+      this.cache = cache;
+      this.menuVersion = menuVersion;
+    }
+
+    /**
+     * Returns the wrapped cache.
+     * @return the wrapped cache
+     */
+    public Cache getDelegate() {
+      return cache;
+    }
+
+    @Override
+    public @NotNull String getName() {
+      return cache.getName();
+    }
+
+    @Override
+    public @NotNull Object getNativeCache() {
+      return cache.getNativeCache();
+    }
+
+    @Override
+    public @Nullable ValueWrapper get(@NotNull final Object key) {
+      return cache.get(key);
+    }
+
+    @Override
+    public <T> @Nullable T get(@NotNull final Object key, @Nullable final Class<T> type) {
+      return cache.get(key, type);
+    }
+
+    @Override
+    public <T> @Nullable T get(@NotNull final Object key, @NotNull final Callable<T> valueLoader) {
+      final long version = menuVersion.current();
+      AtomicBoolean loaded = new AtomicBoolean();
+      T value = cache.get(key, () -> {
+        loaded.set(true);
+        return valueLoader.call();
+      });
+      if (loaded.get() && menuVersion.isStale(version)) {
+        // The menu changed during the load. The caller may still use the value, but it mustn't stay cached.
+        cache.evict(key);
+      }
+      return value;
+    }
+
+    // These can't tell when the value was read, so they can't check it. The menu caches are only filled by
+    // get(key, valueLoader), since both menu @Cacheables are sync.
+    @Override
+    public void put(@NotNull final Object key, @Nullable final Object value) {
+      cache.put(key, value);
+    }
+
+    @Override
+    public @Nullable ValueWrapper putIfAbsent(@NotNull final Object key, @Nullable final Object value) {
+      return cache.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(@NotNull final Object key) {
+      cache.evict(key);
+      menuVersion.bump();
+    }
+
+    @Override
+    public boolean evictIfPresent(@NotNull final Object key) {
+      boolean evicted = cache.evictIfPresent(key);
+      menuVersion.bump();
+      return evicted;
+    }
+
+    @Override
+    public void clear() {
+      cache.clear();
+      menuVersion.bump();
+    }
+
+    @Override
+    public boolean invalidate() {
+      boolean invalidated = cache.invalidate();
+      menuVersion.bump();
+      return invalidated;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.infosys.dummy.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Lets the actuator publish statistics for the caches that VersionedCacheManager wraps. The actuator only recognizes
+ * the caches it knows about, so without this, the menu caches would have no metrics. For two-tier caches, this
+ * publishes the statistics of the local tier.
+ */
+public class VersionedCacheMeterBinderProvider
+    implements CacheMeterBinderProvider<VersionedCacheManager.VersionedCache> {
+
+  @Override
+  public @Nullable MeterBinder getMeterBinder(VersionedCacheManager.VersionedCache cache, Iterable<Tag> tags) {
+    Cache delegate = cache.getDelegate();
+    if (delegate instanceof TwoTierCacheManager.TwoTierCache) {
+      delegate = ((TwoTierCacheManager.TwoTierCache) delegate).getLocalCache();
+    }
+    if (delegate instanceof CaffeineCache) {
+      return new CaffeineCacheMetrics(((CaffeineCache) delegate).getNativeCache(), cache.getName(), tags);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,51 @@
+package com.infosys.dummy.engine;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Prices as longs, in cents. Inside the engine, prices are added up as longs, which takes no allocation, unlike
+ * BigDecimal.add(). They're converted from BigDecimals when they enter the engine, and back when they leave it, in
+ * DTOs.
+ * <p>
+ * The database stores prices with two decimal places, so a price in cents is exact. A price with more decimal places
+ * is rounded half up, as the database does when it's saved.
+ */
+public enum Cents {
+  ;
+
+  /**
+   * The number of decimal places in a price.
+   */
+  public static final int SCALE = 2;
+
+  /**
+   * Converts a price to cents, rounding half up.
+   * @param price The price
+   * @return The price in cents
+   * @throws ArithmeticException if the price is too large for a long
+   */
+  public static long of(BigDecimal price) {
+    return of(price, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Converts a price to cents.
+   * @param price The price
+   * @param roundingMode How to round a price with more than two decimal places
+   * @return The price in cents
+   * @throws ArithmeticException if the price is too large for a long
+   */
+  public static long of(BigDecimal price, RoundingMode roundingMode) {
+    return price.setScale(SCALE, roundingMode).movePointRight(SCALE).longValueExact();
+  }
+
+  /**
+   * Converts cents to a price, with two decimal places.
+   * @param cents The price in cents
+   * @return The price
+   */
+  public static BigDecimal toBigDecimal(long cents) {
+    return BigDecimal.valueOf(cents, SCALE);
+  }
+}
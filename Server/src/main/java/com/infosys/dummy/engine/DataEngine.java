@@ -1,20 +1,46 @@
 package com.infosys.dummy.engine;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infosys.dummy.cache.MenuVersion;
 import com.infosys.dummy.entity.MenuItem;
 import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.exception.Conflict409Exception;
+import com.infosys.dummy.exception.NotFound404Exception;
+import com.infosys.dummy.exception.ServiceUnavailable503Exception;
+import com.infosys.dummy.framework.util.ReturnableReference;
 import com.infosys.dummy.model.MenuItemDto;
 import com.infosys.dummy.model.MenuItemOptionDto;
+import com.infosys.dummy.model.OrderNodeDto;
+import com.infosys.dummy.model.OrderQuoteDto;
 import com.infosys.dummy.repository.MenuItemOptionRepository;
 import com.infosys.dummy.repository.MenuItemRepository;
 import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static com.infosys.dummy.engine.PojoUtility.*;
 
@@ -26,43 +52,226 @@ import static com.infosys.dummy.engine.PojoUtility.*;
  * @author Miguel Mu\u00f1oz
  */
 @Component
+@EnableConfigurationProperties(TypeaheadProperties.class)
 public class DataEngine {
   private static final @NonNls Logger log = LoggerFactory.getLogger(DataEngine.class);
   private final MenuItemRepository menuItemRepositoryWrapper;
   private final MenuItemOptionRepository menuItemOptionRepositoryWrapper;
   private final ObjectMapper objectMapper;
+  private final MenuVersion menuVersion;
+  private final MenuItemImporter menuItemImporter;
+  private final MenuExport menuExport;
+  private final MenuSearchIndex searchIndex;
+  private final OrderWriter orderWriter;
+  private final int typeaheadLimit;
+  private final TransactionTemplate transactionTemplate;
+  private final int conflictAttempts;
 
   @Autowired
   public DataEngine(
       final MenuItemRepository menuItemRepositoryWrapper,
       final MenuItemOptionRepository menuItemOptionRepositoryWrapper,
-      final ObjectMapper objectMapper
+      final ObjectMapper objectMapper,
+      final MenuVersion menuVersion,
+      final MenuItemImporter menuItemImporter,
+      final MenuItemExporter menuItemExporter,
+      final PlatformTransactionManager transactionManager,
+      final TypeaheadProperties typeaheadProperties,
+      final OrderWriter orderWriter,
+      @Value("${my-app.db.conflict-attempts:3}") final int conflictAttempts
   ) {
     this.menuItemRepositoryWrapper = menuItemRepositoryWrapper;
     this.menuItemOptionRepositoryWrapper = menuItemOptionRepositoryWrapper;
     this.objectMapper = objectMapper;
+    this.menuVersion = menuVersion;
+    this.menuItemImporter = menuItemImporter;
+    this.menuExport = new MenuExport(menuItemExporter);
+    this.searchIndex = new MenuSearchIndex(typeaheadProperties.createTypeahead());
+    this.orderWriter = orderWriter;
+    this.typeaheadLimit = typeaheadProperties.getLimit();
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.conflictAttempts = conflictAttempts;
   }
 
+  @Cacheable(cacheNames = MenuItemRepository.MENU_ITEM_DTO_CACHE, key = "#id", sync = true)
   public MenuItemDto getMenuItemDto(final Integer id) {
     MenuItem menuItem = findOrThrow404(menuItemRepositoryWrapper, id);
-    return objectMapper.convertValue(menuItem, MenuItemDto.class);
+    return MenuItemMapper.toDto(menuItem);
   }
 
-  public List<MenuItemDto> getAllMenuItems() {
-    return menuItemRepositoryWrapper
-        .findAll()
-        .stream()
-        .map(m -> objectMapper.convertValue(m, MenuItemDto.class))
-        .collect(Collectors.toList());
+  /**
+   * Reads a MenuItemDto from the database, without using the cache. This is for refreshing the cache.
+   * @param id The id of the MenuItem
+   * @return The MenuItemDto, or null if there's no MenuItem with that id
+   */
+  public @Nullable MenuItemDto loadMenuItemDto(final Integer id) {
+    return menuItemRepositoryWrapper.findById(id)
+        .map(MenuItemMapper::toDto)
+        .orElse(null);
   }
 
+  /**
+   * Returns a snapshot of the full menu. The snapshot is stored in the menu item cache, so it gets built only once
+   * after each change to the menu, which evicts it along with everything else in that cache. The cache loads it with
+   * sync set, so an eviction that arrives while it's being built waits for it, then removes it, instead of being
+   * overwritten by a snapshot that missed the change.
+   * @return The full menu, with its JSON representation
+   */
+  @Cacheable(cacheNames = MenuItemRepository.MENU_ITEM_CACHE, key = "'snapshot'", sync = true)
+  public MenuSnapshot getAllMenuItems() {
+    return buildMenuSnapshot();
+  }
+
+  /**
+   * Builds a new snapshot of the full menu from the database, without using the cache. Most callers should use
+   * getAllMenuItems() instead, which caches the result.
+   * @return The full menu, with its JSON representation
+   */
+  public MenuSnapshot buildMenuSnapshot() {
+    // Read the version before reading the menu, so the ETag is only recorded if nothing changed in between.
+    final long version = menuVersion.current();
+
+    // findAllWithOptions() isn't cached, unlike findAll(), so this always reads the current menu.
+    List<MenuItem> menuItems = menuItemRepositoryWrapper.findAllWithOptions();
+    List<MenuItemDto> items = MenuItemMapper.toDtoList(menuItems);
+    try {
+      final MenuSnapshot snapshot = new MenuSnapshot(items, objectMapper.writeValueAsBytes(items));
+      log.trace("Built menu snapshot {} with {} items", snapshot.getETag(), items.size());
+      if (menuVersion.current() == version) {
+        menuVersion.setMenuETag(version, snapshot.getETag());
+      }
+      return snapshot;
+    } catch (JsonProcessingException e) {
+      //noinspection ProhibitedExceptionThrown
+      throw new RuntimeException(e); // Shouldn't happen
+    }
+  }
+
+  /**
+   * Builds the search index from the database. This happens at startup, and replaces anything already in the index.
+   * After that, the index gets updated along with each change to the menu, except for changes that bypass DataEngine.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildSearchIndex() {
+    List<MenuItem> menuItems = menuItemRepositoryWrapper.findAllWithOptions();
+    searchIndex.rebuild(menuItems);
+    log.debug("Built the search index with {} items", menuItems.size());
+  }
+
+  /**
+   * Brings the search index up to date with a change made by another node. The other node's cache evictions are the
+   * only news of it. An evicted MenuItemDto means that MenuItem changed, so it's read again, along with any options
+   * the index has on it that it no longer has, since they've been deleted or moved. A cleared menu may come from a
+   * bulk import, which names no items, so the whole menu is read again. That's one read of the menu per change, like
+   * the snapshot rebuild that follows it. The index ignores anything older than what it has.
+   * <p>
+   * MenuItems aren't deleted through the API, so a MenuItem that's gone is left in the index.
+   * @param cacheName The name of the cache that was evicted
+   * @param key The evicted key, or null if the whole cache was cleared
+   */
+  public void refreshSearchIndex(final String cacheName, @Nullable final Object key) {
+    if (MenuItemRepository.MENU_ITEM_CACHE.equals(cacheName) && (key == null)) {
+      searchIndex.putAll(menuItemRepositoryWrapper.findAllWithOptions());
+    } else if (MenuItemRepository.MENU_ITEM_DTO_CACHE.equals(cacheName) && (key instanceof Integer)) {
+      final Integer id = (Integer) key;
+      Optional<MenuItem> menuItem = menuItemRepositoryWrapper.findById(id);
+      Set<Integer> departedOptionIds = searchIndex.getOptionIds(id);
+      menuItem.ifPresent(item -> {
+        for (MenuItemOption option : item.getAllowedOptions()) {
+          departedOptionIds.remove(option.getId());
+        }
+        searchIndex.putItem(item);
+      });
+      for (Integer optionId : departedOptionIds) {
+        Optional<MenuItemOption> option = menuItemOptionRepositoryWrapper.findById(optionId);
+        if (option.isPresent()) {
+          searchIndex.putOption(option.get());
+        } else {
+          searchIndex.removeOption(optionId);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the MenuItems that match all the criteria, from the search index, without reading the database.
+   * @see MenuSearchIndex#search(String, String, String, BigDecimal, BigDecimal)
+   */
+  public List<MenuItemDto> searchMenuItems(
+      @Nullable final String name,
+      @Nullable final String prefix,
+      @Nullable final String option,
+      @Nullable final BigDecimal minPrice,
+      @Nullable final BigDecimal maxPrice
+  ) {
+    return searchIndex.search(name, prefix, option, minPrice, maxPrice);
+  }
+
+  /**
+   * Suggests the names of menu items and options that start with what's been typed, most popular first, from the
+   * search index, without reading the database.
+   * @param prefix What's been typed so far
+   * @param limit The most suggestions to return, or null for the my-app.typeahead.limit property
+   * @return The names
+   * @throws BadRequest400Exception if the limit isn't positive
+   * @see MenuTypeahead#suggest(String, int)
+   */
+  public List<String> suggestMenuNames(final String prefix, @Nullable final Integer limit) {
+    if ((limit != null) && (limit < 1)) {
+      throw new BadRequest400Exception(String.format("Limit must be positive, not %d", limit));
+    }
+    return searchIndex.getTypeahead().suggest(prefix, (limit == null) ? typeaheadLimit : limit);
+  }
+
+  /**
+   * Counts a view of a MenuItem, which makes its name, and the names of its options, more popular in the typeahead.
+   * This is separate from getMenuItemDto(), which doesn't run when the item is in the cache.
+   * @param id The id of the MenuItem
+   */
+  public void recordMenuItemView(final Integer id) {
+    searchIndex.recordView(id);
+  }
+
+  /**
+   * Prices an order from the search index, without reading the database. Changes to the menu wait until it's done.
+   * @param order The root of the order
+   * @return The price of the order
+   * @see OrderPricer#quote(OrderNodeDto, MenuPrices)
+   */
+  public OrderQuoteDto quoteOrder(final OrderNodeDto order) {
+    return searchIndex.readPrices(prices -> OrderPricer.quote(order, prices));
+  }
+
+  /**
+   * Places an order. It's priced from the search index, as quoteOrder() does, then saved along with any other orders
+   * that are waiting. This waits until they've been committed.
+   * @param order The root of the order
+   * @return The id of the new order
+   * @throws ServiceUnavailable503Exception if too many orders are waiting to be saved
+   * @see OrderWriter#place(OrderNodeDto, long)
+   */
+  public Integer placeOrder(final OrderNodeDto order) {
+    final long total = searchIndex.readPrices(prices -> OrderPricer.total(order, prices));
+    return orderWriter.place(order, total);
+  }
+
+  /**
+   * Returns the full menu as newline-delimited JSON, to be streamed from the database. Nothing is read until the
+   * export is written. Every call returns the same export, which reads the current menu each time it's written.
+   * @return The menu export
+   */
+  public MenuExport exportMenuItems() {
+    return menuExport;
+  }
+
+  @CacheEvict(cacheNames = MenuItemRepository.MENU_ITEM_DTO_CACHE, key = "#menuItemId")
   public Integer addOption(final Integer menuItemId, final MenuItemOptionDto optionDto) {
     confirmNotEmpty(optionDto.getName()); // throws ResponseException
     confirmNull(optionDto.getId(), "ID");
-    MenuItemOption menuItemOption = objectMapper.convertValue(optionDto, MenuItemOption.class);
     final MenuItem menuItem = findOrThrow404(menuItemRepositoryWrapper, menuItemId);
-    menuItemOption.setMenuItem(menuItem);
+    MenuItemOption menuItemOption = MenuItemMapper.toEntity(optionDto, menuItem);
     MenuItemOption savedOption = menuItemOptionRepositoryWrapper.save(menuItemOption);
+    searchIndex.putOption(savedOption);
     final Integer newId = savedOption.getId();
     assert newId != null;
     return newId;
@@ -80,11 +289,31 @@ public class DataEngine {
     confirmNull(menuItem.getId(), dto(menuItemDto, "ID"));
     log.trace("MenuItem: {}", menuItem);
     MenuItem savedItem = menuItemRepositoryWrapper.save(menuItem);
+    searchIndex.putItem(savedItem);
     final Integer id = savedItem.getId();
     log.trace("added menuItem with id {}", id);
     return id;
   }
 
+  /**
+   * Adds all the MenuItems in a JSON array, in a single transaction, then evicts the menu from the cache once.
+   * @param menuItems A JSON array of MenuItemDtos
+   * @return The number of MenuItems added
+   * @see MenuItemImporter#importMenuItems(InputStream)
+   */
+  public Integer importMenuItems(final Resource menuItems) {
+    final int count;
+    try (InputStream inputStream = menuItems.getInputStream()) {
+      count = menuItemImporter.importMenuItems(inputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    menuItemRepositoryWrapper.evictMenu();
+    // The importer doesn't keep the new items, so this reads them all back. putAll() leaves newer items alone.
+    searchIndex.putAll(menuItemRepositoryWrapper.findAllWithOptions());
+    return count;
+  }
+
   private static String dto(Object dto, String label) {
     return String.format("%s.%s", dto.getClass().getSimpleName(), label);
   }
@@ -100,47 +329,95 @@ public class DataEngine {
     return newId;
   }
 
-  private MenuItem convertMenuItem(final MenuItemDto menuItemDto) {
-    final MenuItem menuItem = objectMapper.convertValue(menuItemDto, MenuItem.class);
-
-    // objectMapper doesn't set the menuItems in the options, because it can't handle circular references, so we
-    // set them here.
-    for (MenuItemOption option : menuItem.getAllowedOptions()) {
-      option.setMenuItem(menuItem);
-    }
-
-//    log.trace("Converting from DTO: Menu Item {}", menuItem);
-    return menuItem;
+  private static MenuItem convertMenuItem(final MenuItemDto menuItemDto) {
+    // This also sets the menuItem in each option.
+    return MenuItemMapper.toEntity(menuItemDto);
   }
 
+  /**
+   * Deletes a MenuItemOption in a single statement, which needs no lock and no version check, and evicts the menu and
+   * the option's MenuItem from the caches.
+   * @param optionId The id of the MenuItemOption
+   * @return null
+   * @throws NotFound404Exception if there's no such MenuItemOption
+   */
   public Void deleteById(final Integer optionId) {
     log.trace("Deleting menuItemOption with id {}", optionId);
 
-
-    MenuItemOption itemToDelete = findOrThrow404(menuItemOptionRepositoryWrapper, optionId);
-
-    // Before I can successfully delete the menuItemOption, I first have to set its menuItem to null. If I don't
-    // do that, the delete call will fail. It doesn't help to set Cascade to Remove in the @ManyToOne annotation in 
-    // MenuItemOption. Since it's set to ALL in MenuItem's @OneToMany annotation, the Cascade value doesn't seem to 
-    // affect this.
-    itemToDelete.setMenuItem(null);
-    menuItemOptionRepositoryWrapper.save(itemToDelete);
-
-    menuItemOptionRepositoryWrapper.delete(itemToDelete);
+    // This doesn't go through the persistence context, so the delete doesn't cascade to the MenuItem. (See the
+    // cascade on MenuItemOption.getMenuItem().)
+    List<Integer> ownerIds = menuItemOptionRepositoryWrapper.deleteByIdReturningMenuItemId(optionId);
+    if (ownerIds.isEmpty()) {
+      throw new NotFound404Exception(MenuItemOption.class, optionId);
+    }
+    searchIndex.removeOption(optionId);
+    menuItemRepositoryWrapper.evictMenu();
+    final Integer ownerId = ownerIds.get(0);
+    if (ownerId != null) {
+      menuItemRepositoryWrapper.evictMenuItemDto(ownerId);
+    }
     return null;
   }
 
-  private MenuItemOption convertMenuItemOption(final MenuItemOptionDto menuItemOptionDto) {
-    return objectMapper.convertValue(menuItemOptionDto, MenuItemOption.class);
+  private static MenuItemOption convertMenuItemOption(final MenuItemOptionDto menuItemOptionDto) {
+    return MenuItemMapper.toEntity(menuItemOptionDto, null);
   }
 
+  /**
+   * Moves a MenuItemOption to a MenuItem. Only the option's row changes. The MenuItem's list of options is the inverse
+   * side of the relationship, so it doesn't get loaded or saved. If another request changes the option at the same
+   * time, this tries again. (See {@link #retryOnConflict(String, Supplier)}.)
+   * @param menuItemOptionId The id of the MenuItemOption
+   * @param menuItemId The id of the MenuItem
+   * @return null
+   * @throws NotFound404Exception if either one doesn't exist
+   * @throws Conflict409Exception if every attempt conflicted with another request
+   */
+  @CacheEvict(cacheNames = MenuItemRepository.MENU_ITEM_DTO_CACHE, key = "#menuItemId")
   public Void addOptionToItem(final int menuItemOptionId, final int menuItemId) {
-    MenuItem menuItem = findOrThrow404(menuItemRepositoryWrapper, menuItemId);
-    MenuItemOption option = findOrThrow404(menuItemOptionRepositoryWrapper, menuItemOptionId);
-    option.setMenuItem(menuItem);
-    menuItem.getAllowedOptions().add(option);
-    menuItemRepositoryWrapper.saveAndFlush(menuItem);
+    final ReturnableReference<Integer> previousOwnerId = new ReturnableReference<>();
+    final MenuItemOption movedOption = retryOnConflict("MenuItemOption " + menuItemOptionId, () -> {
+      if (!menuItemRepositoryWrapper.existsById(menuItemId)) {
+        throw new NotFound404Exception(MenuItem.class, menuItemId);
+      }
+      MenuItemOption option = findOrThrow404(menuItemOptionRepositoryWrapper, menuItemOptionId);
+      final MenuItem previousOwner = option.getMenuItem();
+      previousOwnerId.setValue((previousOwner == null) ? null : previousOwner.getId());
+      option.setMenuItem(menuItemRepositoryWrapper.getOne(menuItemId));
+      return option;
+    });
+    // The commit incremented the option's version, so the index can tell this from an older move.
+    searchIndex.putOption(movedOption);
+    menuItemRepositoryWrapper.evictMenu();
+    if (previousOwnerId.hasValue() && (previousOwnerId.getValue() != menuItemId)) {
+      menuItemRepositoryWrapper.evictMenuItemDto(previousOwnerId.getValue());
+    }
     log.trace("MenuItemOption id {} added to menu item id {}", menuItemOptionId, menuItemId);
     return null;
   }
+
+  /**
+   * Runs an update in a transaction. The entities have versions, so if another request changed the same ones first,
+   * the update fails instead of overwriting that change. Then this runs the update again, in a new transaction, so
+   * it sees the other change, up to conflictAttempts times in all. Each lost race is logged here, at Info. (Hibernate
+   * doesn't log it, since versioned updates aren't batched.) The update must read what it changes, rather than
+   * use entities from outside.
+   * @param what What's being updated, for the messages
+   * @param update The update
+   * @param <T> The type of the result
+   * @return The result of the update
+   * @throws Conflict409Exception if every attempt conflicted with another request
+   */
+  private <T> T retryOnConflict(final String what, final Supplier<T> update) {
+    for (int attempt = 1; ; ++attempt) {
+      try {
+        return transactionTemplate.execute(status -> update.get());
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= conflictAttempts) {
+          throw new Conflict409Exception(String.format("%s was changed by another request", what), e);
+        }
+        log.info("{} was changed by another request. Trying again. (Attempt {})", what, attempt);
+      }
+    }
+  }
 }
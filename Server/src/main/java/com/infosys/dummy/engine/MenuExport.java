@@ -0,0 +1,47 @@
+package com.infosys.dummy.engine;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The full menu, as newline-delimited JSON, to be written straight from the database to the response. Nothing gets
+ * read until writeTo() is called, and then only one MenuItem at a time, so the menu is never held in memory.
+ * <p>
+ * This holds no state of its own, so DataEngine hands the same instance to every request. Each call to writeTo()
+ * reads the menu from the database again, so it may be called any number of times, from any number of threads.
+ * <p>
+ * This is a Resource only because that's what the generated API returns for a binary response. It can't be read as
+ * an InputStream. MenuExportHttpMessageConverter writes it by calling writeTo().
+ */
+public final class MenuExport extends AbstractResource {
+  private final MenuItemExporter exporter;
+
+  MenuExport(MenuItemExporter exporter) {
+    this.exporter = exporter;
+  }
+
+  /**
+   * Writes every MenuItem to the stream, ordered by id, with one JSON MenuItemDto per line. This doesn't close the
+   * stream.
+   * @param outputStream The stream
+   * @return The number of MenuItems written
+   * @throws IOException if the stream fails
+   */
+  public int writeTo(OutputStream outputStream) throws IOException {
+    return exporter.exportMenuItems(outputStream);
+  }
+
+  @Override
+  public @NotNull String getDescription() {
+    return "Menu export";
+  }
+
+  @Override
+  public @NotNull InputStream getInputStream() throws IOException {
+    throw new IOException("The menu export can only be written, with writeTo()");
+  }
+}
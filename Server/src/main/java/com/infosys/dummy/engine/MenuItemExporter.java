@@ -0,0 +1,80 @@
+package com.infosys.dummy.engine;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.repository.MenuItemRepository;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full menu as newline-delimited JSON, scrolling through the database one MenuItem at a time. Each item
+ * is detached once it's written, so memory use doesn't grow with the size of the menu. This doesn't use the caches.
+ */
+@Component
+public class MenuItemExporter {
+  private static final @NonNls Logger log = LoggerFactory.getLogger(MenuItemExporter.class);
+
+  /** How many items to write between flushes, so the client gets the items as they're read. */
+  private static final int FLUSH_INTERVAL = 100;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final MenuItemRepository menuItemRepositoryWrapper;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter dtoWriter;
+
+  @Autowired
+  public MenuItemExporter(final MenuItemRepository menuItemRepositoryWrapper, final ObjectMapper objectMapper) {
+    this.menuItemRepositoryWrapper = menuItemRepositoryWrapper;
+    this.objectMapper = objectMapper;
+    // We flush every FLUSH_INTERVAL items, instead of after every item.
+    this.dtoWriter = objectMapper.writerFor(MenuItemDto.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /**
+   * Writes every MenuItem to the stream, ordered by id, with one JSON MenuItemDto per line. This doesn't close the
+   * stream.
+   * @param outputStream The stream
+   * @return The number of MenuItems written
+   * @throws IOException if the stream fails
+   */
+  @Transactional(readOnly = true)
+  public int exportMenuItems(final OutputStream outputStream) throws IOException {
+    int count = 0;
+    try (
+        Stream<MenuItem> menuItems = menuItemRepositoryWrapper.streamAllWithOptions();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+    ) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      Iterator<MenuItem> iterator = menuItems.iterator();
+      while (iterator.hasNext()) {
+        MenuItem menuItem = iterator.next();
+        dtoWriter.writeValue(generator, MenuItemMapper.toDto(menuItem));
+        generator.writeRaw('\n');
+        entityManager.detach(menuItem); // Cascades to the options
+        count++;
+        if ((count % FLUSH_INTERVAL) == 0) {
+          generator.flush();
+        }
+      }
+    }
+    log.debug("Exported {} MenuItems", count);
+    return count;
+  }
+}
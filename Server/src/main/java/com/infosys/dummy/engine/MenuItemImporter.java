@@ -0,0 +1,113 @@
+package com.infosys.dummy.engine;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import org.jetbrains.annotations.NonNls;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static com.infosys.dummy.engine.PojoUtility.*;
+
+/**
+ * Adds MenuItems in bulk, reading them from a stream of JSON. Only one MenuItem is held in memory at a time, and the
+ * persistence context is flushed and cleared after every batch, so the import doesn't grow with the size of the
+ * stream. The inserts go to the database in JDBC batches. (See hibernate.jdbc.batch_size in application.properties.)
+ * <p>
+ * This bypasses the repositories, so it evicts nothing from the caches. Callers should use
+ * DataEngine.importMenuItems(), which evicts the menu once the import has been committed.
+ */
+@Component
+public class MenuItemImporter {
+  private static final @NonNls Logger log = LoggerFactory.getLogger(MenuItemImporter.class);
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private final ObjectMapper objectMapper;
+  private final int batchSize;
+
+  @Autowired
+  public MenuItemImporter(
+      final ObjectMapper objectMapper,
+      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") final int batchSize
+  ) {
+    this.objectMapper = objectMapper;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Reads a JSON array of MenuItemDtos from the stream, and adds them all in a single transaction. Each one must pass
+   * the same checks as DataEngine.addMenuItemFromDto(). If any of them fails, none of them are added.
+   * @param inputStream The JSON array
+   * @return The number of MenuItems added
+   * @throws BadRequest400Exception if the stream isn't a JSON array of MenuItemDtos, or if any item is invalid
+   */
+  @Transactional
+  public int importMenuItems(final InputStream inputStream) {
+    int count = 0;
+    try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new BadRequest400Exception("Expected a JSON array of MenuItems");
+      }
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        MenuItemDto menuItemDto = parser.readValueAs(MenuItemDto.class);
+        confirmNewMenuItem(menuItemDto, count);
+        entityManager.persist(MenuItemMapper.toEntity(menuItemDto));
+        count++;
+        if ((count % batchSize) == 0) {
+          entityManager.flush();
+          entityManager.clear();
+          log.trace("Imported {} MenuItems", count);
+        }
+      }
+      if (parser.currentToken() != JsonToken.END_ARRAY) {
+        throw new BadRequest400Exception(String.format("Expected a MenuItem at index %d", count));
+      }
+    } catch (JsonProcessingException e) {
+      throw new BadRequest400Exception(String.format("Malformed MenuItem at index %d", count), e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    log.debug("Imported {} MenuItems", count);
+    return count;
+  }
+
+  private static void confirmNewMenuItem(final MenuItemDto menuItemDto, final int index) {
+    confirmNull(menuItemDto.getId(), label(index, "id"));
+    confirmNotEmpty(menuItemDto.getName(), label(index, "name"));
+    confirmNotNull(menuItemDto.getItemPrice(), label(index, "itemPrice"));
+    final List<MenuItemOptionDto> options = menuItemDto.getAllowedOptions();
+    if (options != null) {
+      for (int i = 0; i < options.size(); ++i) {
+        MenuItemOptionDto option = confirmNotNull(options.get(i), optionLabel(index, i, ""));
+        confirmNotEmpty(option.getName(), optionLabel(index, i, ".name"));
+        confirmNotNull(option.getDeltaPrice(), optionLabel(index, i, ".deltaPrice"));
+        confirmNull(option.getId(), optionLabel(index, i, ".id"));
+      }
+    }
+  }
+
+  private static String label(int index, String field) {
+    return String.format("MenuItemDto[%d].%s", index, field);
+  }
+
+  private static String optionLabel(int index, int optionIndex, String field) {
+    return String.format("MenuItemDto[%d].allowedOptions[%d]%s", index, optionIndex, field);
+  }
+}
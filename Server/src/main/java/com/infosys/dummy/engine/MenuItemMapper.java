@@ -0,0 +1,109 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Copies MenuItems and MenuItemOptions to and from their DTOs. This replaces ObjectMapper.convertValue(), which
+ * writes each object to a token buffer and parses it back. Here, each field is copied directly, the lists are
+ * allocated at their final size, and the back-references from the options to their MenuItem are set in the same
+ * pass. Nothing is allocated beyond the target objects and their lists.
+ * <p>
+ * The results match what convertValue() produced: A MenuItem with no options maps to a DTO with an empty list, and
+ * a DTO with a null list maps to a MenuItem with an empty list. The DTOs have no reference to their MenuItem, since
+ * MenuItemOption.getMenuItem() is marked {@literal @}JsonIgnore.
+ * <p>
+ * When a field gets added to the entities or the DTOs, it must be added here too.
+ */
+public enum MenuItemMapper {
+  ;
+
+  /**
+   * Copies a MenuItem, and its options, to a new MenuItemDto.
+   * @param menuItem The MenuItem. Its options must be loaded.
+   * @return The MenuItemDto
+   */
+  public static MenuItemDto toDto(MenuItem menuItem) {
+    MenuItemDto dto = new MenuItemDto();
+    dto.setId(menuItem.getId());
+    dto.setName(menuItem.getName());
+    dto.setItemPrice(menuItem.getItemPrice());
+    final Collection<MenuItemOption> options = menuItem.getAllowedOptions();
+    List<MenuItemOptionDto> optionDtos = new ArrayList<>(options.size());
+    for (MenuItemOption option : options) {
+      optionDtos.add(toDto(option));
+    }
+    dto.setAllowedOptions(optionDtos);
+    return dto;
+  }
+
+  /**
+   * Copies a MenuItemOption to a new MenuItemOptionDto.
+   * @param option The MenuItemOption
+   * @return The MenuItemOptionDto
+   */
+  public static MenuItemOptionDto toDto(MenuItemOption option) {
+    MenuItemOptionDto dto = new MenuItemOptionDto();
+    dto.setId(option.getId());
+    dto.setName(option.getName());
+    dto.setDeltaPrice(option.getDeltaPrice());
+    return dto;
+  }
+
+  /**
+   * Copies a Collection of MenuItems to a List of new MenuItemDtos, in the same order.
+   * @param menuItems The MenuItems. Their options must be loaded.
+   * @return The MenuItemDtos
+   */
+  public static List<MenuItemDto> toDtoList(Collection<MenuItem> menuItems) {
+    List<MenuItemDto> dtoList = new ArrayList<>(menuItems.size());
+    for (MenuItem menuItem : menuItems) {
+      dtoList.add(toDto(menuItem));
+    }
+    return dtoList;
+  }
+
+  /**
+   * Copies a MenuItemDto, and its options, to a new MenuItem. Each new MenuItemOption refers back to the new
+   * MenuItem.
+   * @param dto The MenuItemDto
+   * @return The MenuItem
+   */
+  public static MenuItem toEntity(MenuItemDto dto) {
+    MenuItem menuItem = new MenuItem();
+    menuItem.setId(dto.getId());
+    menuItem.setName(dto.getName());
+    menuItem.setItemPrice(dto.getItemPrice());
+    final List<MenuItemOptionDto> optionDtos = dto.getAllowedOptions();
+    if (optionDtos != null) {
+      List<MenuItemOption> options = new ArrayList<>(optionDtos.size());
+      for (MenuItemOptionDto optionDto : optionDtos) {
+        options.add(toEntity(optionDto, menuItem));
+      }
+      menuItem.setAllowedOptions(options);
+    }
+    return menuItem;
+  }
+
+  /**
+   * Copies a MenuItemOptionDto to a new MenuItemOption.
+   * @param dto The MenuItemOptionDto
+   * @param menuItem The MenuItem that owns the option, which may be null
+   * @return The MenuItemOption
+   */
+  public static MenuItemOption toEntity(MenuItemOptionDto dto, @Nullable MenuItem menuItem) {
+    MenuItemOption option = new MenuItemOption();
+    option.setId(dto.getId());
+    option.setName(dto.getName());
+    option.setDeltaPrice(dto.getDeltaPrice());
+    option.setMenuItem(menuItem);
+    return option;
+  }
+}
@@ -0,0 +1,36 @@
+package com.infosys.dummy.engine;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The prices on the menu, in cents, as of a single moment. (See MenuSearchIndex.readPrices() and Cents.)
+ */
+public interface MenuPrices {
+
+  /**
+   * The price of something that's not on the menu.
+   */
+  long NOT_ON_MENU = Long.MIN_VALUE;
+
+  /**
+   * Returns the name of a MenuItem.
+   * @param menuItemId The id of the MenuItem
+   * @return The name, or null if it's not on the menu
+   */
+  @Nullable String getItemName(int menuItemId);
+
+  /**
+   * Returns the price of a MenuItem, without its options.
+   * @param menuItemId The id of the MenuItem
+   * @return The price, in cents, or NOT_ON_MENU
+   */
+  long getItemPrice(int menuItemId);
+
+  /**
+   * Returns the price of a MenuItemOption, if it's an option of a MenuItem.
+   * @param menuItemId The id of the MenuItem
+   * @param optionId The id of the MenuItemOption
+   * @return The delta price, in cents, or NOT_ON_MENU if the MenuItem doesn't have that option
+   */
+  long getOptionPrice(int menuItemId, int optionId);
+}
@@ -0,0 +1,596 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * An inverted index of the menu, in memory, for searching it without reading the database. It maps each word of the
+ * item names to the ids of the items that have it, and does the same for the words of the option names, and for the
+ * item prices. The name words are sorted, so a prefix finds its words in a single range. A search looks up each of its
+ * criteria, and intersects the sets of ids, starting with the smallest.
+ * <p>
+ * DataEngine builds the index from the database at startup, and updates it after each change it commits, one item at a
+ * time. Changes made by other nodes reach it through the cache invalidations they broadcast. (See
+ * DataEngine.refreshSearchIndex().) Changes that commit at nearly the same time may reach the index in either order, so the index uses the
+ * versions of the entities to ignore the older one. A deleted option has no version to compare, so its id is kept,
+ * to ignore a move of the option that arrives after its delete. (The ids aren't reused.)
+ * <p>
+ * An option may reach the index before its item, if it was added to the item just after the item was created. The
+ * item's entry then holds only its options, and isn't searchable until the item arrives.
+ * <p>
+ * The index hands out the same MenuItemDtos to every search. They get replaced, not changed, when their items change.
+ * Callers must not change them.
+ * <p>
+ * The index also serves as a price list, for pricing orders. (See readPrices().) It keeps the prices in cents, as
+ * longs, which are cheaper to compare and add up than BigDecimals. (See Cents.)
+ * <p>
+ * The index also keeps a MenuTypeahead of the item and option names, so it changes along with the index, and follows
+ * the same versions.
+ */
+public final class MenuSearchIndex {
+  private static final BigDecimal MAX_BOUND = Cents.toBigDecimal(Long.MAX_VALUE);
+  private static final BigDecimal MIN_BOUND = Cents.toBigDecimal(Long.MIN_VALUE);
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final MenuTypeahead typeahead;
+
+  // Everything below is guarded by the lock.
+  // The same entries, by id. items is for going through them in order, and itemsById is for finding them quickly.
+  private final NavigableMap<Integer, ItemEntry> items = new TreeMap<>();
+  private final Map<Integer, ItemEntry> itemsById = new HashMap<>();
+  private final Map<Integer, OptionEntry> options = new HashMap<>();
+  private final Set<Integer> deletedOptions = new HashSet<>();
+  private final NavigableMap<String, Set<Integer>> nameWords = new TreeMap<>();
+  private final Map<String, Set<Integer>> optionWords = new HashMap<>();
+  private final NavigableMap<Long, Set<Integer>> prices = new TreeMap<>();
+  private final MenuPrices priceList = new PriceList();
+
+  /**
+   * Creates an empty index, with a typeahead with the default settings.
+   */
+  public MenuSearchIndex() {
+    this(new MenuTypeahead());
+  }
+
+  /**
+   * Creates an empty index.
+   * @param typeahead An empty typeahead, to fill with the names of the items and options
+   */
+  public MenuSearchIndex(MenuTypeahead typeahead) {
+    this.typeahead = typeahead;
+  }
+
+  /**
+   * Returns the typeahead of the item and option names.
+   * @return The typeahead
+   */
+  public MenuTypeahead getTypeahead() {
+    return typeahead;
+  }
+
+  /**
+   * Replaces the contents of the index. The ids of deleted options are kept. The typeahead starts over, without the
+   * popularity of its names.
+   * @param menuItems All the MenuItems, with their options loaded
+   */
+  public void rebuild(Collection<MenuItem> menuItems) {
+    lock.writeLock().lock();
+    try {
+      items.clear();
+      itemsById.clear();
+      options.clear();
+      nameWords.clear();
+      optionWords.clear();
+      prices.clear();
+      typeahead.clear();
+      for (MenuItem menuItem : menuItems) {
+        putItemLocked(menuItem);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds MenuItems, with their options, or updates them if they're newer than what's in the index.
+   * @param menuItems The MenuItems, with their options loaded
+   */
+  public void putAll(Collection<MenuItem> menuItems) {
+    lock.writeLock().lock();
+    try {
+      for (MenuItem menuItem : menuItems) {
+        putItemLocked(menuItem);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a MenuItem, with its options, or updates it if it's newer than what's in the index.
+   * @param menuItem The MenuItem, with its options loaded
+   */
+  public void putItem(MenuItem menuItem) {
+    lock.writeLock().lock();
+    try {
+      putItemLocked(menuItem);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds a MenuItemOption to its MenuItem, removing it from the one it was on, if it's newer than what's in the
+   * index. An option with no MenuItem is only removed from its previous one.
+   * @param option The MenuItemOption
+   */
+  public void putOption(MenuItemOption option) {
+    lock.writeLock().lock();
+    try {
+      final MenuItem owner = option.getMenuItem();
+      putOptionLocked(option, (owner == null) ? null : owner.getId());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a deleted MenuItemOption.
+   * @param optionId The id of the MenuItemOption
+   */
+  public void removeOption(int optionId) {
+    lock.writeLock().lock();
+    try {
+      deletedOptions.add(optionId);
+      OptionEntry previous = options.remove(optionId);
+      if ((previous != null) && (previous.ownerId != null)) {
+        updateOptions(previous.ownerId, list -> without(list, optionId));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Counts a view of a MenuItem, as a use of its name and of the names of its options, in the typeahead.
+   * @param menuItemId The id of the MenuItem
+   */
+  public void recordView(int menuItemId) {
+    lock.readLock().lock();
+    try {
+      ItemEntry entry = itemsById.get(menuItemId);
+      if ((entry != null) && (entry.dto != null)) {
+        typeahead.recordUse(entry.names());
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the MenuItems that match all of the criteria. Words are matched without regard to case or punctuation.
+   * @param name Words that must all be in the item's name, or null
+   * @param prefix Words that must all be in the item's name, except that the last one only has to start a word, or
+   *               null
+   * @param option Words that must all be in the names of the item's options, or null
+   * @param minPrice The lowest item price, or null
+   * @param maxPrice The highest item price, or null
+   * @return The matching MenuItemDtos, ordered by id, which must not be changed
+   */
+  public List<MenuItemDto> search(
+      @Nullable String name,
+      @Nullable String prefix,
+      @Nullable String option,
+      @Nullable BigDecimal minPrice,
+      @Nullable BigDecimal maxPrice
+  ) {
+    lock.readLock().lock();
+    try {
+      List<Set<Integer>> matches = new ArrayList<>();
+      if (!addWordMatches(matches, nameWords, words(name))
+          || !addPrefixMatches(matches, words(prefix))
+          || !addWordMatches(matches, optionWords, words(option))
+          || !addPriceMatches(matches, minPrice, maxPrice)) {
+        return Collections.emptyList();
+      }
+      if (matches.isEmpty()) {
+        List<MenuItemDto> all = new ArrayList<>(items.size());
+        for (ItemEntry entry : items.values()) {
+          if (entry.dto != null) {
+            all.add(entry.dto);
+          }
+        }
+        return all;
+      }
+      return itemsIn(intersect(matches));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the ids of the options that the index has on a MenuItem.
+   * @param menuItemId The id of the MenuItem
+   * @return The ids of its options, which are empty if the MenuItem isn't in the index
+   */
+  public Set<Integer> getOptionIds(int menuItemId) {
+    lock.readLock().lock();
+    try {
+      ItemEntry entry = itemsById.get(menuItemId);
+      Set<Integer> optionIds = new HashSet<>();
+      if (entry != null) {
+        for (MenuItemOptionDto optionDto : entry.options) {
+          optionIds.add(optionDto.getId());
+        }
+      }
+      return optionIds;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the prices of the menu. Changes to the index wait until the reader is done, so all the prices it reads are
+   * from the same moment. The reader must not keep the MenuPrices.
+   * @param reader The function that reads the prices
+   * @param <T> The type of the result
+   * @return The result of the reader
+   */
+  public <T> T readPrices(Function<MenuPrices, T> reader) {
+    lock.readLock().lock();
+    try {
+      return reader.apply(priceList);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Splits text into lower-case words of letters and digits.
+   * @param text The text, or null
+   * @return The words, which are empty if the text is null
+   */
+  static List<String> words(@Nullable String text) {
+    if (text == null) {
+      return Collections.emptyList();
+    }
+    List<String> words = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean inWord = (i < text.length()) && Character.isLetterOrDigit(text.charAt(i));
+      if (inWord && (start < 0)) {
+        start = i;
+      } else if (!inWord && (start >= 0)) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  private void putItemLocked(MenuItem menuItem) {
+    final Integer id = menuItem.getId();
+    ItemEntry previous = itemsById.get(id);
+    if ((previous == null) || (previous.dto == null) || (previous.version < menuItem.getVersion())) {
+      List<MenuItemOptionDto> optionDtos = (previous == null) ? Collections.emptyList() : previous.options;
+      final ItemEntry entry
+          = new ItemEntry(id, menuItem.getVersion(), menuItem.getName(), Cents.of(menuItem.getItemPrice()), optionDtos);
+      replace(previous, entry);
+    }
+    for (MenuItemOption option : menuItem.getAllowedOptions()) {
+      putOptionLocked(option, id);
+    }
+  }
+
+  private void putOptionLocked(MenuItemOption option, @Nullable Integer ownerId) {
+    final Integer optionId = option.getId();
+    if (deletedOptions.contains(optionId)) {
+      return;
+    }
+    OptionEntry previous = options.get(optionId);
+    if ((previous != null) && (previous.version >= option.getVersion())) {
+      return;
+    }
+    // This adds the option to its new item before taking it off the old one, so its name stays in the typeahead.
+    if (ownerId != null) {
+      final MenuItemOptionDto optionDto = MenuItemMapper.toDto(option);
+      updateOptions(ownerId, list -> with(without(list, optionId), optionDto));
+    }
+    if ((previous != null) && (previous.ownerId != null) && !previous.ownerId.equals(ownerId)) {
+      updateOptions(previous.ownerId, list -> without(list, optionId));
+    }
+    options.put(optionId, new OptionEntry(ownerId, option.getVersion(), Cents.of(option.getDeltaPrice())));
+  }
+
+  /**
+   * Replaces the options of an item. If the item isn't in the index, this adds an entry that holds only its options.
+   */
+  private void updateOptions(Integer itemId, UnaryOperator<List<MenuItemOptionDto>> update) {
+    ItemEntry previous = itemsById.get(itemId);
+    if (previous == null) {
+      replace(null, new ItemEntry(itemId, -1L, null, MenuPrices.NOT_ON_MENU, update.apply(Collections.emptyList())));
+    } else {
+      replace(previous, previous.withOptions(update.apply(previous.options)));
+    }
+  }
+
+  private void replace(@Nullable ItemEntry previous, ItemEntry entry) {
+    // The new names go into the typeahead before the old ones come out, so the names they share keep their popularity.
+    if (entry.dto != null) {
+      typeahead.addNames(entry.names());
+    }
+    if (previous != null) {
+      unindex(previous);
+    }
+    items.put(entry.id, entry);
+    itemsById.put(entry.id, entry);
+    if (entry.dto != null) {
+      for (String word : entry.nameWords) {
+        nameWords.computeIfAbsent(word, w -> new HashSet<>()).add(entry.id);
+      }
+      for (String word : entry.optionWords) {
+        optionWords.computeIfAbsent(word, w -> new HashSet<>()).add(entry.id);
+      }
+      prices.computeIfAbsent(entry.price, p -> new HashSet<>()).add(entry.id);
+    }
+  }
+
+  private void unindex(ItemEntry entry) {
+    if (entry.dto != null) {
+      for (String word : entry.nameWords) {
+        removePosting(nameWords, word, entry.id);
+      }
+      for (String word : entry.optionWords) {
+        removePosting(optionWords, word, entry.id);
+      }
+      removePosting(prices, entry.price, entry.id);
+      typeahead.removeNames(entry.names());
+    }
+  }
+
+  private static <K> void removePosting(Map<K, Set<Integer>> postings, K key, Integer id) {
+    Set<Integer> ids = postings.get(key);
+    if ((ids != null) && ids.remove(id) && ids.isEmpty()) {
+      postings.remove(key);
+    }
+  }
+
+  private static List<MenuItemOptionDto> with(List<MenuItemOptionDto> list, MenuItemOptionDto optionDto) {
+    List<MenuItemOptionDto> newList = new ArrayList<>(list.size() + 1);
+    newList.addAll(list);
+    newList.add(optionDto);
+    return newList;
+  }
+
+  private static List<MenuItemOptionDto> without(List<MenuItemOptionDto> list, Integer optionId) {
+    List<MenuItemOptionDto> newList = new ArrayList<>(list.size());
+    for (MenuItemOptionDto optionDto : list) {
+      if (!optionId.equals(optionDto.getId())) {
+        newList.add(optionDto);
+      }
+    }
+    return newList;
+  }
+
+  /**
+   * Adds the ids of the items with each word.
+   * @return false if some word isn't in any item, so nothing can match
+   */
+  private static boolean addWordMatches(
+      List<Set<Integer>> matches,
+      Map<String, Set<Integer>> postings,
+      List<String> words
+  ) {
+    for (String word : words) {
+      Set<Integer> ids = postings.get(word);
+      if (ids == null) {
+        return false;
+      }
+      matches.add(ids);
+    }
+    return true;
+  }
+
+  private boolean addPrefixMatches(List<Set<Integer>> matches, List<String> words) {
+    if (words.isEmpty()) {
+      return true;
+    }
+    if (!addWordMatches(matches, nameWords, words.subList(0, words.size() - 1))) {
+      return false;
+    }
+    final String prefix = words.get(words.size() - 1);
+    Collection<Set<Integer>> ranges = nameWords.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    return addUnion(matches, ranges);
+  }
+
+  private boolean addPriceMatches(
+      List<Set<Integer>> matches,
+      @Nullable BigDecimal minPrice,
+      @Nullable BigDecimal maxPrice
+  ) {
+    if ((minPrice == null) && (maxPrice == null)) {
+      return true;
+    }
+    final long min = (minPrice == null) ? Long.MIN_VALUE : boundInCents(minPrice, RoundingMode.CEILING);
+    final long max = (maxPrice == null) ? Long.MAX_VALUE : boundInCents(maxPrice, RoundingMode.FLOOR);
+    if (min > max) {
+      return false; // Nothing is in the range, and subMap() would throw.
+    }
+    return addUnion(matches, prices.subMap(min, true, max, true).values());
+  }
+
+  /**
+   * Converts a bound of a price range to cents. A bound beyond the range of a long is clamped to it, since it takes in
+   * or leaves out every price just the same. It's compared first, so a huge exponent never gets expanded.
+   */
+  private static long boundInCents(BigDecimal price, RoundingMode roundingMode) {
+    if (price.compareTo(MAX_BOUND) >= 0) {
+      return Long.MAX_VALUE;
+    }
+    if (price.compareTo(MIN_BOUND) <= 0) {
+      return Long.MIN_VALUE;
+    }
+    return Cents.of(price, roundingMode);
+  }
+
+  /**
+   * Adds the union of some sets of ids.
+   * @return false if the union is empty, so nothing can match
+   */
+  private static boolean addUnion(List<Set<Integer>> matches, Collection<Set<Integer>> sets) {
+    if (sets.size() == 1) {
+      matches.add(sets.iterator().next());
+      return true;
+    }
+    Set<Integer> union = new HashSet<>();
+    for (Set<Integer> ids : sets) {
+      union.addAll(ids);
+    }
+    matches.add(union);
+    return !union.isEmpty();
+  }
+
+  private static int[] intersect(List<Set<Integer>> matches) {
+    matches.sort((a, b) -> Integer.compare(a.size(), b.size()));
+    Set<Integer> smallest = matches.get(0);
+    int[] ids = new int[smallest.size()];
+    int count = 0;
+    for (Integer id : smallest) {
+      boolean inAll = true;
+      for (int i = 1; inAll && (i < matches.size()); i++) {
+        inAll = matches.get(i).contains(id);
+      }
+      if (inAll) {
+        ids[count++] = id;
+      }
+    }
+    ids = Arrays.copyOf(ids, count);
+    Arrays.sort(ids);
+    return ids;
+  }
+
+  private List<MenuItemDto> itemsIn(int[] ids) {
+    List<MenuItemDto> result = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      result.add(itemsById.get(id).dto);
+    }
+    return result;
+  }
+
+  /**
+   * What the index knows about a MenuItem. This never changes. If the item's name is null, the item hasn't reached the
+   * index yet, and this only holds its options. Its price is then NOT_ON_MENU.
+   */
+  private static final class ItemEntry {
+    private final Integer id;
+    private final long version;
+    private final @Nullable String name;
+    private final long price;
+    private final List<MenuItemOptionDto> options;
+    private final @Nullable MenuItemDto dto;
+    private final Set<String> nameWords;
+    private final Set<String> optionWords;
+
+    ItemEntry(
+        Integer id,
+        long version,
+        @Nullable String name,
+        long price,
+        List<MenuItemOptionDto> options
+    ) {
+      this.id = id;
+      this.version = version;
+      this.name = name;
+      this.price = price;
+      this.options = options;
+      this.nameWords = new HashSet<>(words(name));
+      this.optionWords = new HashSet<>();
+      for (MenuItemOptionDto option : options) {
+        optionWords.addAll(words(option.getName()));
+      }
+      if (name == null) {
+        dto = null;
+      } else {
+        dto = new MenuItemDto();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setItemPrice(Cents.toBigDecimal(price));
+        dto.setAllowedOptions(options);
+      }
+    }
+
+    ItemEntry withOptions(List<MenuItemOptionDto> newOptions) {
+      return new ItemEntry(id, version, name, price, newOptions);
+    }
+
+    /**
+     * Returns the names of the item and of its options.
+     */
+    List<String> names() {
+      List<String> names = new ArrayList<>(options.size() + 1);
+      names.add(name);
+      for (MenuItemOptionDto option : options) {
+        names.add(option.getName());
+      }
+      return names;
+    }
+  }
+
+  private static final class OptionEntry {
+    private final @Nullable Integer ownerId;
+    private final long version;
+    private final long deltaPrice;
+
+    OptionEntry(@Nullable Integer ownerId, long version, long deltaPrice) {
+      this.ownerId = ownerId;
+      this.version = version;
+      this.deltaPrice = deltaPrice;
+    }
+  }
+
+  /**
+   * The prices in the index. This must only be used while holding the read lock.
+   */
+  private final class PriceList implements MenuPrices {
+    @Override
+    public @Nullable String getItemName(int menuItemId) {
+      ItemEntry entry = itemsById.get(menuItemId);
+      return (entry == null) ? null : entry.name;
+    }
+
+    @Override
+    public long getItemPrice(int menuItemId) {
+      ItemEntry entry = itemsById.get(menuItemId);
+      return (entry == null) ? NOT_ON_MENU : entry.price;
+    }
+
+    @Override
+    public long getOptionPrice(int menuItemId, int optionId) {
+      OptionEntry entry = options.get(optionId);
+      boolean onItem = (entry != null) && (entry.ownerId != null) && (entry.ownerId == menuItemId);
+      return onItem ? entry.deltaPrice : NOT_ON_MENU;
+    }
+  }
+}
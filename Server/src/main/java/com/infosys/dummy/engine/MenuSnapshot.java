@@ -0,0 +1,86 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.model.MenuItemDto;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable copy of the full menu, holding both the DTOs and their UTF-8 JSON representation. A snapshot is built
+ * once after each change to the menu, and is then served to every client without converting or serializing anything
+ * again. Since this is a List of MenuItemDtos, it may be returned by any method declared to return one. When it's
+ * returned from a controller, the MenuSnapshotHttpMessageConverter copies the JSON bytes straight to the response.
+ * <p>
+ * The DTOs are shared by every request that reads this snapshot, so callers must never modify them.
+ * <p>
+ * A snapshot's ETag is a hash of its JSON, so it identifies the menu itself, not the node or the moment it was built.
+ * A snapshot may be built on one node and served by another, through the shared cache tier, so a node-local version
+ * couldn't serve as its ETag. Two nodes with the same menu give it the same ETag.
+ */
+public final class MenuSnapshot extends AbstractList<MenuItemDto> implements RandomAccess {
+  private final List<MenuItemDto> items;
+  private final byte[] json;
+  private final String eTag;
+
+  /**
+   * Creates a snapshot. The JSON must be the serialized form of the items. It's hashed here, once, for the ETag.
+   * @param items The items
+   * @param json The JSON representation of the items
+   */
+  public MenuSnapshot(List<MenuItemDto> items, byte[] json) {
+    this.items = new ArrayList<>(items);
+    this.json = json;
+    //noinspection StringConcatenation,MagicCharacter
+    eTag = '"' + DigestUtils.md5DigestAsHex(json) + '"';
+  }
+
+  /**
+   * Returns a strong ETag for this snapshot, including the quotes. It's a hash of the JSON.
+   * @return The ETag
+   */
+  public String getETag() {
+    return eTag;
+  }
+
+  /**
+   * Returns the length of the JSON representation, in bytes.
+   * @return the length of the JSON
+   */
+  public int getJsonLength() {
+    return json.length;
+  }
+
+  /**
+   * Writes the JSON representation of the menu to the stream.
+   * @param outputStream The stream to write to
+   * @throws IOException if the stream can't be written
+   */
+  public void writeJsonTo(OutputStream outputStream) throws IOException {
+    outputStream.write(json);
+  }
+
+  /**
+   * Compares the JSON representations of two snapshots.
+   * @param other The other snapshot
+   * @return true if both snapshots have identical JSON
+   */
+  public boolean hasSameJson(MenuSnapshot other) {
+    return Arrays.equals(json, other.json);
+  }
+
+  @Override
+  public MenuItemDto get(final int index) {
+    return items.get(index);
+  }
+
+  @Override
+  public int size() {
+    return items.size();
+  }
+}
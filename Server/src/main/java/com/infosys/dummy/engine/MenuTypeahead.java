@@ -0,0 +1,409 @@
+package com.infosys.dummy.engine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Suggests the names of menu items and options, as they're typed, most popular first. The names are in a prefix trie,
+ * under each of their words, so "pi" suggests "Large Pizza" as well as "Pizza-by-the-slice". Each trie node holds its
+ * children in a sorted array, and is found by a binary search.
+ * <p>
+ * A name is suggested once, however many items and options have it. Its popularity is the number of times it's been
+ * used. (MenuSearchIndex counts each view of a menu item as a use of its name and of its options' names.) Ties go to
+ * the name that's on more of the menu, then to the first one alphabetically.
+ * <p>
+ * Ranking a prefix means visiting every name under it, which is slowest for the shortest prefixes, which are also
+ * the ones typed most. So the rankings of prefixes up to hotPrefixLength long are cached. When the cache is full, it
+ * keeps the prefixes that are used the most. A change to the names replaces the rankings it affects at once, but
+ * a change in popularity only shows up in a cached ranking after it's been there for rankRefresh.
+ * <p>
+ * MenuSearchIndex adds and removes the names, as the menu changes. A name is counted each time it's added, and stays
+ * until it's been removed as many times. It keeps its popularity until then.
+ */
+public final class MenuTypeahead {
+  private static final Comparator<Ranked> WORST_FIRST = Comparator
+      .comparingLong((Ranked r) -> r.popularity)
+      .thenComparingInt(r -> r.suggestion.count)
+      .thenComparing((Ranked r) -> r.suggestion.key, Comparator.reverseOrder());
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final int cachedLimit;
+  private final int hotPrefixLength;
+
+  // Rankings are only cached while holding the read lock, and invalidated while holding the write lock, so a ranking
+  // of the old names can't be cached after the names change.
+  private final Cache<String, List<String>> hotPrefixes;
+
+  // These are guarded by the lock.
+  private final Node root = new Node();
+  private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+  /**
+   * Creates an empty typeahead, with the default settings.
+   */
+  public MenuTypeahead() {
+    this(10, 3, 1000, Duration.ofSeconds(1));
+  }
+
+  /**
+   * Creates an empty typeahead.
+   * @param cachedLimit How many suggestions to cache for each hot prefix. Requests for more aren't cached.
+   * @param hotPrefixLength The length of the longest prefix to cache
+   * @param hotPrefixes The number of prefixes to cache
+   * @param rankRefresh How long a cached ranking may ignore changes in popularity
+   * @see TypeaheadProperties
+   */
+  public MenuTypeahead(int cachedLimit, int hotPrefixLength, long hotPrefixes, Duration rankRefresh) {
+    this.cachedLimit = cachedLimit;
+    this.hotPrefixLength = hotPrefixLength;
+    this.hotPrefixes = Caffeine.newBuilder()
+        .maximumSize(hotPrefixes)
+        .expireAfterWrite(rankRefresh)
+        .build();
+  }
+
+  /**
+   * Adds one use of each of some names, on the menu.
+   * @param names The names
+   */
+  public void addNames(Collection<String> names) {
+    lock.writeLock().lock();
+    try {
+      for (String name : names) {
+        addName(name);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes one use of each of some names, on the menu. A name that's no longer used is no longer suggested.
+   * @param names The names
+   */
+  public void removeNames(Collection<String> names) {
+    lock.writeLock().lock();
+    try {
+      for (String name : names) {
+        removeName(name);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes all the names, with their popularity.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      root.labels = Node.NO_LABELS;
+      root.children = Node.NO_CHILDREN;
+      suggestions.clear();
+      hotPrefixes.invalidateAll();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds one to the popularity of each of some names. Names that aren't on the menu are ignored.
+   * @param names The names
+   */
+  public void recordUse(Collection<String> names) {
+    lock.readLock().lock();
+    try {
+      for (String name : names) {
+        Suggestion suggestion = suggestions.get(key(name));
+        if (suggestion != null) {
+          suggestion.popularity.incrementAndGet();
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Suggests names that have a word that starts with the prefix. If the prefix has several words, the name must have
+   * them in the same order, with the last one possibly incomplete. Case and punctuation are ignored, but a prefix that
+   * ends between words only matches whole words.
+   * @param prefix What's been typed so far
+   * @param limit The most suggestions to return
+   * @return The names, most popular first, which must not be changed
+   */
+  public List<String> suggest(String prefix, int limit) {
+    final String key = prefixKey(prefix);
+    lock.readLock().lock();
+    try {
+      if ((key.length() <= hotPrefixLength) && (limit <= cachedLimit)) {
+        List<String> ranking = hotPrefixes.get(key, k -> rank(k, cachedLimit));
+        assert ranking != null;
+        return (ranking.size() > limit) ? ranking.subList(0, limit) : ranking;
+      }
+      return rank(key, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void addName(String name) {
+    final String key = key(name);
+    if (key.isEmpty()) {
+      return;
+    }
+    Suggestion suggestion = suggestions.get(key);
+    if (suggestion == null) {
+      suggestion = new Suggestion(key, name);
+      suggestions.put(key, suggestion);
+      for (int word = 0; word < suggestion.suffixes.length; word++) {
+        Node node = root;
+        for (char c : suggestion.suffixes[word].toCharArray()) {
+          node = node.childOrAdd(c);
+        }
+        node.add(new Entry(suggestion, word));
+      }
+    }
+    suggestion.count++;
+    invalidate(suggestion);
+  }
+
+  private void removeName(String name) {
+    Suggestion suggestion = suggestions.get(key(name));
+    if (suggestion == null) {
+      return;
+    }
+    invalidate(suggestion);
+    if (--suggestion.count > 0) {
+      return;
+    }
+    suggestions.remove(suggestion.key);
+    for (String suffix : suggestion.suffixes) {
+      Node[] path = new Node[suffix.length() + 1];
+      path[0] = root;
+      for (int i = 0; i < suffix.length(); i++) {
+        path[i + 1] = path[i].child(suffix.charAt(i));
+      }
+      path[suffix.length()].remove(suggestion);
+      for (int i = suffix.length(); (i > 0) && path[i].isEmpty(); i--) {
+        path[i - 1].removeChild(suffix.charAt(i - 1));
+      }
+    }
+  }
+
+  /**
+   * Drops the cached rankings that may include this suggestion.
+   */
+  private void invalidate(Suggestion suggestion) {
+    for (String suffix : suggestion.suffixes) {
+      for (int length = 0; length <= Math.min(hotPrefixLength, suffix.length()); length++) {
+        hotPrefixes.invalidate(suffix.substring(0, length));
+      }
+    }
+  }
+
+  /**
+   * Finds the most popular suggestions under a prefix. This visits the whole subtree, keeping the best ones so far in
+   * a heap, with the worst on top.
+   */
+  private List<String> rank(String prefix, int limit) {
+    Node node = root;
+    for (int i = 0; (node != null) && (i < prefix.length()); i++) {
+      node = node.child(prefix.charAt(i));
+    }
+    if ((node == null) || (limit <= 0)) {
+      return Collections.emptyList();
+    }
+    PriorityQueue<Ranked> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+    Deque<Node> pending = new ArrayDeque<>();
+    pending.push(node);
+    while (!pending.isEmpty()) {
+      Node next = pending.pop();
+      for (Entry entry : next.entries) {
+        if (!matchesEarlierWord(entry, prefix)) {
+          offer(best, limit, entry.suggestion);
+        }
+      }
+      for (Node child : next.children) {
+        pending.push(child);
+      }
+    }
+    String[] names = new String[best.size()];
+    for (int i = names.length - 1; i >= 0; i--) {
+      names[i] = best.poll().suggestion.name;
+    }
+    return Collections.unmodifiableList(Arrays.asList(names));
+  }
+
+  /**
+   * Returns true if the prefix also starts an earlier word of the suggestion, so the suggestion is found there, too.
+   * This way, each suggestion is ranked once.
+   */
+  private static boolean matchesEarlierWord(Entry entry, String prefix) {
+    for (int word = 0; word < entry.word; word++) {
+      if (entry.suggestion.suffixes[word].startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void offer(PriorityQueue<Ranked> best, int limit, Suggestion suggestion) {
+    Ranked ranked = new Ranked(suggestion, suggestion.popularity.get());
+    if (best.size() < limit) {
+      best.add(ranked);
+    } else if (WORST_FIRST.compare(ranked, best.peek()) > 0) {
+      best.poll();
+      best.add(ranked);
+    }
+  }
+
+  /**
+   * Returns the words of a name, in lower case, separated by single spaces.
+   */
+  private static String key(@Nullable String name) {
+    return String.join(" ", MenuSearchIndex.words(name));
+  }
+
+  /**
+   * Returns the key of what's been typed. If that ends between words, so does the key.
+   */
+  private static String prefixKey(@Nullable String prefix) {
+    String key = key(prefix);
+    boolean endsBetweenWords = !key.isEmpty() && !Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1));
+    return endsBetweenWords ? (key + ' ') : key;
+  }
+
+  private static final class Node {
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    // The labels are sorted, and children[i] is the child for labels[i].
+    private char[] labels = NO_LABELS;
+    private Node[] children = NO_CHILDREN;
+    private Entry[] entries = NO_ENTRIES;
+
+    @Nullable Node child(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      return (i < 0) ? null : children[i];
+    }
+
+    Node childOrAdd(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      if (i >= 0) {
+        return children[i];
+      }
+      int insertAt = -(i + 1);
+      char[] newLabels = new char[labels.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(labels, 0, newLabels, 0, insertAt);
+      System.arraycopy(children, 0, newChildren, 0, insertAt);
+      System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+      System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+      Node child = new Node();
+      newLabels[insertAt] = label;
+      newChildren[insertAt] = child;
+      labels = newLabels;
+      children = newChildren;
+      return child;
+    }
+
+    void removeChild(char label) {
+      int i = Arrays.binarySearch(labels, label);
+      char[] newLabels = new char[labels.length - 1];
+      Node[] newChildren = new Node[children.length - 1];
+      System.arraycopy(labels, 0, newLabels, 0, i);
+      System.arraycopy(children, 0, newChildren, 0, i);
+      System.arraycopy(labels, i + 1, newLabels, i, newLabels.length - i);
+      System.arraycopy(children, i + 1, newChildren, i, newChildren.length - i);
+      labels = newLabels;
+      children = newChildren;
+    }
+
+    void add(Entry entry) {
+      entries = Arrays.copyOf(entries, entries.length + 1);
+      entries[entries.length - 1] = entry;
+    }
+
+    void remove(Suggestion suggestion) {
+      List<Entry> kept = new ArrayList<>(entries.length);
+      for (Entry entry : entries) {
+        if (entry.suggestion != suggestion) {
+          kept.add(entry);
+        }
+      }
+      entries = kept.toArray(NO_ENTRIES);
+    }
+
+    boolean isEmpty() {
+      return (entries.length == 0) && (children.length == 0);
+    }
+  }
+
+  /**
+   * A suggestion whose suffix, starting at one of its words, ends at a trie node.
+   */
+  private static final class Entry {
+    private final Suggestion suggestion;
+    private final int word;
+
+    Entry(Suggestion suggestion, int word) {
+      this.suggestion = suggestion;
+      this.word = word;
+    }
+  }
+
+  private static final class Suggestion {
+    private final String key;
+    private final String name;
+
+    // The key, starting at each of its words
+    private final String[] suffixes;
+
+    // The count is guarded by the lock. The popularity is updated while holding the read lock.
+    private int count = 0;
+    private final AtomicLong popularity = new AtomicLong();
+
+    Suggestion(String key, String name) {
+      this.key = key;
+      this.name = name;
+      List<String> words = MenuSearchIndex.words(key);
+      suffixes = new String[words.size()];
+      for (int word = 0; word < suffixes.length; word++) {
+        suffixes[word] = String.join(" ", words.subList(word, words.size()));
+      }
+    }
+  }
+
+  /**
+   * A suggestion, with its popularity when it was ranked, so the order can't change while it's in the heap.
+   */
+  private static final class Ranked {
+    private final Suggestion suggestion;
+    private final long popularity;
+
+    Ranked(Suggestion suggestion, long popularity) {
+      this.suggestion = suggestion;
+      this.popularity = popularity;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.exception.NotFound404Exception;
+import com.infosys.dummy.model.OrderNodeDto;
+import com.infosys.dummy.model.OrderQuoteDto;
+import com.infosys.dummy.model.OrderQuoteLineDto;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Prices an order, which is a tree of OrderNodeDtos. A node with a menuItemId orders that menu item. A node with an
+ * optionId adds that option to the nearest menu item above it, which must allow it. A node with neither groups the
+ * nodes under it, like the root of an order with several items. The parentTree of each node is ignored.
+ * <p>
+ * The tree is walked with a stack of its own, instead of by recursion, so a deep tree can't overflow the thread's
+ * stack. The prices are added up in cents, and only converted to BigDecimals for the quote.
+ */
+public enum OrderPricer {
+  ;
+
+  /**
+   * Prices an order.
+   * @param order The root of the order
+   * @param prices The prices to use
+   * @return The price of each menu item, with its options, in the order they appear in the tree, and the total
+   * @throws NotFound404Exception if a menu item isn't on the menu
+   * @throws BadRequest400Exception if an option isn't an option of the menu item above it, or has nodes under it, or
+   * if a node has both a menuItemId and an optionId, or if the total is too large
+   */
+  public static OrderQuoteDto quote(OrderNodeDto order, MenuPrices prices) {
+    try {
+      return toQuote(priceLines(order, prices), prices);
+    } catch (ArithmeticException e) {
+      throw tooLarge(e);
+    }
+  }
+
+  /**
+   * Prices an order, without the lines of a quote.
+   * @param order The root of the order
+   * @param prices The prices to use
+   * @return The total, in cents
+   * @throws NotFound404Exception if a menu item isn't on the menu
+   * @throws BadRequest400Exception for the same reasons as {@link #quote(OrderNodeDto, MenuPrices)}
+   */
+  public static long total(OrderNodeDto order, MenuPrices prices) {
+    try {
+      long total = 0L;
+      for (Line line : priceLines(order, prices)) {
+        total = Math.addExact(total, line.cents);
+      }
+      return total;
+    } catch (ArithmeticException e) {
+      throw tooLarge(e);
+    }
+  }
+
+  private static List<Line> priceLines(OrderNodeDto order, MenuPrices prices) {
+    List<Line> lines = new ArrayList<>();
+    Deque<Pending> pending = new ArrayDeque<>();
+    pending.push(new Pending(order, null));
+    while (!pending.isEmpty()) {
+      final Pending next = pending.pop();
+      final OrderNodeDto node = next.node;
+      final Integer menuItemId = node.getMenuItemId();
+      final Integer optionId = node.getOptionId();
+      Line line = next.line;
+      if ((menuItemId != null) && (optionId != null)) {
+        throw new BadRequest400Exception(
+            String.format("Order node has both menuItemId %d and optionId %d", menuItemId, optionId)
+        );
+      }
+      if (menuItemId != null) {
+        line = priceItem(menuItemId, prices);
+        lines.add(line);
+      } else if (optionId != null) {
+        addOption(line, optionId, prices);
+        if (!isEmpty(node.getOptions())) {
+          throw new BadRequest400Exception(String.format("Option %d has nodes under it", optionId));
+        }
+      }
+      List<OrderNodeDto> children = node.getOptions();
+      if (children != null) {
+        // Pushed in reverse, so they're popped in order.
+        for (int i = children.size() - 1; i >= 0; i--) {
+          final OrderNodeDto child = children.get(i);
+          if (child == null) {
+            throw new BadRequest400Exception("Order node has a null option");
+          }
+          pending.push(new Pending(child, line));
+        }
+      }
+    }
+    return lines;
+  }
+
+  private static BadRequest400Exception tooLarge(ArithmeticException e) {
+    return new BadRequest400Exception("The order's total is too large", e);
+  }
+
+  private static Line priceItem(int menuItemId, MenuPrices prices) {
+    final long price = prices.getItemPrice(menuItemId);
+    if (price == MenuPrices.NOT_ON_MENU) {
+      throw new NotFound404Exception(MenuItem.class, menuItemId);
+    }
+    return new Line(menuItemId, price);
+  }
+
+  private static void addOption(@Nullable Line line, int optionId, MenuPrices prices) {
+    if (line == null) {
+      throw new BadRequest400Exception(String.format("Option %d isn't under a menu item", optionId));
+    }
+    final long deltaPrice = prices.getOptionPrice(line.menuItemId, optionId);
+    if (deltaPrice == MenuPrices.NOT_ON_MENU) {
+      throw new BadRequest400Exception(
+          String.format("Option %d isn't an option of menu item %d", optionId, line.menuItemId)
+      );
+    }
+    line.cents = Math.addExact(line.cents, deltaPrice);
+  }
+
+  private static OrderQuoteDto toQuote(List<Line> lines, MenuPrices prices) {
+    long total = 0L;
+    List<OrderQuoteLineDto> lineDtos = new ArrayList<>(lines.size());
+    for (Line line : lines) {
+      total = Math.addExact(total, line.cents);
+      OrderQuoteLineDto lineDto = new OrderQuoteLineDto();
+      lineDto.setMenuItemId(line.menuItemId);
+      lineDto.setName(prices.getItemName(line.menuItemId));
+      lineDto.setPrice(Cents.toBigDecimal(line.cents));
+      lineDtos.add(lineDto);
+    }
+    OrderQuoteDto quote = new OrderQuoteDto();
+    quote.setTotal(Cents.toBigDecimal(total));
+    quote.setLines(lineDtos);
+    return quote;
+  }
+
+  private static boolean isEmpty(@Nullable List<?> list) {
+    return (list == null) || list.isEmpty();
+  }
+
+  /**
+   * An ordered menu item, with the price of it and its options so far.
+   */
+  private static final class Line {
+    private final int menuItemId;
+    private long cents;
+
+    Line(int menuItemId, long cents) {
+      this.menuItemId = menuItemId;
+      this.cents = cents;
+    }
+  }
+
+  /**
+   * A node that hasn't been priced yet, with the line of the nearest menu item above it.
+   */
+  private static final class Pending {
+    private final OrderNodeDto node;
+    private final @Nullable Line line;
+
+    Pending(OrderNodeDto node, @Nullable Line line) {
+      this.node = node;
+      this.line = line;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.infosys.dummy.engine;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for saving placed orders, taken from the my-app.orders properties. For example:
+ * <pre>
+ *   my-app.orders.queue-capacity=20000
+ *   my-app.orders.batch-size=200
+ *   my-app.orders.commit-timeout=5s
+ * </pre>
+ * (See OrderWriter.)
+ */
+@ConfigurationProperties(prefix = "my-app.orders")
+public class OrderProperties {
+  private int queueCapacity = 10000;
+  private int batchSize = 500;
+  private Duration commitTimeout = Duration.ofSeconds(10);
+
+  /**
+   * Returns how many orders may wait to be saved. Once this many are waiting, new orders are refused, with a 503.
+   * @return the queue capacity
+   */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(final int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Returns the most orders to save in one transaction. Fewer are saved when fewer are waiting.
+   * @return the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(final int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Returns how long a request waits for its order to be committed. After that, it gets a 503.
+   * @return the commit timeout
+   */
+  public Duration getCommitTimeout() {
+    return commitTimeout;
+  }
+
+  public void setCommitTimeout(final Duration commitTimeout) {
+    this.commitTimeout = commitTimeout;
+  }
+}
@@ -0,0 +1,408 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.exception.InternalError500Exception;
+import com.infosys.dummy.exception.ResponseException;
+import com.infosys.dummy.exception.ServiceUnavailable503Exception;
+import com.infosys.dummy.model.OrderNodeDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.infosys.dummy.engine.PojoUtility.*;
+
+/**
+ * Saves placed orders in batches. The request thread checks its order, and hands it to this, then waits. A single
+ * writer thread takes all the orders that are waiting, up to the batch size, and saves them in one transaction, with
+ * one JDBC batch for the CustomerOrders and another for their OrderNodes. Each request gets the id of its order once
+ * that transaction commits. While one batch is being saved, the next one fills up, so the busier it gets, the more
+ * orders share each commit.
+ * <p>
+ * The queue works like the one in RequestLogQueue: A lock-free queue, with a separate count to bound it. When it's
+ * full, orders are refused with a 503, instead of piling up. Unlike RequestLogQueue, the request thread wakes up the
+ * writer thread, since a commit costs far more than the wake-up.
+ * <p>
+ * A batch that fails to save fails all of its orders, and the writer thread goes on to the next batch. If the writer
+ * thread dies anyway, every order still waiting, and every order placed after that, is refused with a 503. A request
+ * that waits longer than the commit timeout gets a 503 too.
+ * <p>
+ * The ids of a whole batch are reserved in one query per sequence. (See CustomerOrder.getId().)
+ * <p>
+ * Other commits may wait up to WRITE_DELAY before they reach the disk. (See application.properties.) An order can't,
+ * since its id has been handed to the customer. So after each batch commits, this syncs the database to disk, before
+ * it returns any ids. That costs one sync per batch, not one per order. If the sync fails, the orders are still
+ * committed, so they get their ids anyway, and the failure is logged.
+ * <p>
+ * This publishes these metrics: orders.queue.depth, the number of orders waiting for the writer thread;
+ * orders.batch.size, the number of orders in each transaction; orders.commit, the time to save, commit, and sync
+ * each batch; and orders.rejected, the number of orders refused because the queue was full.
+ */
+@Component
+@EnableConfigurationProperties(OrderProperties.class)
+public class OrderWriter implements Runnable, DisposableBean {
+  private static final @NonNls Logger log = LoggerFactory.getLogger(OrderWriter.class);
+
+  // Added to the count when this shuts down. It's larger than any capacity, so it can't be mistaken for a count.
+  private static final int CLOSED = 1 << 30;
+  private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long SHUTDOWN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+  private static final String STOPPED = "Orders are no longer being taken";
+
+  // H2 evaluates NEXT VALUE FOR once for each row, so this returns as many new ids as there are rows in the range.
+  private static final String RESERVE_IDS = "select next value for %s from system_range(1, ?)";
+  private static final String SYNC = "checkpoint sync";
+  private static final String INSERT_ORDER = "insert into customer_order (id, total, placed) values (?, ?, ?)";
+  private static final String INSERT_NODE
+      = "insert into order_node (id, order_id, parent_id, menu_item_id, option_id) values (?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int capacity;
+  private final int batchSize;
+  private final long commitTimeoutNanos;
+  private final Queue<PendingOrder> queue = new ConcurrentLinkedQueue<>();
+
+  // The number of orders that were let in, but not yet taken by the writer thread, plus CLOSED once this shuts down.
+  private final AtomicInteger size = new AtomicInteger();
+  private final Counter rejected;
+  private final DistributionSummary batchSizes;
+  private final Timer commitTimer;
+  private final Thread thread;
+
+  @Autowired
+  public OrderWriter(
+      final JdbcTemplate jdbcTemplate,
+      final PlatformTransactionManager transactionManager,
+      final MeterRegistry meterRegistry,
+      final OrderProperties orderProperties
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.capacity = Math.min(orderProperties.getQueueCapacity(), CLOSED - 1);
+    this.batchSize = orderProperties.getBatchSize();
+    this.commitTimeoutNanos = orderProperties.getCommitTimeout().toNanos();
+    Gauge.builder("orders.queue.depth", size, s -> s.get() & ~CLOSED)
+        .description("Orders waiting to be saved")
+        .register(meterRegistry);
+    rejected = Counter.builder("orders.rejected")
+        .description("Orders refused because too many were waiting to be saved")
+        .register(meterRegistry);
+    batchSizes = DistributionSummary.builder("orders.batch.size")
+        .description("Orders saved in each transaction")
+        .register(meterRegistry);
+    commitTimer = Timer.builder("orders.commit")
+        .description("The time to save, commit, and sync each batch of orders")
+        .register(meterRegistry);
+    thread = new Thread(this, "order-writer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Saves an order, along with any others that are waiting, and waits until they've been committed. The order must
+   * already have been priced.
+   * @param order The root of the order
+   * @param totalCents The total price of the order, in cents
+   * @return The id of the saved order
+   * @throws BadRequest400Exception if any node has an id or an orderId
+   * @throws ServiceUnavailable503Exception if too many orders are waiting to be saved, if the server is shutting
+   * down, if the writer thread has died, or if the order isn't committed within the commit timeout
+   */
+  public int place(final OrderNodeDto order, final long totalCents) {
+    PendingOrder pending = new PendingOrder(order, totalCents);
+    final int count = size.incrementAndGet();
+    if ((count & CLOSED) != 0) {
+      size.decrementAndGet();
+      throw new ServiceUnavailable503Exception(STOPPED);
+    }
+    if (count > capacity) {
+      size.decrementAndGet();
+      rejected.increment();
+      throw new ServiceUnavailable503Exception("Too many orders are waiting to be saved");
+    }
+    queue.offer(pending);
+    LockSupport.unpark(thread);
+    if (!thread.isAlive() && withdraw(pending)) {
+      throw new ServiceUnavailable503Exception(STOPPED);
+    }
+    try {
+      return pending.awaitId(commitTimeoutNanos);
+    } catch (TimeoutException e) {
+      if (withdraw(pending)) {
+        throw new ServiceUnavailable503Exception("Timed out waiting for the order to be saved. It was not saved.");
+      }
+      throw new ServiceUnavailable503Exception("Timed out waiting for the order to be saved. It may still be saved.");
+    }
+  }
+
+  /**
+   * Takes an order back out of the queue, if the writer thread hasn't taken it yet.
+   * @return true if the order was withdrawn, so it will never be saved
+   */
+  private boolean withdraw(final PendingOrder pending) {
+    if (queue.remove(pending)) {
+      size.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Stops taking orders, and waits until the writer thread has saved the ones already taken. This doesn't interrupt
+   * the writer thread, since H2 closes its file when a thread that's using it gets interrupted.
+   */
+  @Override
+  public void destroy() throws InterruptedException {
+    size.getAndUpdate(s -> s | CLOSED);
+    LockSupport.unpark(thread);
+    thread.join(SHUTDOWN_MILLIS);
+    if (thread.isAlive()) {
+      log.warn("{} orders were still waiting to be saved at shutdown", size.get() & ~CLOSED);
+    }
+  }
+
+  @Override
+  public void run() {
+    try {
+      writeAll();
+    } finally {
+      // If this thread dies, nothing else will save the orders, so refuse them instead of leaving them waiting.
+      size.getAndUpdate(s -> s | CLOSED);
+      PendingOrder pending;
+      while ((pending = queue.poll()) != null) {
+        size.decrementAndGet();
+        pending.id.completeExceptionally(new ServiceUnavailable503Exception(STOPPED));
+      }
+    }
+  }
+
+  private void writeAll() {
+    List<PendingOrder> batch = new ArrayList<>(batchSize);
+    while (true) {
+      PendingOrder next = queue.poll();
+      if (next == null) {
+        // Once it's closed, no more orders get in, so when the count runs down, the queue is done.
+        if (size.get() == CLOSED) {
+          return;
+        }
+        LockSupport.parkNanos(this, IDLE_NANOS);
+        continue;
+      }
+      do {
+        batch.add(next);
+      } while ((batch.size() < batchSize) && ((next = queue.poll()) != null));
+      size.addAndGet(-batch.size());
+      write(batch);
+      batch.clear();
+    }
+  }
+
+  private void write(final List<PendingOrder> batch) {
+    final long start = System.nanoTime();
+    final List<Integer> ids;
+    try {
+      ids = transactionTemplate.execute(status -> insert(batch));
+    } catch (Throwable e) {
+      // Anything thrown here fails just this batch, so the writer thread goes on to the next one. It's logged once
+      // here, for the whole batch, and each waiting request gets its own exception, with this one as its cause.
+      log.error("Failed to save a batch of {} orders", batch.size(), e);
+      for (PendingOrder order : batch) {
+        order.id.completeExceptionally(e);
+      }
+      return;
+    }
+    sync(batch.size());
+    commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    batchSizes.record(batch.size());
+    assert ids != null;
+    for (int i = 0; i < batch.size(); ++i) {
+      batch.get(i).id.complete(ids.get(i));
+    }
+  }
+
+  private void sync(final int orderCount) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute(SYNC));
+    } catch (RuntimeException e) {
+      log.error("Committed {} orders, but failed to sync them to disk", orderCount, e);
+    }
+  }
+
+  private List<Integer> insert(final List<PendingOrder> batch) {
+    int nodeCount = 0;
+    for (PendingOrder order : batch) {
+      nodeCount += order.nodeCount;
+    }
+    final List<Integer> orderIds = reserveIds("customer_order_seq", batch.size());
+    final List<Integer> nodeIds = reserveIds("order_node_seq", nodeCount);
+
+    // Where each node's order is in the batch, and where the order's nodes start in nodeIds.
+    final int[] orderIndex = new int[nodeCount];
+    final int[] firstNode = new int[nodeCount];
+    int n = 0;
+    for (int i = 0; i < batch.size(); ++i) {
+      final int first = n;
+      for (int j = 0; j < batch.get(i).nodeCount; ++j) {
+        orderIndex[n] = i;
+        firstNode[n] = first;
+        n++;
+      }
+    }
+
+    jdbcTemplate.batchUpdate(INSERT_ORDER, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+        PendingOrder order = batch.get(i);
+        ps.setInt(1, orderIds.get(i));
+        ps.setBigDecimal(2, Cents.toBigDecimal(order.totalCents));
+        ps.setTimestamp(3, new Timestamp(order.placed));
+      }
+
+      @Override
+      public int getBatchSize() {
+        return batch.size();
+      }
+    });
+    jdbcTemplate.batchUpdate(INSERT_NODE, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(final PreparedStatement ps, final int i) throws SQLException {
+        PendingOrder order = batch.get(orderIndex[i]);
+        final int j = i - firstNode[i];
+        final int parent = order.parents[j];
+        ps.setInt(1, nodeIds.get(i));
+        ps.setInt(2, orderIds.get(orderIndex[i]));
+        setInteger(ps, 3, (parent < 0) ? null : nodeIds.get(firstNode[i] + parent));
+        setInteger(ps, 4, order.nodes[j].getMenuItemId());
+        setInteger(ps, 5, order.nodes[j].getOptionId());
+      }
+
+      @Override
+      public int getBatchSize() {
+        return orderIndex.length;
+      }
+    });
+    return orderIds;
+  }
+
+  private List<Integer> reserveIds(final String sequence, final int count) {
+    return jdbcTemplate.queryForList(String.format(RESERVE_IDS, sequence), Integer.class, count);
+  }
+
+  private static void setInteger(final PreparedStatement ps, final int index, @Nullable final Integer value)
+      throws SQLException {
+    if (value == null) {
+      ps.setNull(index, Types.INTEGER);
+    } else {
+      ps.setInt(index, value);
+    }
+  }
+
+  /**
+   * An order that's waiting to be saved. Its tree is flattened on the request thread, so the writer thread only has
+   * to write it out.
+   */
+  private static final class PendingOrder {
+    private final long totalCents;
+    private final long placed = System.currentTimeMillis();
+
+    // The nodes, with the root first, and each node's parent, as an index into nodes, or -1 for the root.
+    private OrderNodeDto[] nodes = new OrderNodeDto[8];
+    private int[] parents = new int[8];
+    private int nodeCount = 0;
+    private final CompletableFuture<Integer> id = new CompletableFuture<>();
+
+    PendingOrder(final OrderNodeDto order, final long totalCents) {
+      this.totalCents = totalCents;
+
+      // Walked with a stack of its own, like OrderPricer does, so a deep tree can't overflow the thread's stack.
+      Deque<Integer> pending = new ArrayDeque<>();
+      add(order, -1);
+      pending.push(0);
+      while (!pending.isEmpty()) {
+        final int parent = pending.pop();
+        final OrderNodeDto node = nodes[parent];
+        confirmNull(node.getId(), "OrderNodeDto.id");
+        confirmNull(node.getOrderId(), "OrderNodeDto.orderId");
+        for (OrderNodeDto child : skipNull(node.getOptions())) {
+          pending.push(nodeCount);
+          add(child, parent);
+        }
+      }
+    }
+
+    private void add(final OrderNodeDto node, final int parent) {
+      if (nodeCount == nodes.length) {
+        nodes = Arrays.copyOf(nodes, nodeCount * 2);
+        parents = Arrays.copyOf(parents, nodeCount * 2);
+      }
+      nodes[nodeCount] = node;
+      parents[nodeCount] = parent;
+      nodeCount++;
+    }
+
+    /**
+     * Waits for the order to be committed. This can't be interrupted, since by then, the order may be saved anyway.
+     * An interrupt is kept for the caller to see.
+     * @param timeoutNanos The longest time to wait
+     * @return The id of the order
+     * @throws TimeoutException if the order wasn't committed in time
+     * @throws InternalError500Exception if the order's batch failed. Every order in the batch has the same cause, but
+     * each request gets an exception of its own, so each one has the stack of the request that waited for it.
+     */
+    int awaitId(final long timeoutNanos) throws TimeoutException {
+      final long deadline = System.nanoTime() + timeoutNanos;
+      boolean interrupted = false;
+      try {
+        while (true) {
+          try {
+            return id.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          } catch (InterruptedException e) {
+            interrupted = true;
+          } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ResponseException) {
+              throw (ResponseException) cause; // Made for this order alone
+            }
+            throw new InternalError500Exception("Failed to save the order", cause);
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+}
@@ -109,7 +109,7 @@ public enum PojoUtility {
    */
   public static <T> T confirmNotNull(@Nullable T object) throws ResponseException {
     if (object == null) {
-      throw new BadRequest400Exception("Missing object");
+      throw BadRequest400Exception.missingObject();
     }
     assert !isEntityAssertion(object) : String.format(
             "This method is not for entity objects. Use findOrThrow404(): %s", getEntityClass(object));
@@ -247,7 +247,7 @@ public enum PojoUtility {
    */
   public static String confirmNotEmpty(@Nullable String s) throws ResponseException {
     if ((s == null) || s.isEmpty()) {
-      throw new BadRequest400Exception("Null or empty value.");
+      throw BadRequest400Exception.emptyValue();
     }
     return s;
   }
@@ -0,0 +1,78 @@
+package com.infosys.dummy.engine;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the menu name typeahead, taken from the my-app.typeahead properties. For example:
+ * <pre>
+ *   my-app.typeahead.limit=8
+ *   my-app.typeahead.rank-refresh=5s
+ * </pre>
+ * (See MenuTypeahead.)
+ */
+@ConfigurationProperties(prefix = "my-app.typeahead")
+public class TypeaheadProperties {
+  private int limit = 10;
+  private int hotPrefixLength = 3;
+  private long hotPrefixes = 1000;
+  private Duration rankRefresh = Duration.ofSeconds(1);
+
+  /**
+   * Returns how many suggestions to return when the request doesn't say. The cache keeps this many for each prefix.
+   * @return the limit
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  public void setLimit(final int limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Returns the length of the longest prefix whose suggestions get cached. Short prefixes match the most names, so
+   * they take the longest to rank, and they're typed the most.
+   * @return the length, in characters
+   */
+  public int getHotPrefixLength() {
+    return hotPrefixLength;
+  }
+
+  public void setHotPrefixLength(final int hotPrefixLength) {
+    this.hotPrefixLength = hotPrefixLength;
+  }
+
+  /**
+   * Returns how many prefixes the cache may hold. When it's full, it keeps the ones that are used the most.
+   * @return the maximum number of cached prefixes
+   */
+  public long getHotPrefixes() {
+    return hotPrefixes;
+  }
+
+  public void setHotPrefixes(final long hotPrefixes) {
+    this.hotPrefixes = hotPrefixes;
+  }
+
+  /**
+   * Returns how long a cached ranking may be used, as the popularity changes. Changes to the menu replace it at once.
+   * @return the refresh time
+   */
+  public Duration getRankRefresh() {
+    return rankRefresh;
+  }
+
+  public void setRankRefresh(final Duration rankRefresh) {
+    this.rankRefresh = rankRefresh;
+  }
+
+  /**
+   * Creates an empty typeahead with these settings.
+   * @return The typeahead
+   */
+  public MenuTypeahead createTypeahead() {
+    return new MenuTypeahead(limit, hotPrefixLength, hotPrefixes, rankRefresh);
+  }
+}
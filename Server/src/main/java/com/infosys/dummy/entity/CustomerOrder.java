@@ -0,0 +1,74 @@
+package com.infosys.dummy.entity;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A placed order. Its menu items and options are OrderNodes, which refer to it by id. Orders are only written by
+ * OrderWriter, in JDBC batches, so this class mostly defines the table.
+ */
+@Entity
+public class CustomerOrder implements Serializable {
+  private Integer id;
+  @NotNull
+  private BigDecimal total;
+  @NotNull
+  private Instant placed;
+
+  // OrderWriter reserves the ids of a whole batch in one query, one step of the sequence per order.
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_order_seq")
+  @SequenceGenerator(name = "customer_order_seq", sequenceName = "customer_order_seq", allocationSize = 1)
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(final Integer id) {
+    this.id = id;
+  }
+
+  public BigDecimal getTotal() {
+    return total;
+  }
+
+  public void setTotal(final BigDecimal total) {
+    this.total = total;
+  }
+
+  public Instant getPlaced() {
+    return placed;
+  }
+
+  public void setPlaced(final Instant placed) {
+    this.placed = placed;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) { return true; }
+    if (!(o instanceof CustomerOrder)) { return false; } // implicitly checks for null
+
+    final CustomerOrder that = (CustomerOrder) o;
+
+    return (getId() != null) ? getId().equals(that.getId()) : (that.getId() == null);
+  }
+
+  @Override
+  public int hashCode() {
+    return (getId() != null) ? getId().hashCode() : 0;
+  }
+
+  @SuppressWarnings("HardCodedStringLiteral")
+  @Override
+  public String toString() {
+    //noinspection StringConcatenation,MagicCharacter
+    return "CustomerOrder{" +
+        "id=" + id +
+        ", total=" + total +
+        ", placed=" + placed +
+        '}';
+  }
+}
@@ -1,5 +1,7 @@
 package com.infosys.dummy.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotEmpty;
@@ -19,6 +21,7 @@ import java.util.LinkedList;
 @Entity
 public class MenuItem implements Serializable {
   private Integer id;
+  private long version;
 
   @NotEmpty
   private String name;
@@ -26,8 +29,12 @@ public class MenuItem implements Serializable {
   private BigDecimal itemPrice;
   private Collection<MenuItemOption> allowedOptions = new LinkedList<>();
 
+  // A pooled sequence hands out a block of ids per database call, and unlike an identity column, it lets Hibernate
+  // batch the inserts. The allocationSize should match hibernate.jdbc.batch_size. Databases from before the sequence
+  // existed are brought up to date by IdSequenceMigration.
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menu_item_seq")
+  @SequenceGenerator(name = "menu_item_seq", sequenceName = "menu_item_seq", allocationSize = 50)
   public Integer getId() {
     return id;
   }
@@ -36,6 +43,19 @@ public class MenuItem implements Serializable {
     this.id = id;
   }
 
+  // Hibernate checks and increments this with every update, so a concurrent update fails instead of being lost. The
+  // default lets the schema update add the column to a table that already has rows.
+  @JsonIgnore
+  @Version
+  @Column(columnDefinition = "bigint default 0 not null")
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(final long version) {
+    this.version = version;
+  }
+
   public String getName() {
     return name;
   }
@@ -52,7 +72,9 @@ public class MenuItem implements Serializable {
     this.itemPrice = itemPrice;
   }
 
-  @OneToMany(mappedBy = "menuItem", targetEntity = MenuItemOption.class, cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+  // Lazy, so queries that don't need the options don't load them. The reads in MenuItemRepository fetch them in the
+  // same query as the items.
+  @OneToMany(mappedBy = "menuItem", targetEntity = MenuItemOption.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   public Collection<MenuItemOption> getAllowedOptions() {
     return allowedOptions;
   }
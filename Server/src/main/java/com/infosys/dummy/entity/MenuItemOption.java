@@ -24,6 +24,7 @@ import java.util.LinkedList;
 public class MenuItemOption implements Serializable {
   @Nullable
   private Integer id;
+  private long version;
   @Nullable
   private MenuItem menuItem;
   @NotNull
@@ -31,8 +32,10 @@ public class MenuItemOption implements Serializable {
   @NotEmpty
   private String name;
 
+  // See MenuItem.getId()
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menu_item_option_seq")
+  @SequenceGenerator(name = "menu_item_option_seq", sequenceName = "menu_item_option_seq", allocationSize = 50)
   @Nullable
   public Integer getId() {
     return id;
@@ -42,6 +45,18 @@ public class MenuItemOption implements Serializable {
     this.id = id;
   }
 
+  // See MenuItem.getVersion()
+  @JsonIgnore
+  @Version
+  @Column(columnDefinition = "bigint default 0 not null")
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(final long version) {
+    this.version = version;
+  }
+
   @SuppressWarnings("JpaDataSourceORMInspection")
   @JsonIgnore
   @ManyToOne(cascade = CascadeType.REMOVE)
@@ -0,0 +1,104 @@
+package com.infosys.dummy.entity;
+
+import org.jetbrains.annotations.Nullable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * A node of a placed order, as it was sent in an OrderNodeDto. The nodes of an order form a tree, through their
+ * parentIds, with the root at the top. The ids are plain columns, rather than relationships, so a menu item that's
+ * later taken off the menu doesn't take its orders with it. Like CustomerOrders, these are only written by
+ * OrderWriter.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "orderId"))
+public class OrderNode implements Serializable {
+  private Integer id;
+  private int orderId;
+  @Nullable
+  private Integer parentId;
+  @Nullable
+  private Integer menuItemId;
+  @Nullable
+  private Integer optionId;
+
+  // See CustomerOrder.getId()
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_node_seq")
+  @SequenceGenerator(name = "order_node_seq", sequenceName = "order_node_seq", allocationSize = 1)
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(final Integer id) {
+    this.id = id;
+  }
+
+  public int getOrderId() {
+    return orderId;
+  }
+
+  public void setOrderId(final int orderId) {
+    this.orderId = orderId;
+  }
+
+  /**
+   * Returns the id of the node above this one.
+   * @return the parent's id, or null for the root of the order
+   */
+  @Nullable
+  public Integer getParentId() {
+    return parentId;
+  }
+
+  public void setParentId(@Nullable final Integer parentId) {
+    this.parentId = parentId;
+  }
+
+  @Nullable
+  public Integer getMenuItemId() {
+    return menuItemId;
+  }
+
+  public void setMenuItemId(@Nullable final Integer menuItemId) {
+    this.menuItemId = menuItemId;
+  }
+
+  @Nullable
+  public Integer getOptionId() {
+    return optionId;
+  }
+
+  public void setOptionId(@Nullable final Integer optionId) {
+    this.optionId = optionId;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) { return true; }
+    if (!(o instanceof OrderNode)) { return false; } // implicitly checks for null
+
+    final OrderNode that = (OrderNode) o;
+
+    return (getId() != null) ? getId().equals(that.getId()) : (that.getId() == null);
+  }
+
+  @Override
+  public int hashCode() {
+    return (getId() != null) ? getId().hashCode() : 0;
+  }
+
+  @SuppressWarnings("HardCodedStringLiteral")
+  @Override
+  public String toString() {
+    //noinspection StringConcatenation,MagicCharacter
+    return "OrderNode{" +
+        "id=" + id +
+        ", orderId=" + orderId +
+        ", parentId=" + parentId +
+        ", menuItemId=" + menuItemId +
+        ", optionId=" + optionId +
+        '}';
+  }
+}
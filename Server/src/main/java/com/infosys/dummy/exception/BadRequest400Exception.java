@@ -12,6 +12,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class BadRequest400Exception extends ResponseException {
+	private static final String MISSING_OBJECT_MESSAGE = "Missing object";
+	private static final String EMPTY_VALUE_MESSAGE = "Null or empty value.";
+	private static final BadRequest400Exception MISSING_OBJECT = createShared(MISSING_OBJECT_MESSAGE);
+	private static final BadRequest400Exception EMPTY_VALUE = createShared(EMPTY_VALUE_MESSAGE);
 
 	public BadRequest400Exception(String message) {
 		super(message);
@@ -24,4 +28,28 @@ public class BadRequest400Exception extends ResponseException {
 	public BadRequest400Exception(Throwable t) {
 		super(t.getMessage(), t);
 	}
+
+	private BadRequest400Exception(String message, boolean enableSuppression, boolean writableStackTrace) {
+		super(message, enableSuppression, writableStackTrace);
+	}
+
+	private static BadRequest400Exception createShared(String message) {
+		return new BadRequest400Exception(message, false, false);
+	}
+
+	/**
+	 * Returns an exception for a missing object. In stackless mode, this is a shared instance.
+	 * @return A BadRequest400Exception with the message "Missing object"
+	 */
+	public static BadRequest400Exception missingObject() {
+		return isStackless() ? MISSING_OBJECT : new BadRequest400Exception(MISSING_OBJECT_MESSAGE);
+	}
+
+	/**
+	 * Returns an exception for a null or empty value. In stackless mode, this is a shared instance.
+	 * @return A BadRequest400Exception with the message "Null or empty value."
+	 */
+	public static BadRequest400Exception emptyValue() {
+		return isStackless() ? EMPTY_VALUE : new BadRequest400Exception(EMPTY_VALUE_MESSAGE);
+	}
 }
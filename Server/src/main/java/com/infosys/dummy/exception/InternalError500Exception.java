@@ -9,4 +9,8 @@ public class InternalError500Exception extends ResponseException {
     public InternalError500Exception(RuntimeException runtimeException) {
         super(runtimeException.getMessage(), runtimeException);
     }
+
+    public InternalError500Exception(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
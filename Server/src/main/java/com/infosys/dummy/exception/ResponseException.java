@@ -11,6 +11,11 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * 
  * All subclasses of this class must be annotated with the @ResponseStatus annotation with
  * an HttpStatus value, which will be incorporated into the message of this exception.
+ * 
+ * In stackless mode, exceptions with a status below 500 don't fill in their stack traces. These report bad requests,
+ * not bugs, so their stack traces never get logged anyway. Subclasses may also offer shared instances for common
+ * messages, which should only be used in stackless mode, since their stack traces would be wrong. Turn this mode on
+ * with the my-app.error.stackless property, which ResponseExceptionInitializer applies at startup.
  * <p>Created by IntelliJ IDEA.
  * <p>Date: 2/11/18
  * <p>Time: 4:02 PM
@@ -20,7 +25,17 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 public abstract class ResponseException extends RuntimeException {
 	// I don't like making this a RuntimeException, but I'm sticking to the APIs generated by swagger, which doesn't
 	// declare any exceptions, so this is what it has to be.
+	private static final ClassValue<HttpStatus> statusByClass = new ClassValue<HttpStatus>() {
+		@Override
+		protected HttpStatus computeValue(final Class<?> type) {
+			return extractStatus(type);
+		}
+	};
+
+	private static volatile boolean stackless = false;
+
 	private final HttpStatus httpStatus;
+	private String formattedMessage; // Lazily formatted. A race just formats it twice.
 
 	/**
 	 * Create a ResponseException with the specified status and error message.
@@ -29,7 +44,20 @@ public abstract class ResponseException extends RuntimeException {
 	 */
 	protected ResponseException(String message) {
 		super(clean(message));
-		httpStatus = extractStatus(getClass());
+		httpStatus = statusByClass.get(getClass());
+	}
+
+	/**
+	 * Create a ResponseException with the specified message, and the specified suppression and stack trace behavior.
+	 * Subclasses use this to create shared instances, which should have neither.
+	 *
+	 * @param message            the message
+	 * @param enableSuppression  whether suppression is enabled
+	 * @param writableStackTrace whether the stack trace should be writable
+	 */
+	protected ResponseException(String message, boolean enableSuppression, boolean writableStackTrace) {
+		super(clean(message), null, enableSuppression, writableStackTrace);
+		httpStatus = statusByClass.get(getClass());
 	}
 
 	/**
@@ -41,7 +69,7 @@ public abstract class ResponseException extends RuntimeException {
 	@SuppressWarnings("WeakerAccess")
 	public ResponseException(String message, Throwable cause) {
 		super(clean(message), cause);
-		httpStatus = extractStatus(getClass());
+		httpStatus = statusByClass.get(getClass());
 	}
 
 	/**
@@ -50,16 +78,47 @@ public abstract class ResponseException extends RuntimeException {
 	 */
 	public ResponseException(Throwable t) {
 		super(t);
-		httpStatus = extractStatus(getClass());
+		httpStatus = statusByClass.get(getClass());
+	}
+
+	/**
+	 * Turns stackless mode on or off. This only affects exceptions created afterwards.
+	 * @param stackless true to skip filling in the stack traces of exceptions with a status below 500
+	 */
+	public static void setStackless(boolean stackless) {
+		ResponseException.stackless = stackless;
+	}
+
+	public static boolean isStackless() {
+		return stackless;
+	}
+
+	/**
+	 * Skips the stack walk in stackless mode, for exceptions with a status below 500. This gets called from the
+	 * Throwable constructor, before httpStatus is set, so it looks up the status by class.
+	 * @return this
+	 */
+	@Override
+	public synchronized Throwable fillInStackTrace() {
+		if (stackless && (statusByClass.get(getClass()).value() < 500)) {
+			return this;
+		}
+		return super.fillInStackTrace();
 	}
 
 	@Override
 	public String getMessage() {
-		final String message = super.getMessage();
-		if (message.isEmpty()) {
-			return String.format("Code: %s %s", httpStatus, httpStatus.getReasonPhrase());
+		String result = formattedMessage;
+		if (result == null) {
+			final String message = super.getMessage();
+			if (message.isEmpty()) {
+				result = String.format("Code: %s %s", httpStatus, httpStatus.getReasonPhrase());
+			} else {
+				result = String.format("%s -- Code: %s %s", message, httpStatus, httpStatus.getReasonPhrase());
+			}
+			formattedMessage = result;
 		}
-		return String.format("%s -- Code: %s %s", message, httpStatus, httpStatus.getReasonPhrase());
+		return result;
 	}
 
 	@JsonIgnore
@@ -81,10 +140,9 @@ public abstract class ResponseException extends RuntimeException {
 	 * Return the value of the ResponseStatus annotation. Subclasses of this Exception class that aren't annotated
 	 * with @ResponseStatus will throw an exception the first time you try to use it.
 	 * @param exceptionClass The subclass of this class
-	 * @param <E> The subclass of this class
 	 * @return The HttpStatus value from the @ResponseStatus annotation
 	 */
-	private static <E extends ResponseException> HttpStatus extractStatus(Class<E> exceptionClass) {
+	private static HttpStatus extractStatus(Class<?> exceptionClass) {
 		ResponseStatus responseStatus = exceptionClass.getDeclaredAnnotation(ResponseStatus.class);
 		if (responseStatus == null) {
 			throw new IllegalStateException("Missing ResponseStatus annotation on subclass of ResponseException.");
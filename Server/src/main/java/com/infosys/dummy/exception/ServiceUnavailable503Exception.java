@@ -0,0 +1,9 @@
+package com.infosys.dummy.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailable503Exception extends ResponseException {
+  public ServiceUnavailable503Exception(String message) { super(message); }
+}
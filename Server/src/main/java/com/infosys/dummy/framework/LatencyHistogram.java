@@ -0,0 +1,106 @@
+package com.infosys.dummy.framework;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Records latencies for LatencyTimers, in an HdrHistogram, and reports their percentiles over a sliding window.
+ * <p>
+ * Recording is wait-free. The request threads write to the Recorder, which never locks, and to two LongAdders, for
+ * the count and the total. All the other work is done when the percentiles are read, by whoever reads them. The
+ * window is divided into three steps. When a step ends, the next read takes the Recorder's histogram for that step,
+ * and recomputes the window. So the percentiles cover the last two or three steps, and change once per step.
+ * <p>
+ * Latencies are kept in microseconds, to two significant digits, up to ten minutes. Longer ones count as ten minutes.
+ */
+final class LatencyHistogram {
+  private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+  private static final int SIGNIFICANT_DIGITS = 2;
+  private static final int STEPS = 3;
+  private static final double MICROS_PER_SECOND = 1.0e6;
+
+  private final Recorder recorder = new Recorder(1, HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final long stepNanos;
+  private final LongSupplier nanoClock;
+
+  // These are only used while reading, which is synchronized.
+  private final Histogram[] steps = new Histogram[STEPS];
+  private final Histogram window = new Histogram(1, HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+  private int currentStep = 0;
+  private long stepEnd;
+
+  /**
+   * @param windowNanos The length of the window
+   * @param nanoClock The source of the time, in nanoseconds
+   */
+  LatencyHistogram(long windowNanos, LongSupplier nanoClock) {
+    this.stepNanos = windowNanos / STEPS;
+    this.nanoClock = nanoClock;
+    stepEnd = nanoClock.getAsLong() + stepNanos;
+  }
+
+  void record(long nanos) {
+    count.increment();
+    totalNanos.add(nanos);
+    recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_MICROS));
+  }
+
+  /**
+   * @return The number of latencies ever recorded
+   */
+  long count() {
+    return count.sum();
+  }
+
+  /**
+   * @return The total of the latencies ever recorded, in nanoseconds
+   */
+  double totalNanos() {
+    return totalNanos.sum();
+  }
+
+  /**
+   * Returns a percentile over the window.
+   * @param phi The percentile, from 0.0 to 1.0
+   * @return The latency, in seconds, or 0.0 if there were no requests
+   */
+  synchronized double percentile(double phi) {
+    advance();
+    return window.getValueAtPercentile(phi * 100.0) / MICROS_PER_SECOND;
+  }
+
+  /**
+   * If a step has ended, takes what the Recorder holds as the next step. If more than one step ended since the last
+   * read, all of it counts as the latest step, and the others are empty.
+   */
+  private void advance() {
+    long now = nanoClock.getAsLong();
+    if ((now - stepEnd) < 0) {
+      return;
+    }
+    long emptySteps = Math.min((now - stepEnd) / stepNanos, STEPS - 1);
+    for (int i = 0; i < emptySteps; i++) {
+      currentStep = (currentStep + 1) % STEPS;
+      if (steps[currentStep] != null) {
+        steps[currentStep].reset();
+      }
+    }
+    currentStep = (currentStep + 1) % STEPS;
+    // This recycles the oldest step.
+    steps[currentStep] = recorder.getIntervalHistogram(steps[currentStep]);
+    stepEnd = now + stepNanos;
+
+    window.reset();
+    for (Histogram step : steps) {
+      if (step != null) {
+        window.add(step);
+      }
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package com.infosys.dummy.framework;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A family of latency meters with the same name, tagged by endpoint and status. The endpoint is the name of the
+ * controller method that handled the request, like getAll or addMenuItem, so there are only as many endpoints as
+ * there are controller methods, no matter what paths the clients make up.
+ * <p>
+ * Each endpoint and status gets a FunctionTimer, with the count and total time of all its requests, and a Gauge for
+ * each percentile, named with a .percentile suffix and tagged by phi, as Micrometer names them. The percentiles come
+ * from a LatencyHistogram, and cover a sliding window. Micrometer's own Timers can compute percentiles too, but they
+ * lock on every request, and cost several times as much to record.
+ * <p>
+ * The meters are created on first use, and kept, so recording a request doesn't build any tags.
+ */
+public final class LatencyTimers {
+  /**
+   * The endpoint of a request that no controller method handled.
+   */
+  public static final String UNMAPPED = "unmapped";
+
+  private final MeterRegistry meterRegistry;
+  private final String name;
+  private final String description;
+  private final double[] percentiles;
+  private final long windowNanos;
+  private final LongSupplier nanoClock;
+  private final Map<String, Map<Integer, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * @param meterRegistry The registry for the meters
+   * @param name The name of the meters
+   * @param description The description of the meters
+   * @param percentiles The percentiles to publish, from 0.0 to 1.0
+   * @param window How far back the percentiles go
+   */
+  public LatencyTimers(
+      MeterRegistry meterRegistry,
+      String name,
+      String description,
+      double[] percentiles,
+      Duration window
+  ) {
+    this(meterRegistry, name, description, percentiles, window, System::nanoTime);
+  }
+
+  LatencyTimers(
+      MeterRegistry meterRegistry,
+      String name,
+      String description,
+      double[] percentiles,
+      Duration window,
+      LongSupplier nanoClock
+  ) {
+    this.meterRegistry = meterRegistry;
+    this.name = name;
+    this.description = description;
+    this.percentiles = percentiles.clone();
+    this.windowNanos = window.toNanos();
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Records the latency of one request.
+   * @param endpoint The endpoint that handled it
+   * @param status The status of the response
+   * @param nanos How long it took, in nanoseconds
+   */
+  public void record(String endpoint, int status, long nanos) {
+    histogram(endpoint, status).record(nanos);
+  }
+
+  private LatencyHistogram histogram(String endpoint, int status) {
+    Map<Integer, LatencyHistogram> byStatus = histograms.get(endpoint);
+    if (byStatus == null) {
+      byStatus = histograms.computeIfAbsent(endpoint, e -> new ConcurrentHashMap<>());
+    }
+    LatencyHistogram histogram = byStatus.get(status);
+    if (histogram == null) {
+      histogram = byStatus.computeIfAbsent(status, s -> register(endpoint, s));
+    }
+    return histogram;
+  }
+
+  private LatencyHistogram register(String endpoint, int status) {
+    LatencyHistogram histogram = new LatencyHistogram(windowNanos, nanoClock);
+    Tags tags = Tags.of("endpoint", endpoint, "status", Integer.toString(status));
+    FunctionTimer.builder(name, histogram, LatencyHistogram::count, LatencyHistogram::totalNanos, TimeUnit.NANOSECONDS)
+        .description(description)
+        .tags(tags)
+        .register(meterRegistry);
+    for (double phi : percentiles) {
+      Gauge.builder(name + ".percentile", histogram, h -> h.percentile(phi))
+          .description(description)
+          .tags(tags)
+          .tag("phi", Double.toString(phi))
+          .baseUnit("seconds")
+          .register(meterRegistry);
+    }
+    return histogram;
+  }
+
+  /**
+   * Returns the endpoint of a request, from the handler that Spring MVC chose for it.
+   * @param handler The value of the HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE request attribute, which may be
+   *                null
+   * @return The name of the controller method, or {@link #UNMAPPED}
+   */
+  public static String endpointOf(Object handler) {
+    return (handler instanceof HandlerMethod) ? ((HandlerMethod) handler).getMethod().getName() : UNMAPPED;
+  }
+
+  /**
+   * Returns the endpoint of the request that the current thread is serving.
+   * @return The name of the controller method, or {@link #UNMAPPED}
+   */
+  public static String currentEndpoint() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes == null) {
+      return UNMAPPED;
+    }
+    return endpointOf(
+        attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+    );
+  }
+}
@@ -3,8 +3,11 @@ package com.infosys.dummy.framework;
 import com.infosys.dummy.exception.BadRequest400Exception;
 import com.infosys.dummy.exception.InternalError500Exception;
 import com.infosys.dummy.exception.ResponseException;
+import com.infosys.dummy.framework.util.WebUtils;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -13,6 +16,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.validation.ValidationException;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -27,6 +31,28 @@ public enum ResponseUtility {
   ;
   private static final Logger log = LoggerFactory.getLogger(ResponseUtility.class);
 
+  // Null until the application sets it, and again after it shuts down. Without it, nothing gets timed.
+  private static final AtomicReference<LatencyTimers> serviceTimers = new AtomicReference<>();
+
+  /**
+   * Sets the Timers for the service methods. Once these are set, serve() times each service method, by endpoint and
+   * status. This only covers the service method itself. ApiOriginFilter times the whole request.
+   * @param timers The Timers, or null to stop timing
+   */
+  public static void setServiceTimers(LatencyTimers timers) {
+    serviceTimers.set(timers);
+  }
+
+  /**
+   * Stops timing the service methods, if the specified Timers are still the ones in use. An application context
+   * calls this when it shuts down, so its Timers, and the MeterRegistry they hold, don't outlive it. If a newer
+   * context has already set Timers of its own, they're left alone.
+   * @param timers The Timers to stop using
+   */
+  public static void clearServiceTimers(LatencyTimers timers) {
+    serviceTimers.compareAndSet(timers, null);
+  }
+
   /**
    * <p>Serves a method to create an entity, using HttpStatus.CREATED as the response if successful. This method delegates
    * the work to serve(), but also translates the returned integer into a String. This is designed for endpoints that
@@ -67,6 +93,64 @@ public enum ResponseUtility {
     return serve(HttpStatus.OK, method);
   }
 
+  /**
+   * <p>Serve the data with an ETag, using HttpStatus.OK as the response if successful. This delegates the work to
+   * serve(), then computes the ETag of the result. If the client's If-None-Match header matches it, this returns
+   * HttpStatus.NOT_MODIFIED with no body. Otherwise, it adds the ETag to the response.</p>
+   * <p>The method is always called, so a missing entity still gets its 404, and the ETag always describes the data
+   * that would have been served. This means the method should be cheap, usually by reading from a cache.</p>
+   * @param <T>     The return type
+   * @param <S>     The type actually returned by the method
+   * @param request The request, which may hold an If-None-Match header
+   * @param method  The service method that does the work of the service, and returns an instance of type S
+   * @param eTagOf  Computes the ETag of the value returned by the method, including the quotes
+   * @return A {@literal ResponseEntity<T>} holding the value returned by the method, or an empty NOT_MODIFIED response
+   * @throws ResponseException if the method fails
+   * @see #serve(HttpStatus, Supplier)
+   * @see WebUtils#matchesIfNoneMatch(String, String)
+   */
+  public static <T, S extends T> ResponseEntity<T> serveOKIfModified(
+      NativeWebRequest request,
+      Supplier<S> method,
+      Function<? super S, String> eTagOf
+  ) throws ResponseException {
+    ResponseEntity<S> responseEntity = serve(HttpStatus.OK, method);
+    S body = responseEntity.getBody();
+    String eTag = eTagOf.apply(body);
+    if (WebUtils.matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+    return ResponseEntity.status(responseEntity.getStatusCode()).eTag(eTag).body(body);
+  }
+
+  /**
+   * <p>Serve the data with an ETag, like {@link #serveOKIfModified(NativeWebRequest, Supplier, Function)}, but first
+   * check the client's If-None-Match header against the current ETag, if the caller knows it. If they match, this
+   * returns HttpStatus.NOT_MODIFIED without calling the method at all. Otherwise, this calls the method, and checks
+   * again against the ETag of its result.</p>
+   * <p>Only use this where the method can't fail with a 404, since a client with a matching ETag never reaches it.</p>
+   * @param <T>         The return type
+   * @param <S>         The type actually returned by the method
+   * @param request     The request, which may hold an If-None-Match header
+   * @param currentETag The ETag the method would return now, including the quotes, or null if it's not known
+   * @param method      The service method that does the work of the service, and returns an instance of type S
+   * @param eTagOf      Computes the ETag of the value returned by the method, including the quotes
+   * @return A {@literal ResponseEntity<T>} holding the value returned by the method, or an empty NOT_MODIFIED response
+   * @throws ResponseException if the method fails
+   */
+  public static <T, S extends T> ResponseEntity<T> serveOKIfModified(
+      NativeWebRequest request,
+      @Nullable String currentETag,
+      Supplier<S> method,
+      Function<? super S, String> eTagOf
+  ) throws ResponseException {
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if ((currentETag != null) && WebUtils.matchesIfNoneMatch(ifNoneMatch, currentETag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag).build();
+    }
+    return serveOKIfModified(request, method, eTagOf);
+  }
+
   /**
    * <p>Serve the data, specifying the HttpStatus to be used if successful, and a ServiceMethod to execute, which 
    * will usually be written as a lambda expression by the calling method. This will call the ServiceMethod's
@@ -105,6 +189,26 @@ public enum ResponseUtility {
    * @see ResponseException
    */
   public static <T> ResponseEntity<T> serve(HttpStatus successStatus, Supplier<T> method) throws ResponseException {
+    LatencyTimers timers = serviceTimers.get();
+    if (timers == null) {
+      return invoke(successStatus, method);
+    }
+    long start = System.nanoTime();
+    int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+    try {
+      ResponseEntity<T> responseEntity = invoke(successStatus, method);
+      status = successStatus.value();
+      return responseEntity;
+    } catch (ResponseException e) {
+      status = e.getStatusCode();
+      throw e;
+    } finally {
+      long nanos = System.nanoTime() - start;
+      timers.record(LatencyTimers.currentEndpoint(), status, nanos);
+    }
+  }
+
+  private static <T> ResponseEntity<T> invoke(HttpStatus successStatus, Supplier<T> method) throws ResponseException {
     try {
       return new ResponseEntity<>(method.get(), successStatus);
     } catch (ResponseException e) {
@@ -0,0 +1,161 @@
+package com.infosys.dummy.framework.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A compiled ReplaceChain of literal Strings. This finds all the literals in a single pass, with an Aho-Corasick
+ * automaton. At each position, it picks the first literal, in the order of the chain, that matches there, and skips
+ * past it. So the result is the same as that of a regular expression that has one alternative for each literal.
+ * <p>
+ * The automaton finds matches by where they end, so a match is only replaced once no longer match could still start
+ * at the same position or earlier.
+ */
+final class AhoCorasickReplacer implements ReplaceChain.Compiled {
+  private final Node root = new Node(0);
+  private final String[] replacements;
+
+  AhoCorasickReplacer(List<String> literals, List<String> replacements) {
+    this.replacements = replacements.toArray(new String[0]);
+    for (int i = 0; i < literals.size(); i++) {
+      add(literals.get(i), i);
+    }
+    linkFailures();
+  }
+
+  private void add(String literal, int index) {
+    Node node = root;
+    for (int i = 0; i < literal.length(); i++) {
+      node = node.childOrCreate(literal.charAt(i));
+    }
+    if (node.match < 0) {
+      node.match = index; // For duplicates, the first one wins.
+    }
+  }
+
+  /**
+   * Sets each node's failure link, to the node for its longest proper suffix, and its output link, to the nearest node
+   * along its failure links that ends a literal. This goes breadth first, so each node's failure link is already
+   * set when its children need it.
+   */
+  private void linkFailures() {
+    Deque<Node> queue = new ArrayDeque<>();
+    for (Node child : root.children) {
+      child.fail = root;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      Node node = queue.remove();
+      for (int i = 0; i < node.keys.length; i++) {
+        char c = node.keys[i];
+        Node child = node.children[i];
+        Node fail = node.fail;
+        while ((fail != root) && (fail.child(c) == null)) {
+          fail = fail.fail;
+        }
+        Node target = fail.child(c);
+        child.fail = (target == null) ? root : target;
+        child.output = (child.fail.match >= 0) ? child.fail : child.fail.output;
+        queue.add(child);
+      }
+    }
+  }
+
+  @Override
+  public String apply(String text) {
+    StringBuilder out = null;
+    int emitted = 0;
+    int matchStart = -1;
+    int matchEnd = 0;
+    int matchIndex = 0;
+    Node state = root;
+    final int length = text.length();
+    int i = 0;
+    while (true) {
+      boolean atEnd = i >= length;
+      if (!atEnd) {
+        state = step(state, text.charAt(i));
+        i++;
+        for (Node node = (state.match >= 0) ? state : state.output; node != null; node = node.output) {
+          int start = i - node.depth;
+          if ((matchStart < 0) || (start < matchStart) || ((start == matchStart) && (node.match < matchIndex))) {
+            matchStart = start;
+            matchEnd = i;
+            matchIndex = node.match;
+          }
+        }
+      }
+      // Any match still in progress starts at i - state.depth or later.
+      if ((matchStart >= 0) && (atEnd || (matchStart < (i - state.depth)))) {
+        if (out == null) {
+          out = ReplaceChain.borrowBuilder();
+        }
+        out.append(text, emitted, matchStart).append(replacements[matchIndex]);
+        // Resume right after the match, since we may have already read past it.
+        emitted = matchEnd;
+        i = matchEnd;
+        matchStart = -1;
+        state = root;
+      } else if (atEnd) {
+        break;
+      }
+    }
+    if (out == null) {
+      return text;
+    }
+    out.append(text, emitted, length);
+    return ReplaceChain.finish(out);
+  }
+
+  private Node step(Node state, char c) {
+    while (true) {
+      Node next = state.child(c);
+      if (next != null) {
+        return next;
+      }
+      if (state == root) {
+        return root;
+      }
+      state = state.fail;
+    }
+  }
+
+  private static final class Node {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final int depth;
+    private char[] keys = NO_KEYS;
+    private Node[] children = NO_CHILDREN;
+    private Node fail;
+    private Node output;
+    private int match = -1; // The index of the literal that ends here
+
+    Node(int depth) {
+      this.depth = depth;
+    }
+
+    Node child(char c) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] == c) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    Node childOrCreate(char c) {
+      Node child = child(c);
+      if (child == null) {
+        child = new Node(depth + 1);
+        keys = Arrays.copyOf(keys, keys.length + 1);
+        children = Arrays.copyOf(children, children.length + 1);
+        keys[keys.length - 1] = c;
+        children[children.length - 1] = child;
+      }
+      return child;
+    }
+  }
+}
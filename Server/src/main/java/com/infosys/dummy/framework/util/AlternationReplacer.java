@@ -0,0 +1,299 @@
+package com.infosys.dummy.framework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled ReplaceChain with at least one regular expression. The patterns are combined into a single expression,
+ * with one capturing group around each pattern, so a single pass finds them all, and the group that matched tells
+ * which one it was. Literal Strings are quoted, and each expression keeps its own flags.
+ * <p>
+ * The replacements follow the rules of Matcher.replaceAll(), but their group numbers are parsed here, at compile
+ * time, and shifted to match the groups of the combined expression. Numbered back references inside the patterns,
+ * like {@code \1}, are shifted the same way. Named ones, like {@code \k<name>}, still work, since group names are
+ * unique across the chain.
+ */
+final class AlternationReplacer implements ReplaceChain.Compiled {
+  private final Pattern combined;
+  private final int[] alternativeGroups; // The group around each pattern
+  private final Part[][] replacements;
+
+  AlternationReplacer(List<Object> patterns, List<String> replacementList) {
+    StringBuilder expression = new StringBuilder();
+    alternativeGroups = new int[patterns.size()];
+    replacements = new Part[patterns.size()][];
+    int group = 1;
+    for (int i = 0; i < patterns.size(); i++) {
+      Object pattern = patterns.get(i);
+      if (i > 0) {
+        expression.append('|');
+      }
+      alternativeGroups[i] = group;
+      int groupCount;
+      if (pattern instanceof String) {
+        expression.append('(').append(Pattern.quote((String) pattern)).append(')');
+        groupCount = 0;
+        replacements[i] = new Part[] { Part.literal(replacementList.get(i)) };
+      } else {
+        Pattern regex = (Pattern) pattern;
+        expression.append('(');
+        appendWithFlags(expression, regex, group);
+        expression.append(')');
+        groupCount = regex.matcher("").groupCount();
+        replacements[i] = parseReplacement(replacementList.get(i), group, groupCount);
+      }
+      group += 1 + groupCount;
+    }
+    combined = Pattern.compile(expression.toString());
+  }
+
+  @Override
+  public String apply(String text) {
+    Matcher matcher = combined.matcher(text);
+    if (!matcher.find()) {
+      return text;
+    }
+    StringBuilder out = ReplaceChain.borrowBuilder();
+    int emitted = 0;
+    do {
+      out.append(text, emitted, matcher.start());
+      for (Part part : replacements[alternative(matcher)]) {
+        part.appendTo(out, matcher);
+      }
+      emitted = matcher.end();
+    } while (matcher.find());
+    out.append(text, emitted, text.length());
+    return ReplaceChain.finish(out);
+  }
+
+  private int alternative(Matcher matcher) {
+    int i = 0;
+    while (matcher.start(alternativeGroups[i]) < 0) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Appends an expression as a non-capturing group, with its flags inline, like (?i:abc) so they still apply inside
+   * the combined expression.
+   * @param expression The combined expression
+   * @param regex The expression to append
+   * @param outerGroup The group around the expression, in the combined expression
+   */
+  private static void appendWithFlags(StringBuilder expression, Pattern regex, int outerGroup) {
+    int flags = regex.flags();
+    if ((flags & Pattern.CANON_EQ) != 0) {
+      throw new IllegalArgumentException("CANON_EQ can't be combined with other patterns: " + regex);
+    }
+    expression.append("(?");
+    appendFlag(expression, flags, Pattern.CASE_INSENSITIVE, 'i');
+    appendFlag(expression, flags, Pattern.UNIX_LINES, 'd');
+    appendFlag(expression, flags, Pattern.MULTILINE, 'm');
+    appendFlag(expression, flags, Pattern.DOTALL, 's');
+    appendFlag(expression, flags, Pattern.UNICODE_CASE, 'u');
+    appendFlag(expression, flags, Pattern.COMMENTS, 'x');
+    appendFlag(expression, flags, Pattern.UNICODE_CHARACTER_CLASS, 'U');
+    expression.append(':');
+    if ((flags & Pattern.LITERAL) != 0) {
+      expression.append(Pattern.quote(regex.pattern())); // There's no inline flag for this.
+    } else {
+      appendShiftingBackReferences(expression, regex.pattern(), outerGroup);
+      if ((flags & Pattern.COMMENTS) != 0) {
+        expression.append('\n'); // In case it ends with a comment
+      }
+    }
+    expression.append(')');
+  }
+
+  /**
+   * Appends an expression, with its numbered back references shifted by the number of the group around it. A back
+   * reference is read the way Pattern reads it: The first digit always counts, and each digit after that counts if
+   * the number it makes isn't more than the number of groups opened so far. Each shifted reference is wrapped in a
+   * non-capturing group, so a digit that follows it can't be read as part of it. Quoted text, and character classes,
+   * which can't hold back references, are copied as they are.
+   * @param expression The combined expression
+   * @param pattern The expression to append
+   * @param outerGroup The group around the expression, in the combined expression
+   */
+  static void appendShiftingBackReferences(StringBuilder expression, String pattern, int outerGroup) {
+    int groupsOpened = 0;
+    int classDepth = 0;
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      if ((c == '\\') && ((i + 1) < pattern.length())) {
+        char next = pattern.charAt(i + 1);
+        if (next == 'Q') {
+          int end = pattern.indexOf("\\E", i + 2);
+          end = (end < 0) ? pattern.length() : (end + 2);
+          expression.append(pattern, i, end);
+          i = end;
+        } else if ((classDepth == 0) && (next >= '1') && (next <= '9')) {
+          int number = next - '0';
+          i += 2;
+          while ((i < pattern.length()) && Character.isDigit(pattern.charAt(i))
+              && (((number * 10) + (pattern.charAt(i) - '0')) <= groupsOpened)) {
+            number = (number * 10) + (pattern.charAt(i) - '0');
+            i++;
+          }
+          expression.append("(?:\\").append(outerGroup + number).append(')');
+        } else {
+          expression.append(c).append(next);
+          i += 2;
+        }
+        continue;
+      }
+      if (c == '[') {
+        classDepth++;
+      } else if ((c == ']') && (classDepth > 0)) {
+        classDepth--;
+      } else if ((c == '(') && (classDepth == 0) && isCapturing(pattern, i + 1)) {
+        groupsOpened++;
+      }
+      expression.append(c);
+      i++;
+    }
+  }
+
+  /**
+   * Tells whether a group is a capturing group, from what follows its opening parenthesis: Anything but a question
+   * mark, or a name, as in (?&lt;name&gt;...), but not a lookbehind, as in (?&lt;=...) or (?&lt;!...).
+   */
+  private static boolean isCapturing(String pattern, int i) {
+    if ((i >= pattern.length()) || (pattern.charAt(i) != '?')) {
+      return true;
+    }
+    return ((i + 2) < pattern.length()) && (pattern.charAt(i + 1) == '<') && Character.isLetter(pattern.charAt(i + 2));
+  }
+
+  private static void appendFlag(StringBuilder expression, int flags, int flag, char c) {
+    if ((flags & flag) != 0) {
+      expression.append(c);
+    }
+  }
+
+  /**
+   * Expands the replacement for an expression that only matches a literal, so the replacement can be used literally.
+   * @param replacement The replacement, as for Matcher.replaceAll()
+   * @param literal The literal that the expression matches
+   * @return The replacement, with its escapes removed and its references to group 0 filled in
+   */
+  static String expandLiteralReplacement(String replacement, String literal) {
+    StringBuilder expanded = new StringBuilder();
+    for (Part part : parseReplacement(replacement, 0, 0)) {
+      if (part.group < 0) {
+        expanded.append(part.text);
+      } else if (part.text == null) {
+        expanded.append(literal);
+      } else {
+        throw new IllegalArgumentException("No group with name {" + part.text + '}');
+      }
+    }
+    return expanded.toString();
+  }
+
+  /**
+   * Parses a replacement the way Matcher.appendReplacement() does. A backslash escapes the next character, $n refers
+   * to group n, taking as many digits as still make a valid group number, and ${name} refers to a named group.
+   * @param replacement The replacement
+   * @param outerGroup The group around the pattern, in the combined expression
+   * @param groupCount The number of groups in the pattern
+   * @return The parts of the replacement
+   */
+  private static Part[] parseReplacement(String replacement, int outerGroup, int groupCount) {
+    List<Part> parts = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int i = 0;
+    while (i < replacement.length()) {
+      char c = replacement.charAt(i++);
+      if (c == '\\') {
+        if (i == replacement.length()) {
+          throw new IllegalArgumentException("character to be escaped is missing");
+        }
+        literal.append(replacement.charAt(i++));
+      } else if (c == '$') {
+        if (i == replacement.length()) {
+          throw new IllegalArgumentException("Illegal group reference: group index is missing");
+        }
+        if (literal.length() > 0) {
+          parts.add(Part.literal(literal.toString()));
+          literal.setLength(0);
+        }
+        if (replacement.charAt(i) == '{') {
+          int end = replacement.indexOf('}', i);
+          if (end < 0) {
+            throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+          }
+          parts.add(Part.namedGroup(replacement.substring(i + 1, end)));
+          i = end + 1;
+        } else {
+          int number = Character.digit(replacement.charAt(i), 10);
+          if (number < 0) {
+            throw new IllegalArgumentException("Illegal group reference");
+          }
+          if (number > groupCount) {
+            throw new IndexOutOfBoundsException("No group " + number);
+          }
+          i++;
+          while (i < replacement.length()) {
+            int digit = Character.digit(replacement.charAt(i), 10);
+            if ((digit < 0) || (((number * 10) + digit) > groupCount)) {
+              break;
+            }
+            number = (number * 10) + digit;
+            i++;
+          }
+          parts.add(Part.group(outerGroup + number)); // Group 0 is the whole match, which is the outer group.
+        }
+      } else {
+        literal.append(c);
+      }
+    }
+    if (literal.length() > 0) {
+      parts.add(Part.literal(literal.toString()));
+    }
+    return parts.toArray(new Part[0]);
+  }
+
+  /**
+   * A piece of a replacement: literal text, or a reference to a group, by number or by name.
+   */
+  private static final class Part {
+    private final String text;
+    private final int group;
+
+    private Part(String text, int group) {
+      this.text = text;
+      this.group = group;
+    }
+
+    static Part literal(String text) {
+      return new Part(text, -1);
+    }
+
+    static Part group(int group) {
+      return new Part(null, group);
+    }
+
+    static Part namedGroup(String name) {
+      return new Part(name, 0);
+    }
+
+    void appendTo(StringBuilder out, Matcher matcher) {
+      String value;
+      if (group < 0) {
+        value = text;
+      } else if (text == null) {
+        value = matcher.group(group);
+      } else {
+        value = matcher.group(text);
+      }
+      if (value != null) {
+        out.append(value);
+      }
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.infosys.dummy.framework.util;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,4 +35,28 @@ public enum WebUtils {
     return uri;
   }
 
+  /**
+   * Tests an If-None-Match header against the current ETag of a resource. This uses the weak comparison that
+   * RFC 7232 specifies for If-None-Match, so a W/ prefix on either tag is ignored. A header of * matches any ETag.
+   * @param ifNoneMatch The value of the If-None-Match header, which may be null or may hold a list of ETags
+   * @param eTag The current ETag of the resource, including the quotes
+   * @return true if the client's copy is current, and should get a 304 (Not Modified) response
+   */
+  public static boolean matchesIfNoneMatch(@Nullable String ifNoneMatch, String eTag) {
+    if ((ifNoneMatch == null) || ifNoneMatch.isEmpty()) {
+      return false;
+    }
+    String opaqueTag = stripWeakPrefix(eTag);
+    for (String candidate : ifNoneMatch.split(",")) {
+      String trimmed = candidate.trim();
+      if ("*".equals(trimmed) || stripWeakPrefix(trimmed).equals(opaqueTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripWeakPrefix(String eTag) {
+    return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+  }
 }
@@ -0,0 +1,89 @@
+package com.infosys.dummy.repository;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.SequenceGenerator;
+import java.util.Locale;
+
+/**
+ * Moves the id sequences of the menu tables past the ids already in use. MenuItems and MenuItemOptions used to take
+ * their ids from the shared hibernate_sequence. They now have sequences of their own, which Hibernate creates
+ * starting at 1, so in a database from before the change, they would hand out ids that are already taken.
+ * <p>
+ * This runs at startup, after Hibernate has updated the schema, and before the server takes any requests. It only
+ * changes a sequence that's behind, so after the first run, it just reads two numbers per table.
+ * <p>
+ * Each sequence is pooled, so the first value it returns is the top of a block of allocationSize ids. (See
+ * MenuItem.getId().) That's why it restarts a full block past the highest id, not just one past it.
+ */
+@Component
+public class IdSequenceMigration implements InitializingBean {
+  private static final Logger log = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+  // H2 keeps names in upper case. BASE_VALUE is the next value the sequence will return.
+  private static final String NEXT_VALUE
+      = "select base_value from information_schema.sequences where sequence_name = upper(?)";
+  private static final String MAX_ID = "select max(id) from %s";
+  private static final String RESTART = "alter sequence %s restart with %d";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * The EntityManagerFactory isn't used, but it makes Spring finish updating the schema before this runs.
+   */
+  @Autowired
+  public IdSequenceMigration(
+      final JdbcTemplate jdbcTemplate,
+      final PlatformTransactionManager transactionManager,
+      @SuppressWarnings("unused") final EntityManagerFactory entityManagerFactory
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    transactionTemplate.executeWithoutResult(status -> {
+      migrate(MenuItem.class, "menu_item");
+      migrate(MenuItemOption.class, "menu_item_option");
+    });
+  }
+
+  private void migrate(Class<?> entityClass, String table) {
+    SequenceGenerator generator = getSequenceGenerator(entityClass);
+    String sequence = generator.sequenceName().toLowerCase(Locale.ROOT);
+    Long maxId = jdbcTemplate.queryForObject(String.format(MAX_ID, table), Long.class);
+    Long nextValue = jdbcTemplate.queryForObject(NEXT_VALUE, Long.class, sequence);
+    if ((maxId == null) || (nextValue == null)) {
+      return; // The table is empty, or there's no sequence to fix.
+    }
+    long restartValue = maxId + generator.allocationSize();
+    if (nextValue < restartValue) {
+      log.info("Restarting {} at {}, past the highest id in {}, {}", sequence, restartValue, table, maxId);
+      jdbcTemplate.execute(String.format(RESTART, sequence, restartValue));
+    }
+  }
+
+  private static SequenceGenerator getSequenceGenerator(Class<?> entityClass) {
+    try {
+      SequenceGenerator generator = entityClass.getMethod("getId").getAnnotation(SequenceGenerator.class);
+      if (generator == null) {
+        throw new IllegalStateException(entityClass.getSimpleName() + ".getId() has no SequenceGenerator");
+      }
+      return generator;
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -3,8 +3,13 @@ package com.infosys.dummy.repository;
 import com.infosys.dummy.entity.MenuItemOption;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * <p>Created by IntelliJ IDEA.
@@ -16,12 +21,33 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface MenuItemOptionRepository extends JpaRepository<MenuItemOption, Integer> {
     String MENU_ITEM_CACHE = MenuItemRepository.MENU_ITEM_CACHE;
+    String MENU_ITEM_DTO_CACHE = MenuItemRepository.MENU_ITEM_DTO_CACHE;
 
     @Override
-    @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true)
+    @Caching(evict = {
+        @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true),
+        @CacheEvict(cacheNames = MENU_ITEM_DTO_CACHE, key = "#p0.menuItem.id", condition = "#p0.menuItem != null")
+    })
     <MIO extends MenuItemOption> @NotNull MIO save(@NotNull MIO option);
 
     @Override
-    @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true)
+    @Caching(evict = {
+        @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true),
+        @CacheEvict(cacheNames = MENU_ITEM_DTO_CACHE, key = "#p0.menuItem.id", condition = "#p0.menuItem != null")
+    })
     void delete(@NotNull MenuItemOption optionToDelete);
+
+    /**
+     * Deletes a MenuItemOption in a single statement, without loading it first, and returns the id of the MenuItem
+     * it belonged to. This uses H2's data change delta tables, which return the deleted row. Since it bypasses the
+     * persistence context, it doesn't cascade to the MenuItem, and it doesn't evict anything from the caches. The
+     * caller must do that.
+     * @param optionId The id of the MenuItemOption
+     * @return A list with the id of the MenuItem as its only element, which is null if the option had no MenuItem, or
+     * an empty list if there was no such MenuItemOption
+     */
+    @Transactional
+    @Query(nativeQuery = true,
+        value = "select menu_item_id from old table (delete from menu_item_option where id = ?1)")
+    List<Integer> deleteByIdReturningMenuItemId(@NotNull Integer optionId);
 }
\ No newline at end of file
@@ -4,12 +4,21 @@ import com.infosys.dummy.entity.MenuItem;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
+ * The allowedOptions of a MenuItem are loaded lazily, so the reads here fetch them along with the items, in a single
+ * query. This lets callers use the options after the transaction has ended.
  * <p>Created by IntelliJ IDEA.
  * <p>Date: 2/20/18
  * <p>Time: 12:03 AM
@@ -18,17 +27,81 @@ import java.util.List;
  */
 @Repository
 public interface MenuItemRepository extends JpaRepository<MenuItem, Integer> {
+  /** Holds the full menu: the list of all MenuItems, and the MenuSnapshot built from it. */
   String MENU_ITEM_CACHE = "menuItems";
 
+  /** Holds individual MenuItemDtos, keyed by the MenuItem id. */
+  String MENU_ITEM_DTO_CACHE = "menuItemDtos";
+
+  /**
+   * The distinct keeps the fetch join from returning an item once for each of its options. The hint keeps it out of
+   * the SQL, since Hibernate removes the duplicates itself.
+   */
+  String FIND_ALL_WITH_OPTIONS = "select distinct m from MenuItem m left join fetch m.allowedOptions order by m.id";
+  String PASS_DISTINCT_THROUGH = "hibernate.query.passDistinctThrough";
+
   @Override
   @Cacheable(cacheNames = MENU_ITEM_CACHE)
+  @Query(FIND_ALL_WITH_OPTIONS)
+  @QueryHints(@QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
   @NotNull List<MenuItem> findAll();
 
+  /**
+   * Reads all the MenuItems, with their options, ordered by id, without using the cache.
+   * @return All the MenuItems
+   */
+  @Query(FIND_ALL_WITH_OPTIONS)
+  @QueryHints(@QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
+  @NotNull List<MenuItem> findAllWithOptions();
+
+  /**
+   * Streams all the MenuItems, with their options, ordered by id, without using the cache. Hibernate scrolls through
+   * the results, assembling each MenuItem from its rows as it goes, so the whole menu is never in memory at once. This
+   * must be called inside a transaction, and the Stream must be closed.
+   * @return All the MenuItems
+   */
+  @Query("select m from MenuItem m left join fetch m.allowedOptions order by m.id")
+  @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "100"))
+  Stream<MenuItem> streamAllWithOptions();
+
   @Override
-  @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true)
+  @EntityGraph(attributePaths = "allowedOptions")
+  @NotNull Optional<MenuItem> findById(@NotNull Integer id);
+
+  // The id is null before a new item gets saved, but the key is evaluated after the save, when the id is set.
+  @Override
+  @Caching(evict = {
+      @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true),
+      @CacheEvict(cacheNames = MENU_ITEM_DTO_CACHE, key = "#p0.id", condition = "#p0.id != null")
+  })
   <M extends MenuItem> @NotNull M save(@NotNull M menuItem);
 
   @Override
-  @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true)
+  @Caching(evict = {
+      @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true),
+      @CacheEvict(cacheNames = MENU_ITEM_DTO_CACHE, key = "#p0.id", condition = "#p0.id != null")
+  })
   <S extends MenuItem> @NotNull S saveAndFlush(@NotNull S s);
+
+  @Override
+  @Caching(evict = {
+      @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true),
+      @CacheEvict(cacheNames = MENU_ITEM_DTO_CACHE, key = "#p0.id", condition = "#p0.id != null")
+  })
+  void delete(@NotNull MenuItem menuItem);
+
+  /**
+   * Evicts the full menu from the cache. This is for changes that don't go through save() or delete(), like a bulk
+   * import. It doesn't touch the database.
+   */
+  @CacheEvict(cacheNames = MENU_ITEM_CACHE, allEntries = true)
+  default void evictMenu() { }
+
+  /**
+   * Evicts a single MenuItemDto from the cache. This is for changes that the entity being saved doesn't know about,
+   * like moving a MenuItemOption away from its previous MenuItem. It doesn't touch the database.
+   * @param menuItemId The id of the MenuItem whose DTO is out of date
+   */
+  @CacheEvict(cacheNames = MENU_ITEM_DTO_CACHE, key = "#p0")
+  default void evictMenuItemDto(@NotNull Integer menuItemId) { }
 }
@@ -1,78 +1,266 @@
 package com.infosys.dummy.server;
 
-import com.infosys.dummy.framework.util.ReplaceChain;
+import com.infosys.dummy.framework.LatencyTimers;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.catalina.connector.RequestFacade;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
-import java.util.regex.Pattern;
+import java.util.HashSet;
+import java.util.Set;
 
+/**
+ * Logs requests at the debug level, times them, and handles cross-origin requests.
+ * <p>
+ * Preflight requests, which are OPTIONS requests with an Origin and an Access-Control-Request-Method header, are
+ * answered here, without going through Spring MVC. If the origin and the method are allowed, the response has the
+ * allowed methods and headers, and an Access-Control-Max-Age header, which lets the browser skip the preflight for the
+ * same request until then. Otherwise, it's a 403 (Forbidden). Other requests from allowed origins get an
+ * Access-Control-Allow-Origin header. (See CorsProperties.)
+ * <p>
+ * Unless every origin is allowed, the allowed origin is echoed back, so every response varies by Origin.
+ * <p>
+ * Every request is timed, from the moment it gets here until the response is written, in the api.requests Timers,
+ * tagged by endpoint and status. The endpoint is the controller method that handled the request, or preflight for
+ * the preflight requests answered here. Asynchronous requests are timed when their responses are complete. (See
+ * LatencyTimers.)
+ */
 @Component
 public class ApiOriginFilter implements javax.servlet.Filter {
   private static final Logger log = LoggerFactory.getLogger(ApiOriginFilter.class);
 
-  public ApiOriginFilter() {
+  private static final String ORIGIN = "Origin";
+  private static final String VARY = "Vary";
+  private static final String ALLOW_ORIGIN = "Access-Control-Allow-Origin";
+  private static final String ALLOW_METHODS = "Access-Control-Allow-Methods";
+  private static final String ALLOW_HEADERS = "Access-Control-Allow-Headers";
+  private static final String MAX_AGE = "Access-Control-Max-Age";
+  private static final String REQUEST_METHOD = "Access-Control-Request-Method";
+  private static final String OPTIONS = "OPTIONS";
+  private static final String PREFLIGHT_ENDPOINT = "preflight";
+
+  private final boolean anyOrigin;
+  private final Set<String> allowedOrigins;
+  private final Set<String> allowedMethods;
+
+  // These are the same on every response, so they are assembled once.
+  private final String allowMethodsValue;
+  private final String allowHeadersValue;
+  private final String maxAgeValue;
+
+  private final RequestLogQueue requestLogQueue = new RequestLogQueue(log);
+  private final LatencyTimers requestTimers;
+
+  @Autowired
+  public ApiOriginFilter(
+      CorsProperties corsProperties,
+      LatencyProperties latencyProperties,
+      MeterRegistry meterRegistry
+  ) {
     log.trace("Instantiating ApiOriginFilter");
+    requestTimers = latencyProperties.createTimers(
+        meterRegistry,
+        "api.requests",
+        "Requests, from the filter to the response"
+    );
+    anyOrigin = corsProperties.getAllowedOrigins().contains(CorsProperties.ANY_ORIGIN);
+    allowedOrigins = new HashSet<>(corsProperties.getAllowedOrigins());
+    allowedMethods = new HashSet<>(corsProperties.getAllowedMethods());
+    allowMethodsValue = String.join(", ", corsProperties.getAllowedMethods());
+    allowHeadersValue = String.join(", ", corsProperties.getAllowedHeaders());
+    maxAgeValue = Long.toString(corsProperties.getMaxAge().getSeconds());
   }
 
   @Override
   public void doFilter(ServletRequest request, ServletResponse response,
                        FilterChain chain) throws IOException, ServletException {
+    long start = System.nanoTime();
+    boolean preflight = false;
+    boolean async = false;
+    int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    try {
+      preflight = filter(request, response, chain);
+      async = request.isAsyncStarted();
+      status = ((HttpServletResponse) response).getStatus();
+    } finally {
+      if (async) {
+        // Another thread finishes the response, so it gets timed when it's complete.
+        request.getAsyncContext().addListener(new AsyncTimer(start));
+      } else {
+        record(request, preflight, status, start);
+      }
+    }
+  }
+
+  private void record(ServletRequest request, boolean preflight, int status, long start) {
+    long nanos = System.nanoTime() - start;
+    String endpoint = preflight
+        ? PREFLIGHT_ENDPOINT
+        : LatencyTimers.endpointOf(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE));
+    requestTimers.record(endpoint, status, nanos);
+  }
+
+  /**
+   * Does the work of the filter.
+   * @return true if this was a preflight request, which got answered here
+   */
+  private boolean filter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    HttpServletRequest httpRequest = (HttpServletRequest) request;
     HttpServletResponse httpResponse = (HttpServletResponse) response;
     if (log.isDebugEnabled()) {
-      if (request instanceof RequestFacade) {
-        RequestFacade facade = (RequestFacade) request;
-        String method = facade.getMethod();
-        log.debug("RF Request URI: {} {}", method, charFilter(facade.getRequestURI()));
-      } else if (request instanceof HttpServletRequestWrapper) {
-        HttpServletRequest hsr = (HttpServletRequest) ((HttpServletRequestWrapper)request).getRequest();
-        log.debug("HW Request URI: {} {}", hsr.getMethod(), hsr.getRequestURI());
-      } else if ((request instanceof ServletRequestWrapper)
-              && (((ServletRequestWrapper) request).getRequest() instanceof HttpServletRequest)) {
-        final ServletRequest wrapped = ((ServletRequestWrapper) request).getRequest();
-        final HttpServletRequest hsr = (HttpServletRequest) wrapped;
-        String uri = hsr.getRequestURI();
-        log.debug("SW Request URI: {} {}", hsr.getMethod(), charFilter(uri));
+      logRequest(request);
+    }
+
+    if (!anyOrigin) {
+      // Caches must not give one origin's response to another.
+      httpResponse.addHeader(VARY, ORIGIN);
+    }
+    String origin = httpRequest.getHeader(ORIGIN);
+    if (origin == null) {
+      chain.doFilter(request, response); // Not a cross-origin request
+      return false;
+    }
+    boolean originAllowed = anyOrigin || allowedOrigins.contains(origin);
+    String requestMethod = httpRequest.getHeader(REQUEST_METHOD);
+    if ((requestMethod != null) && OPTIONS.equals(httpRequest.getMethod())) {
+      if (originAllowed && allowedMethods.contains(requestMethod)) {
+        httpResponse.setHeader(ALLOW_ORIGIN, anyOrigin ? CorsProperties.ANY_ORIGIN : origin);
+        httpResponse.setHeader(ALLOW_METHODS, allowMethodsValue);
+        httpResponse.setHeader(ALLOW_HEADERS, allowHeadersValue);
+        httpResponse.setHeader(MAX_AGE, maxAgeValue);
+        httpResponse.setStatus(HttpServletResponse.SC_NO_CONTENT);
       } else {
-        log.debug("Request URI:    ??? {}", request.getClass());
+        log.debug("Rejected preflight request from {} for {}", origin, requestMethod);
+        httpResponse.setStatus(HttpServletResponse.SC_FORBIDDEN);
       }
+      return true;
+    }
+    if (originAllowed) {
+      httpResponse.setHeader(ALLOW_ORIGIN, anyOrigin ? CorsProperties.ANY_ORIGIN : origin);
+    }
+    chain.doFilter(request, response);
+    return false;
+  }
+
+  /**
+   * Reads the method and URI from the request, and hands them to the RequestLogQueue. The request may be recycled
+   * once the response is done, so this reads it here, on the request thread. The instanceof checks that find out how
+   * the request was wrapped run here too. Only decoding the URI, formatting the message, and writing it out happen on
+   * the RequestLogQueue's thread.
+   * @param request The request
+   */
+  private void logRequest(ServletRequest request) {
+    if (request instanceof RequestFacade) {
+      RequestFacade facade = (RequestFacade) request;
+      requestLogQueue.offer("RF", facade.getMethod(), facade.getRequestURI());
+    } else if (request instanceof HttpServletRequestWrapper) {
+      HttpServletRequest hsr = (HttpServletRequest) ((HttpServletRequestWrapper) request).getRequest();
+      requestLogQueue.offer("HW", hsr.getMethod(), hsr.getRequestURI());
+    } else if ((request instanceof ServletRequestWrapper)
+            && (((ServletRequestWrapper) request).getRequest() instanceof HttpServletRequest)) {
+      final HttpServletRequest hsr = (HttpServletRequest) ((ServletRequestWrapper) request).getRequest();
+      requestLogQueue.offer("SW", hsr.getMethod(), hsr.getRequestURI());
+    } else {
+      log.debug("Request URI:    ??? {}", request.getClass());
     }
     if (log.isTraceEnabled()) {
       log.trace("Request: class: {}", request.getClass());
     }
+  }
 
-    httpResponse.addHeader("Access-Control-Allow-Origin", "*");
-    httpResponse.addHeader("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT");
-    httpResponse.addHeader("Access-Control-Allow-Headers", "Content-Type");
-    chain.doFilter(request, response);
+  /**
+   * Times an asynchronous request, when its response is complete.
+   */
+  private final class AsyncTimer implements AsyncListener {
+    private final long start;
+
+    AsyncTimer(long start) {
+      this.start = start;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      int status = ((HttpServletResponse) event.getSuppliedResponse()).getStatus();
+      record(event.getSuppliedRequest(), false, status, start);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) { }
+
+    @Override
+    public void onError(AsyncEvent event) { }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) { }
   }
 
   @Override
   public void destroy() {
+    requestLogQueue.stop();
   }
 
   @Override
   public void init(FilterConfig filterConfig) { // normally throws ServletException
   }
 
-  private static final Pattern OPEN_BRACE_PATTERN = Pattern.compile("%7B");
-  private static final Pattern CLOSE_BRACE_PATTERN = Pattern.compile("%7D");
-
   /**
-   *  Replace "%7B" and "%7D" with curly braces in url paths
-   * @param request The request string
+   * Replace "%7B" and "%7D" with curly braces in url paths, in either case. This makes a single pass over the path,
+   * and returns the original String if it has nothing to replace.
+   * @param uri The request path
    * @return the corrected String
    */
-  private static String charFilter(final String request) {
-    return ReplaceChain.build(request)
-        .replaceAll(OPEN_BRACE_PATTERN, "{")
-        .replaceAll(CLOSE_BRACE_PATTERN, "}")
-        .toString();
+  static String decodeBraces(final String uri) {
+    int index = uri.indexOf('%');
+    while ((index >= 0) && (braceAt(uri, index) == 0)) {
+      index = uri.indexOf('%', index + 1);
+    }
+    if (index < 0) {
+      return uri;
+    }
+    final int length = uri.length();
+    final StringBuilder builder = new StringBuilder(length);
+    builder.append(uri, 0, index);
+    while (index < length) {
+      char brace = braceAt(uri, index);
+      if (brace == 0) {
+        builder.append(uri.charAt(index));
+        index++;
+      } else {
+        builder.append(brace);
+        index += 3;
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Returns the brace encoded at the index, or 0 if there is none.
+   * @param uri The request path
+   * @param index The index of a character in the path
+   * @return '{', '}', or 0
+   */
+  private static char braceAt(String uri, int index) {
+    if ((uri.charAt(index) != '%') || ((index + 2) >= uri.length()) || (uri.charAt(index + 1) != '7')) {
+      return 0;
+    }
+    switch (uri.charAt(index + 2)) {
+      case 'B':
+      case 'b':
+        return '{';
+      case 'D':
+      case 'd':
+        return '}';
+      default:
+        return 0;
+    }
   }
 }
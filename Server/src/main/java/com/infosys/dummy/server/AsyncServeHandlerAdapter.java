@@ -0,0 +1,130 @@
+package com.infosys.dummy.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the selected endpoints on serve threads, instead of Tomcat's threads. The controller methods are generated
+ * to return a ResponseEntity, so they can't return a DeferredResult themselves. Instead, this adapter calls them on a
+ * serve thread, and hands Spring MVC a DeferredResult in their place. This frees the Tomcat thread as soon as the
+ * arguments are read, so a slow database call doesn't hold on to it, and Tomcat's thread limit doesn't limit how many
+ * of these requests can be in progress.
+ * <p>
+ * Everything else is the same as for other endpoints. The controller method still calls ResponseUtility.serve(), on
+ * the serve thread, with the request bound to that thread, so it can read the request. If it throws an exception,
+ * the exception is handed back to Spring MVC, which hands it to GlobalResponseExceptionHandler, so it gets the same
+ * status as before.
+ * <p>
+ * The serve threads are a fixed pool, with a bounded queue. When the queue is full, the Tomcat thread calls the
+ * controller method itself, as it would without this. On Java 21 or later, they may be virtual threads instead.
+ * (See ServeProperties.)
+ */
+public class AsyncServeHandlerAdapter extends RequestMappingHandlerAdapter implements DisposableBean {
+  private static final Logger log = LoggerFactory.getLogger(AsyncServeHandlerAdapter.class);
+
+  private final boolean allEndpoints;
+  private final Set<String> asyncEndpoints;
+  private final ExecutorService executor;
+
+  public AsyncServeHandlerAdapter(ServeProperties serveProperties) {
+    allEndpoints = serveProperties.getAsyncEndpoints().contains(ServeProperties.ALL_ENDPOINTS);
+    asyncEndpoints = new HashSet<>(serveProperties.getAsyncEndpoints());
+    executor = (allEndpoints || !asyncEndpoints.isEmpty()) ? createExecutor(serveProperties) : null;
+  }
+
+  @Override
+  protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+    if ((executor != null) && (allEndpoints || asyncEndpoints.contains(handlerMethod.getMethod().getName()))) {
+      return new AsyncInvocableHandlerMethod(handlerMethod);
+    }
+    return super.createInvocableHandlerMethod(handlerMethod);
+  }
+
+  @Override
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  private static ExecutorService createExecutor(ServeProperties serveProperties) {
+    if (serveProperties.isVirtualThreads()) {
+      try {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+        log.warn("Virtual threads need Java 21 or later. Using a pool of {} threads.", serveProperties.getThreads());
+      }
+    }
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(
+        serveProperties.getThreads(),
+        serveProperties.getThreads(),
+        1, TimeUnit.MINUTES,
+        new ArrayBlockingQueue<>(serveProperties.getQueueCapacity()),
+        new CustomizableThreadFactory("serve-")
+    );
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Calls the controller method on a serve thread, and returns a DeferredResult for its result.
+   */
+  private final class AsyncInvocableHandlerMethod extends ServletInvocableHandlerMethod {
+
+    AsyncInvocableHandlerMethod(HandlerMethod handlerMethod) {
+      super(handlerMethod);
+    }
+
+    @Override
+    public Object invokeForRequest(
+        NativeWebRequest request,
+        ModelAndViewContainer mavContainer,
+        Object... providedArgs
+    ) throws Exception {
+      Object[] args = getMethodArgumentValues(request, mavContainer, providedArgs);
+      HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+      HttpServletResponse servletResponse = request.getNativeResponse(HttpServletResponse.class);
+      ServletRequestAttributes attributes = new ServletRequestAttributes(servletRequest, servletResponse);
+      DeferredResult<Object> deferredResult = new DeferredResult<>();
+      try {
+        executor.execute(() -> invoke(deferredResult, attributes, args));
+      } catch (RejectedExecutionException e) {
+        return doInvoke(args);
+      }
+      return deferredResult;
+    }
+
+    private void invoke(DeferredResult<Object> deferredResult, ServletRequestAttributes attributes, Object[] args) {
+      RequestContextHolder.setRequestAttributes(attributes);
+      try {
+        deferredResult.setResult(doInvoke(args));
+      } catch (Throwable t) {
+        deferredResult.setErrorResult(t);
+      } finally {
+        RequestContextHolder.resetRequestAttributes();
+        attributes.requestCompleted();
+      }
+    }
+  }
+}
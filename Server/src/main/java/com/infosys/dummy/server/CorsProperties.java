@@ -0,0 +1,69 @@
+package com.infosys.dummy.server;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings for cross-origin requests, taken from the my-app.cors properties. For example:
+ * <pre>
+ *   my-app.cors.allowed-origins=https://menu.example.com,https://admin.example.com
+ *   my-app.cors.max-age=2h
+ * </pre>
+ * An allowed origin of * allows every origin. (See ApiOriginFilter.)
+ */
+@ConfigurationProperties(prefix = "my-app.cors")
+public class CorsProperties {
+  /**
+   * The allowed origin that allows all origins.
+   */
+  public static final String ANY_ORIGIN = "*";
+
+  private List<String> allowedOrigins = new ArrayList<>(Arrays.asList(ANY_ORIGIN));
+  private List<String> allowedMethods = new ArrayList<>(Arrays.asList("GET", "POST", "DELETE", "PUT"));
+  private List<String> allowedHeaders = new ArrayList<>(Arrays.asList("Content-Type"));
+  private Duration maxAge = Duration.ofMinutes(30);
+
+  /**
+   * Returns the origins that may make cross-origin requests, like https://menu.example.com
+   * @return the allowed origins
+   */
+  public List<String> getAllowedOrigins() {
+    return allowedOrigins;
+  }
+
+  public void setAllowedOrigins(final List<String> allowedOrigins) {
+    this.allowedOrigins = allowedOrigins;
+  }
+
+  public List<String> getAllowedMethods() {
+    return allowedMethods;
+  }
+
+  public void setAllowedMethods(final List<String> allowedMethods) {
+    this.allowedMethods = allowedMethods;
+  }
+
+  public List<String> getAllowedHeaders() {
+    return allowedHeaders;
+  }
+
+  public void setAllowedHeaders(final List<String> allowedHeaders) {
+    this.allowedHeaders = allowedHeaders;
+  }
+
+  /**
+   * Returns how long a browser may cache the answer to a preflight request. Browsers may cap this.
+   * @return the maximum age
+   */
+  public Duration getMaxAge() {
+    return maxAge;
+  }
+
+  public void setMaxAge(final Duration maxAge) {
+    this.maxAge = maxAge;
+  }
+}
@@ -0,0 +1,116 @@
+package com.infosys.dummy.server;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how often GlobalResponseExceptionHandler logs errors with the same status and route. Within each period,
+ * only the first few errors for each status and route get logged. The rest are counted, and the count is reported
+ * with the next error that gets logged.
+ * <p>
+ * Every error is counted in the error.responses metric, tagged by status and by outcome, which is either logged or
+ * suppressed. The route isn't a tag, to keep the number of meters small. The route is a mapping pattern, not the raw
+ * path, so a client can't make up new keys, but only the most recently used ones are tracked anyway. (See
+ * my-app.error.log.max-keys.)
+ */
+@Component
+public class ErrorLogLimiter {
+  /**
+   * Returned by {@link #acquire(int, String)} when an error should not be logged.
+   */
+  public static final int SUPPRESSED = -1;
+
+  private static final String METRIC_NAME = "error.responses";
+
+  private final MeterRegistry meterRegistry;
+  private final int limit;
+  private final long periodNanos;
+  private final LongSupplier nanoClock;
+  private final Cache<String, Window> windows;
+  private final Map<Integer, Counter> loggedCounters = new ConcurrentHashMap<>();
+  private final Map<Integer, Counter> suppressedCounters = new ConcurrentHashMap<>();
+
+  @Autowired
+  public ErrorLogLimiter(
+      MeterRegistry meterRegistry,
+      @Value("${my-app.error.log.limit:5}") int limit,
+      @Value("${my-app.error.log.period:1s}") Duration period,
+      @Value("${my-app.error.log.max-keys:10000}") int maxKeys
+  ) {
+    this(meterRegistry, limit, period, maxKeys, System::nanoTime);
+  }
+
+  ErrorLogLimiter(MeterRegistry meterRegistry, int limit, Duration period, int maxKeys, LongSupplier nanoClock) {
+    this.meterRegistry = meterRegistry;
+    this.limit = limit;
+    this.periodNanos = period.toNanos();
+    this.nanoClock = nanoClock;
+    windows = Caffeine.newBuilder()
+        .maximumSize(maxKeys)
+        .build();
+  }
+
+  /**
+   * Decides whether to log an error, and counts it.
+   * @param status The status of the error response
+   * @param route The mapping pattern that matched the request
+   * @return The number of errors with the same status and route that weren't logged since the last one that was, or
+   * {@link #SUPPRESSED} if this one shouldn't be logged either
+   */
+  public int acquire(int status, String route) {
+    Window window = windows.get(status + " " + route, key -> new Window(nanoClock.getAsLong()));
+    int suppressed = window.acquire(nanoClock.getAsLong(), limit, periodNanos);
+    if (suppressed == SUPPRESSED) {
+      suppressedCounters.computeIfAbsent(status, s -> counter(s, "suppressed")).increment();
+    } else {
+      loggedCounters.computeIfAbsent(status, s -> counter(s, "logged")).increment();
+    }
+    return suppressed;
+  }
+
+  private Counter counter(int status, String outcome) {
+    return Counter.builder(METRIC_NAME)
+        .description("Error responses, by whether they were logged")
+        .tag("status", Integer.toString(status))
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  /**
+   * A fixed window, which allows a limited number of events per period, and counts the others.
+   */
+  private static final class Window {
+    private long start;
+    private int count;
+    private int suppressed;
+
+    Window(long start) {
+      this.start = start;
+    }
+
+    synchronized int acquire(long now, int limit, long periodNanos) {
+      if ((now - start) >= periodNanos) {
+        start = now;
+        count = 0;
+      }
+      if (count >= limit) {
+        suppressed++;
+        return SUPPRESSED;
+      }
+      count++;
+      int result = suppressed;
+      suppressed = 0;
+      return result;
+    }
+  }
+}
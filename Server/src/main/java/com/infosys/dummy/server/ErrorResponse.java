@@ -0,0 +1,81 @@
+package com.infosys.dummy.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The body of an error response, as built by GlobalResponseExceptionHandler. It gets written straight to the response
+ * by the ErrorResponseHttpMessageConverter, with no intermediate String.
+ * <p>
+ * The field names, and the reason phrase of each HttpStatus, are encoded once, when this class is loaded, so writing
+ * a body only encodes the timestamp, the message, and the path.
+ */
+public final class ErrorResponse {
+  private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+  private static final SerializableString STATUS = new SerializedString("status");
+  private static final SerializableString ERROR = new SerializedString("error");
+  private static final SerializableString MESSAGE = new SerializedString("message");
+  private static final SerializableString PATH = new SerializedString("path");
+
+  private static final Map<HttpStatus, SerializableString> reasonPhrases = new EnumMap<>(HttpStatus.class);
+
+  static {
+    for (HttpStatus httpStatus : HttpStatus.values()) {
+      reasonPhrases.put(httpStatus, new SerializedString(httpStatus.getReasonPhrase()));
+    }
+  }
+
+  private final String timestamp;
+  private final HttpStatus httpStatus;
+  private final String message;
+  private final String path;
+
+  public ErrorResponse(String timestamp, HttpStatus httpStatus, String message, String path) {
+    this.timestamp = timestamp;
+    this.httpStatus = httpStatus;
+    this.message = message;
+    this.path = path;
+  }
+
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  public HttpStatus getHttpStatus() {
+    return httpStatus;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Writes this as a JSON object with five fields: timestamp, status, error, message, and path.
+   * @param generator The generator
+   * @throws IOException if the generator can't write
+   */
+  public void writeTo(JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    generator.writeFieldName(TIMESTAMP);
+    generator.writeString(timestamp);
+    generator.writeFieldName(STATUS);
+    generator.writeNumber(httpStatus.value());
+    generator.writeFieldName(ERROR);
+    generator.writeString(reasonPhrases.get(httpStatus));
+    generator.writeFieldName(MESSAGE);
+    generator.writeString(message);
+    generator.writeFieldName(PATH);
+    generator.writeString(path);
+    generator.writeEndObject();
+  }
+}
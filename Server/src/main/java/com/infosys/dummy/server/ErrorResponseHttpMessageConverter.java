@@ -0,0 +1,58 @@
+package com.infosys.dummy.server;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes an ErrorResponse directly to the response stream, with a bare JsonGenerator. The output is compact unless
+ * pretty-printing is turned on, with the my-app.error.pretty-print property. This converter must be ahead of the
+ * Jackson converter in the list, or it will never get used. It never reads anything.
+ */
+public class ErrorResponseHttpMessageConverter extends AbstractHttpMessageConverter<ErrorResponse> {
+  private final JsonFactory jsonFactory = new JsonFactory()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  private final boolean prettyPrint;
+
+  public ErrorResponseHttpMessageConverter(boolean prettyPrint) {
+    super(MediaType.APPLICATION_JSON);
+    this.prettyPrint = prettyPrint;
+  }
+
+  @Override
+  protected boolean supports(@NotNull final Class<?> clazz) {
+    return ErrorResponse.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(final MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected @NotNull ErrorResponse readInternal(
+      @NotNull final Class<? extends ErrorResponse> clazz,
+      @NotNull final HttpInputMessage inputMessage
+  ) {
+    throw new HttpMessageNotReadableException("ErrorResponse is write-only", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(@NotNull final ErrorResponse errorResponse, @NotNull final HttpOutputMessage outputMessage)
+      throws IOException {
+    try (JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+      if (prettyPrint) {
+        generator.useDefaultPrettyPrinter();
+      }
+      errorResponse.writeTo(generator);
+    }
+  }
+}
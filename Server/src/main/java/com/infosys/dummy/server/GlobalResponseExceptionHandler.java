@@ -1,7 +1,5 @@
 package com.infosys.dummy.server;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infosys.dummy.exception.ResponseException;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -10,15 +8,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import javax.servlet.http.HttpServletRequest;
+import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -26,17 +28,20 @@ import java.time.format.DateTimeFormatter;
 /**
  * Adds a body to all error responses. Also logs messages. The body is a JSON object with five fields:
  * <pre>
- * {
- *   "timestamp" : "2022-06-03T10:46:31.387269-07:00",
- *   "status" : 400,
- *   "error" : "Bad Request",
- *   "message" : "Non null field ID = 44 -- Code: 400 BAD_REQUEST Bad Request",
- *   "path" : "/demo/admin/menuItem/addOption/"
- * }
+ * {"timestamp":"2022-06-03T10:46:31.387269-07:00","status":400,"error":"Bad Request","message":"Non null field ID = 44 -- Code: 400 BAD_REQUEST Bad Request","path":"/demo/admin/menuItem/addOption/"}
  * </pre>
  * 
- * Logs ResponseExceptions at Info, without a stack trace.
- * Logs other RuntimeExceptions at Error, with a stack trace.
+ * The body is an ErrorResponse, which the ErrorResponseHttpMessageConverter writes straight to the response. It is
+ * compact unless the my-app.error.pretty-print property is true. (See application-dev.properties.)
+ * 
+ * Logs ResponseExceptions with a status below 500 at Info, in a single line, without a stack trace. If the
+ * my-app.error.stackless property is true, these don't fill in their stack traces at all. (See
+ * ResponseExceptionInitializer.)
+ * Logs other RuntimeExceptions at Error, with a stack trace. Either way, the ErrorLogLimiter limits how many errors get
+ * logged for each status and route, and each logged line says how many were skipped since the last one. The route is
+ * the pattern of the handler's mapping, like /menuItem/{id}, so requests for different ids share a limit. Requests
+ * that never matched a handler all share the route "unmapped". These lines go to an asynchronous appender. (See
+ * logback-spring.xml.)
  * The time zone used in generating the timestamp is the system default time zone, but may be changes setting the
  * my-app.zoneId property to a ZoneId value in application.properties:
  * <pre>
@@ -57,18 +62,29 @@ import java.time.format.DateTimeFormatter;
 public class GlobalResponseExceptionHandler
     extends ResponseEntityExceptionHandler {
   private static final Logger log = LoggerFactory.getLogger(GlobalResponseExceptionHandler.class);
-  private static final ObjectMapper mapper = new ObjectMapper();
   private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_ZONED_DATE_TIME;
   
   // TODO: Set up ConfigurationProperties
   // todo  https://docs.spring.io/spring-boot/docs/2.4.1/reference/html/appendix-configuration-metadata.html#configuration-metadata-annotation-processor
   private static final String ZONE_ID_PROPERTY = "my-app.zoneId";
+  private static final String UNMAPPED_ROUTE = "unmapped";
+
+  // The headers of a ResponseEntity are read-only, so every error response can share these.
+  private static final HttpHeaders jsonHeaders = createJsonHeaders();
 
-  private final ZoneId zoneId;
+  private final Clock clock;
+  private final ErrorLogLimiter errorLogLimiter;
 
   @Autowired
-  public GlobalResponseExceptionHandler(ApplicationContext applicationContext) {
-    this.zoneId = getZone(applicationContext);
+  public GlobalResponseExceptionHandler(ApplicationContext applicationContext, ErrorLogLimiter errorLogLimiter) {
+    this.errorLogLimiter = errorLogLimiter;
+    this.clock = Clock.system(getZone(applicationContext));
+  }
+
+  private static HttpHeaders createJsonHeaders() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    return HttpHeaders.readOnlyHttpHeaders(headers);
   }
 
   @NotNull
@@ -85,7 +101,7 @@ public class GlobalResponseExceptionHandler
   }
 
   /**
-   * This method fills in a ResponseBody when a ResponseException is thrown. It also logs any caught exceptions.
+   * This method fills in an ErrorResponse when a ResponseException is thrown. It also logs any caught exceptions.
    * It gets called by the SpringFramework.
    * @param ex The ResponseException
    * @param request The WebRequest
@@ -93,10 +109,16 @@ public class GlobalResponseExceptionHandler
    */
   @ExceptionHandler(ResponseException.class)
   protected ResponseEntity<Object> handleResponseException(RuntimeException ex, WebRequest request) {
-    logStandardMessage(ex, request);
-    ResponseException responseException = (ResponseException) ex;
-    String body = new ResponseBody(responseException, request).toString();
-    return handleExceptionInternal(ex, body, new HttpHeaders(), responseException.getHttpStatus(), request);
+    HttpStatus httpStatus = ((ResponseException) ex).getHttpStatus();
+    String path = extractPath(request);
+    logStandardMessage(ex, httpStatus, path, extractRoute(request));
+    ErrorResponse body = new ErrorResponse(createTimestamp(), httpStatus, ex.getMessage(), path);
+    return handleExceptionInternal(ex, body, jsonHeaders, httpStatus, request);
+  }
+
+  @NotNull
+  private String createTimestamp() {
+    return formatter.format(OffsetDateTime.now(clock));
   }
 
   /**
@@ -115,7 +137,7 @@ public class GlobalResponseExceptionHandler
       @NotNull HttpStatus status,
       @NotNull WebRequest request
   ) {
-    logStandardMessage(ex, request);
+    logStandardMessage(ex, status, extractPath(request), extractRoute(request));
     return handleExceptionInternal(ex, ex.getBindingResult(), headers, status, request);
   }
 
@@ -129,77 +151,35 @@ public class GlobalResponseExceptionHandler
     return "(unknown)"; // Shouldn't happen
   }
 
+  private static String extractRoute(final WebRequest webRequest) {
+    Object pattern
+        = webRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    return (pattern == null) ? UNMAPPED_ROUTE : pattern.toString();
+  }
+
   /**
-   * Log a standard error message including the request path and the error message.
+   * Log a standard error message including the request path and the error message, unless too many errors with the
+   * same status and route have been logged recently.
    * @param throwable The Exception or Error
-   * @param request The WebRequest, which holds the original request path
+   * @param httpStatus The status of the response
+   * @param path The original request path
+   * @param route The mapping pattern that matched the request, which the log limit is keyed on
    */
-  private static void logStandardMessage(Throwable throwable, WebRequest request) {
+  private void logStandardMessage(Throwable throwable, HttpStatus httpStatus, String path, String route) {
     // On ResponseException, and its status is < 500, it's not caused by a bug, so we just log the message and path.
     // If it's not, it's a bug, so we include a stack trace.
-    if (throwable instanceof ResponseException && ((ResponseException)throwable).getHttpStatus().value() < 500) {
+    int suppressed = errorLogLimiter.acquire(httpStatus.value(), route);
+    if (suppressed == ErrorLogLimiter.SUPPRESSED) {
+      return;
+    }
+    if ((throwable instanceof ResponseException) && (httpStatus.value() < 500)) {
       if (log.isInfoEnabled()) {
-        log.info("Error processing request at {}", extractPath(request));
-        log.info(((ResponseException)throwable).getHttpStatus().toString());
-        log.info(throwable.getMessage());
+        log.info("Error processing request: status={} path={} suppressed={} message={}",
+            httpStatus.value(), path, suppressed, throwable.getMessage());
       }
     } else if (log.isErrorEnabled()) {
-      log.error("Error processing request at {}:", extractPath(request), throwable);
-    }
-  }
-
-  private class ResponseBody {
-    private final String timestamp;
-    private final int status;
-    private final String error;
-    private final String message;
-    private final String path;
-
-    ResponseBody(ResponseException responseException, WebRequest webRequest) {
-      this(responseException, responseException.getHttpStatus(), webRequest);
-    }
-
-    ResponseBody(Throwable throwable, HttpStatus httpStatus, WebRequest webRequest) {
-      this.message = throwable.getMessage();
-      this.status = httpStatus.value();
-      this.error = httpStatus.getReasonPhrase();
-      this.timestamp = createTimestamp();
-      this.path = extractPath(webRequest);
-    }
-
-    @NotNull
-    private String createTimestamp() {
-      return formatter.format(OffsetDateTime.now(zoneId));
-    }
-
-    public String getTimestamp() {
-      return timestamp;
-    }
-
-    public int getStatus() {
-      return status;
-    }
-
-    public String getError() {
-      return error;
-    }
-
-    public String getMessage() {
-      return message;
-    }
-
-    public String getPath() {
-      return path;
-    }
-
-    @Override
-    public String toString() {
-      try {
-        return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(this);
-      } catch (JsonProcessingException e) {
-        //noinspection ProhibitedExceptionThrown
-        throw new RuntimeException(e); // Shouldn't happen
-      }
+      log.error("Error processing request: status={} path={} suppressed={}",
+          httpStatus.value(), path, suppressed, throwable);
     }
   }
 }
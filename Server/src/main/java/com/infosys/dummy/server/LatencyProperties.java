@@ -0,0 +1,60 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.framework.LatencyTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings for the request latency meters, taken from the my-app.metrics.latency properties. For example:
+ * <pre>
+ *   my-app.metrics.latency.percentiles=0.5,0.99,0.999
+ *   my-app.metrics.latency.window=5m
+ * </pre>
+ * (See LatencyTimers.)
+ */
+@ConfigurationProperties(prefix = "my-app.metrics.latency")
+public class LatencyProperties {
+  private List<Double> percentiles = new ArrayList<>(Arrays.asList(0.5, 0.9, 0.99, 0.999, 0.9999));
+  private Duration window = Duration.ofMinutes(1);
+
+  /**
+   * Returns the percentiles to publish, from 0.0 to 1.0
+   * @return the percentiles
+   */
+  public List<Double> getPercentiles() {
+    return percentiles;
+  }
+
+  public void setPercentiles(final List<Double> percentiles) {
+    this.percentiles = percentiles;
+  }
+
+  /**
+   * Returns how far back the percentiles go.
+   * @return the window
+   */
+  public Duration getWindow() {
+    return window;
+  }
+
+  public void setWindow(final Duration window) {
+    this.window = window;
+  }
+
+  /**
+   * Creates latency meters with these settings.
+   * @param meterRegistry The registry for the meters
+   * @param name The name of the meters
+   * @param description The description of the meters
+   * @return The meters
+   */
+  public LatencyTimers createTimers(MeterRegistry meterRegistry, String name, String description) {
+    double[] percentileArray = percentiles.stream().mapToDouble(Double::doubleValue).toArray();
+    return new LatencyTimers(meterRegistry, name, description, percentileArray, window);
+  }
+}
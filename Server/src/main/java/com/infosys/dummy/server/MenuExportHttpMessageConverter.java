@@ -0,0 +1,48 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.engine.MenuExport;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a MenuExport as newline-delimited JSON, streaming it straight from the database to the response. The length
+ * isn't known in advance, so the response is chunked. This converter must be ahead of the Resource converter in the
+ * list, which would otherwise try to read the MenuExport as an InputStream. It never reads anything.
+ */
+public class MenuExportHttpMessageConverter extends AbstractHttpMessageConverter<MenuExport> {
+  public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+  public MenuExportHttpMessageConverter() {
+    super(APPLICATION_NDJSON);
+  }
+
+  @Override
+  protected boolean supports(@NotNull final Class<?> clazz) {
+    return MenuExport.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(final MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected @NotNull MenuExport readInternal(
+      @NotNull final Class<? extends MenuExport> clazz,
+      @NotNull final HttpInputMessage inputMessage
+  ) {
+    throw new HttpMessageNotReadableException("MenuExport is write-only", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(@NotNull final MenuExport menuExport, @NotNull final HttpOutputMessage outputMessage)
+      throws IOException {
+    menuExport.writeTo(outputMessage.getBody());
+  }
+}
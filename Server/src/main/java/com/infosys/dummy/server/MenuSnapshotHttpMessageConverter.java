@@ -0,0 +1,51 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.engine.MenuSnapshot;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a MenuSnapshot by copying its pre-serialized JSON to the response, skipping Jackson entirely. This converter
+ * must be ahead of the Jackson converter in the list, or it will never get used. It never reads anything.
+ */
+public class MenuSnapshotHttpMessageConverter extends AbstractHttpMessageConverter<MenuSnapshot> {
+
+  public MenuSnapshotHttpMessageConverter() {
+    super(MediaType.APPLICATION_JSON);
+  }
+
+  @Override
+  protected boolean supports(@NotNull final Class<?> clazz) {
+    return MenuSnapshot.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(final MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected @NotNull MenuSnapshot readInternal(
+      @NotNull final Class<? extends MenuSnapshot> clazz,
+      @NotNull final HttpInputMessage inputMessage
+  ) {
+    throw new HttpMessageNotReadableException("MenuSnapshot is write-only", inputMessage);
+  }
+
+  @Override
+  protected Long getContentLength(@NotNull final MenuSnapshot snapshot, final MediaType contentType) {
+    return (long) snapshot.getJsonLength();
+  }
+
+  @Override
+  protected void writeInternal(@NotNull final MenuSnapshot snapshot, @NotNull final HttpOutputMessage outputMessage)
+      throws IOException {
+    snapshot.writeJsonTo(outputMessage.getBody());
+  }
+}
@@ -0,0 +1,107 @@
+package com.infosys.dummy.server;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logs requests on a background thread, for ApiOriginFilter. The request thread still works out how the request was
+ * wrapped, and reads the method and the URI, which the request already holds as Strings. Decoding the URI, formatting
+ * the message, and writing it out are all done by the background thread.
+ * <p>
+ * The background thread isn't started until the first entry is offered, which only happens with debug logging on.
+ * <p>
+ * The queue is bounded, and the request thread never waits for it. If it's full, the entry is dropped, and counted.
+ * The count is reported with the next entry that gets logged. The request thread doesn't wake up the background
+ * thread either, since that would cost more than the logging it saves. Instead, the background thread polls the
+ * queue. Each time it finds it empty, it sleeps twice as long as the last time, up to a limit, so an idle server
+ * wakes it only a few times a second.
+ */
+final class RequestLogQueue implements Runnable {
+  private static final int CAPACITY = 4096;
+  private static final long MIN_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+  private final Logger log;
+  private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicInteger dropped = new AtomicInteger();
+  private volatile @Nullable Thread thread = null; // Started by the first offer()
+  private boolean stopped = false; // Guarded by this
+
+  RequestLogQueue(Logger log) {
+    this.log = log;
+  }
+
+  /**
+   * Queues a request to be logged.
+   * @param source Describes how the request was wrapped
+   * @param method The request method
+   * @param uri The request URI, not yet decoded
+   */
+  void offer(String source, String method, String uri) {
+    if (thread == null) {
+      start();
+    }
+    if (size.incrementAndGet() > CAPACITY) {
+      size.decrementAndGet();
+      dropped.incrementAndGet();
+    } else {
+      queue.offer(new Entry(source, method, uri));
+    }
+  }
+
+  private synchronized void start() {
+    if ((thread == null) && !stopped) {
+      Thread newThread = new Thread(this, "request-log");
+      newThread.setDaemon(true);
+      newThread.start();
+      thread = newThread;
+    }
+  }
+
+  synchronized void stop() {
+    stopped = true;
+    Thread oldThread = thread;
+    if (oldThread != null) {
+      oldThread.interrupt();
+    }
+  }
+
+  @Override
+  public void run() {
+    long idleNanos = MIN_IDLE_NANOS;
+    while (!Thread.currentThread().isInterrupted()) {
+      Entry entry = queue.poll();
+      if (entry == null) {
+        LockSupport.parkNanos(this, idleNanos);
+        idleNanos = Math.min(idleNanos * 2, MAX_IDLE_NANOS);
+        continue;
+      }
+      idleNanos = MIN_IDLE_NANOS;
+      size.decrementAndGet();
+      int droppedCount = dropped.getAndSet(0);
+      if (droppedCount > 0) {
+        log.debug("{} request log entries dropped", droppedCount);
+      }
+      log.debug("{} Request URI: {} {}", entry.source, entry.method, ApiOriginFilter.decodeBraces(entry.uri));
+    }
+  }
+
+  private static final class Entry {
+    private final String source;
+    private final String method;
+    private final String uri;
+
+    Entry(String source, String method, String uri) {
+      this.source = source;
+      this.method = method;
+      this.uri = uri;
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.exception.ResponseException;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Sets ResponseException's stackless mode from the my-app.error.stackless property. Stackless mode is a static
+ * setting, shared by every exception in the JVM, so it gets set here, once, before any beans are created, rather than
+ * by whichever bean happens to read the property first. This is registered in META-INF/spring.factories.
+ */
+public class ResponseExceptionInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+  private static final String STACKLESS_PROPERTY = "my-app.error.stackless";
+
+  @Override
+  public void initialize(@NotNull final ConfigurableApplicationContext applicationContext) {
+    // We never log the stack traces of these, so there's no point in filling them in.
+    ResponseException.setStackless(
+        applicationContext.getEnvironment().getProperty(STACKLESS_PROPERTY, Boolean.class, Boolean.FALSE)
+    );
+  }
+}
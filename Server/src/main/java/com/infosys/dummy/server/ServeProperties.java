@@ -0,0 +1,77 @@
+package com.infosys.dummy.server;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for serving requests off the Tomcat threads, taken from the my-app.serve properties. For example:
+ * <pre>
+ *   my-app.serve.async-endpoints=addMenuItem,importMenuItems
+ *   my-app.serve.threads=100
+ * </pre>
+ * An async endpoint of * makes every endpoint async. (See AsyncServeHandlerAdapter.)
+ */
+@ConfigurationProperties(prefix = "my-app.serve")
+public class ServeProperties {
+  /**
+   * The async endpoint that makes all endpoints async.
+   */
+  public static final String ALL_ENDPOINTS = "*";
+
+  private List<String> asyncEndpoints = new ArrayList<>();
+  private int threads = 50;
+  private int queueCapacity = 1000;
+  private boolean virtualThreads = false;
+
+  /**
+   * Returns the names of the controller methods that run on the serve threads, like getMenuItem.
+   * @return the async endpoints
+   */
+  public List<String> getAsyncEndpoints() {
+    return asyncEndpoints;
+  }
+
+  public void setAsyncEndpoints(final List<String> asyncEndpoints) {
+    this.asyncEndpoints = asyncEndpoints;
+  }
+
+  /**
+   * Returns the size of the pool of serve threads.
+   * @return the number of threads
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(final int threads) {
+    this.threads = threads;
+  }
+
+  /**
+   * Returns how many requests may wait for a serve thread. Once this many are waiting, the Tomcat thread serves the
+   * request itself.
+   * @return the queue capacity
+   */
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(final int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Returns true to run each async request on its own virtual thread, instead of the pool. This needs Java 21 or
+   * later. On earlier versions, the pool is used anyway.
+   * @return true for virtual threads
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public void setVirtualThreads(final boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+}
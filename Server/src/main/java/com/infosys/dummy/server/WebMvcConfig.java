@@ -0,0 +1,72 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.framework.LatencyTimers;
+import com.infosys.dummy.framework.ResponseUtility;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.List;
+
+/**
+ * Spring MVC customizations. This also gives ResponseUtility the Timers for the service methods, and takes them
+ * back when the context closes. (See ResponseUtility.setServiceTimers().)
+ */
+@Configuration
+@EnableConfigurationProperties({CorsProperties.class, LatencyProperties.class, ServeProperties.class})
+public class WebMvcConfig implements WebMvcConfigurer, DisposableBean {
+
+  private final boolean prettyPrintErrors;
+  private final LatencyTimers serviceTimers;
+
+  public WebMvcConfig(
+      @Value("${my-app.error.pretty-print:false}") final boolean prettyPrintErrors,
+      final LatencyProperties latencyProperties,
+      final MeterRegistry meterRegistry
+  ) {
+    this.prettyPrintErrors = prettyPrintErrors;
+    serviceTimers = latencyProperties.createTimers(
+        meterRegistry,
+        "api.service",
+        "Service methods, called from ResponseUtility.serve()"
+    );
+    ResponseUtility.setServiceTimers(serviceTimers);
+  }
+
+  @Override
+  public void destroy() {
+    ResponseUtility.clearServiceTimers(serviceTimers);
+  }
+
+  @Override
+  public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+    // This must come before the Jackson converter, which would otherwise serialize the getters of the ErrorResponse.
+    converters.add(0, new ErrorResponseHttpMessageConverter(prettyPrintErrors));
+    // This must come before the Jackson converter, which would otherwise serialize the snapshot all over again.
+    converters.add(0, new MenuSnapshotHttpMessageConverter());
+    // This must come before the Resource converter, which would otherwise try to read the export as an InputStream.
+    converters.add(0, new MenuExportHttpMessageConverter());
+  }
+
+  /**
+   * Replaces Spring MVC's RequestMappingHandlerAdapter with one that can run endpoints off the Tomcat threads.
+   * @param serveProperties Which endpoints to run off the Tomcat threads, and how
+   * @return The registrations
+   */
+  @Bean
+  public WebMvcRegistrations asyncServeRegistrations(final ServeProperties serveProperties) {
+    return new WebMvcRegistrations() {
+      @Override
+      public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+        return new AsyncServeHandlerAdapter(serveProperties);
+      }
+    };
+  }
+}
@@ -1,5 +1,7 @@
 package com.infosys.dummy.api;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infosys.dummy.ServerMaster;
 import com.infosys.dummy.entity.MenuItem;
 import com.infosys.dummy.entity.MenuItemOption;
@@ -16,6 +18,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +32,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static com.infosys.dummy.engine.PojoUtility.findOrThrow404;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.*;
@@ -134,6 +139,58 @@ public class AdminApiControllerTest {
     return option;
   }
 
+  // Tests of importMenuItems()
+
+  @Test
+  public void testImportMenuItems() throws JsonProcessingException {
+    // More than one batch, to test the flushing.
+    List<MenuItemDto> dtoList = new ArrayList<>();
+    for (int i = 0; i < 120; ++i) {
+      MenuItemDto menuItemDto = makeMenuItem();
+      menuItemDto.setName("Item " + i);
+      dtoList.add(menuItemDto);
+    }
+    ResponseEntity<String> responseEntity = adminApiController.importMenuItems(toJsonResource(dtoList));
+    assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+    assertEquals("120", responseEntity.getBody());
+
+    List<MenuItem> menuItems = menuItemRepository.findAll();
+    assertEquals(120, menuItems.size());
+    for (MenuItem item : menuItems) {
+      assertEquals(2, item.getAllowedOptions().size());
+      for (MenuItemOption option : item.getAllowedOptions()) {
+        assertSame(item, option.getMenuItem());
+      }
+    }
+  }
+
+  @Test
+  public void testImportBadMenuItems() throws JsonProcessingException {
+    MenuItemDto badItem = makeMenuItem();
+    badItem.getAllowedOptions().get(1).setName("");
+    try {
+      adminApiController.importMenuItems(toJsonResource(Arrays.asList(makeMenuItem(), badItem, makeMenuItem())));
+      fail();
+    } catch (BadRequest400Exception e) {
+      assertThat(e.getMessage(), containsString("MenuItemDto[1].allowedOptions[1].name"));
+    }
+    assertTrue(menuItemRepository.findAll().isEmpty()); // The first item was rolled back.
+
+    try {
+      adminApiController.importMenuItems(new ByteArrayResource("{\"name\": \"NotAnArray\"}".getBytes()));
+      fail();
+    } catch (BadRequest400Exception ignored) { }
+    try {
+      adminApiController.importMenuItems(new ByteArrayResource("[{\"name\": \"Truncated\"".getBytes()));
+      fail();
+    } catch (BadRequest400Exception ignored) { }
+    assertTrue(menuItemRepository.findAll().isEmpty());
+  }
+
+  private static Resource toJsonResource(List<MenuItemDto> dtoList) throws JsonProcessingException {
+    return new ByteArrayResource(new ObjectMapper().writeValueAsBytes(dtoList));
+  }
+
   // Tests of addMenuItemOption()
 
   @Test
@@ -0,0 +1,86 @@
+package com.infosys.dummy.api;
+
+import com.infosys.dummy.ServerMaster;
+import com.infosys.dummy.engine.DataEngine;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.repository.MenuItemRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that async endpoints give the same responses as before, including the error responses.
+ */
+@SuppressWarnings({"HardCodedStringLiteral", "MagicNumber"})
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ServerMaster.class, properties = "my-app.serve.async-endpoints=getMenuItem,addMenuItem")
+@AutoConfigureMockMvc
+public class AsyncServeTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private DataEngine dataEngine;
+
+  @Autowired
+  private MenuItemRepository menuItemRepository;
+
+  @Test
+  public void testAsyncEndpoints() throws Exception {
+    MenuItemDto dto = new MenuItemDto();
+    dto.setName("Tiramisu");
+    dto.setItemPrice(new BigDecimal("6.50"));
+    Integer id = dataEngine.addMenuItemFromDto(dto);
+
+    MvcResult result = mockMvc.perform(get("/menuItem/" + id))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Tiramisu"));
+
+    // The exception thrown on the serve thread gets the same status as before.
+    result = mockMvc.perform(get("/menuItem/100000"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.status").value(404));
+
+    result = mockMvc.perform(put("/admin/menuItem/add")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"id\":5,\"name\":\"Cannoli\",\"itemPrice\":4.00}"))
+        .andReturn();
+    assertTrue(result.getRequest().isAsyncStarted());
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isBadRequest());
+
+    // Other endpoints still run on Tomcat's thread.
+    mockMvc.perform(get("/menuItem"))
+        .andExpect(request().asyncNotStarted())
+        .andExpect(status().isOk());
+  }
+
+  @After
+  public void tearDown() {
+    menuItemRepository.deleteInBatch(menuItemRepository.findAll());
+  }
+}
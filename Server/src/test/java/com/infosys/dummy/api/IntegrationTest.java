@@ -1,16 +1,25 @@
 package com.infosys.dummy.api;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infosys.dummy.ServerMaster;
 import com.infosys.dummy.engine.DataEngine;
+import com.infosys.dummy.engine.MenuItemMapper;
+import com.infosys.dummy.engine.MenuSnapshot;
 import com.infosys.dummy.entity.MenuItem;
 import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.exception.Conflict409Exception;
+import com.infosys.dummy.exception.NotFound404Exception;
 import com.infosys.dummy.model.MenuItemDto;
 import com.infosys.dummy.model.MenuItemOptionDto;
+import com.infosys.dummy.model.OrderNodeDto;
+import com.infosys.dummy.model.OrderQuoteDto;
 import com.infosys.dummy.repository.MenuItemOptionRepository;
 import com.infosys.dummy.repository.MenuItemRepository;
 import org.hamcrest.Matchers;
+import org.hibernate.Hibernate;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,17 +29,34 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * <p>Created by IntelliJ IDEA.
@@ -66,6 +92,9 @@ public class IntegrationTest {
 
   @Autowired
   private DataEngine dataEngine;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
   
   @Test
   public void buildMenuTest() throws JsonProcessingException {
@@ -102,6 +131,246 @@ public class IntegrationTest {
     assertEquals(anchoviesId, anchovies.getId());
   }
   
+  @Test
+  public void menuSnapshotTest() throws IOException {
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+
+    MenuSnapshot snapshot = dataEngine.getAllMenuItems();
+    assertThat(snapshot, Matchers.hasSize(1));
+    assertSame(snapshot, dataEngine.getAllMenuItems()); // Built only once
+    ByteArrayOutputStream json = new ByteArrayOutputStream();
+    snapshot.writeJsonTo(json);
+    assertEquals(snapshot.getJsonLength(), json.size());
+    List<MenuItemDto> parsed = objectMapper.readValue(json.toByteArray(), new TypeReference<List<MenuItemDto>>() { });
+    assertEquals(pizzaId, parsed.get(0).getId());
+    assertThat(parsed.get(0).getAllowedOptions(), Matchers.hasSize(4));
+
+    dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+    MenuSnapshot rebuilt = dataEngine.getAllMenuItems();
+    assertNotSame(snapshot, rebuilt);
+    assertNotEquals(snapshot.getETag(), rebuilt.getETag());
+    assertThat(rebuilt.get(0).getAllowedOptions(), Matchers.hasSize(5));
+  }
+
+  @Test
+  public void menuItemDtoCacheTest() throws JsonProcessingException {
+    Integer saladId = dataEngine.addMenuItemFromDto(buildMenuItem(LARGE_CAESAR_SALAD));
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+
+    MenuItemDto salad = dataEngine.getMenuItemDto(saladId);
+    MenuItemDto pizza = dataEngine.getMenuItemDto(pizzaId);
+    assertSame(salad, dataEngine.getMenuItemDto(saladId));
+    assertSame(pizza, dataEngine.getMenuItemDto(pizzaId));
+
+    // Changing the pizza should leave the cached salad alone.
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+    assertSame(salad, dataEngine.getMenuItemDto(saladId));
+    MenuItemDto changedPizza = dataEngine.getMenuItemDto(pizzaId);
+    assertNotSame(pizza, changedPizza);
+    assertEquals(onionId, findById(onionId, changedPizza).getId());
+
+    // Moving the option to the salad should evict both items.
+    dataEngine.addOptionToItem(onionId, saladId);
+    assertEquals(onionId, findById(onionId, dataEngine.getMenuItemDto(saladId)).getId());
+    assertThat(dataEngine.getMenuItemDto(pizzaId).getAllowedOptions(), Matchers.hasSize(4));
+
+    dataEngine.deleteById(onionId);
+    assertThat(dataEngine.getMenuItemDto(saladId).getAllowedOptions(), Matchers.hasSize(1));
+  }
+
+  @Test
+  public void staleUpdateTest() throws JsonProcessingException {
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    Integer saladId = dataEngine.addMenuItemFromDto(buildMenuItem(LARGE_CAESAR_SALAD));
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+
+    MenuItemOption stale = menuItemOptionRepository.findById(onionId).orElseThrow(AssertionError::new);
+    dataEngine.addOptionToItem(onionId, saladId);
+    stale.setName("Red Onions");
+    try {
+      menuItemOptionRepository.save(stale);
+      fail("Saved a stale MenuItemOption");
+    } catch (OptimisticLockingFailureException ignored) { }
+    assertEquals("Onions", findById(onionId, dataEngine.getMenuItemDto(saladId)).getName());
+  }
+
+  @Test
+  public void concurrentMoveTest() throws Exception {
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    Integer saladId = dataEngine.addMenuItemFromDto(buildMenuItem(LARGE_CAESAR_SALAD));
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+
+    // Every move either succeeds, possibly after retrying, or fails with a 409. Nothing else gets thrown.
+    final int threads = 4;
+    final AtomicInteger conflicts = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new LinkedList<>();
+    for (int t = 0; t < threads; ++t) {
+      final int thread = t;
+      futures.add(executor.submit(() -> {
+        for (int i = 0; i < 25; ++i) {
+          try {
+            dataEngine.addOptionToItem(onionId, (((i + thread) % 2) == 0) ? pizzaId : saladId);
+          } catch (Conflict409Exception e) {
+            conflicts.incrementAndGet();
+          }
+        }
+      }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    log.debug("{} moves failed after retrying", conflicts.get());
+
+    int pizzaOptions = dataEngine.getMenuItemDto(pizzaId).getAllowedOptions().size();
+    int saladOptions = dataEngine.getMenuItemDto(saladId).getAllowedOptions().size();
+    assertEquals(pizzaOptions + saladOptions, 6); // The onions are on exactly one of them
+  }
+
+  @Test
+  public void deleteOptionTest() throws JsonProcessingException {
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+    Integer anchoviesId = dataEngine.createNewOption(buildMenuItemOption(ANCHOVIES_OPTION));
+    assertThat(dataEngine.getMenuItemDto(pizzaId).getAllowedOptions(), Matchers.hasSize(5));
+
+    dataEngine.deleteById(onionId);
+    assertThat(dataEngine.getMenuItemDto(pizzaId).getAllowedOptions(), Matchers.hasSize(4));
+    dataEngine.deleteById(anchoviesId); // It has no MenuItem
+    assertTrue(menuItemOptionRepository.findAll().stream().noneMatch(o -> o.getId().equals(anchoviesId)));
+    try {
+      dataEngine.deleteById(onionId);
+      fail("Deleted a missing MenuItemOption");
+    } catch (NotFound404Exception ignored) { }
+  }
+
+  @Test
+  public void searchTest() throws JsonProcessingException {
+    dataEngine.rebuildSearchIndex(); // The other tests delete their items without DataEngine.
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    Integer saladId = dataEngine.addMenuItemFromDto(buildMenuItem(LARGE_CAESAR_SALAD));
+    assertEquals(2, dataEngine.searchMenuItems(null, null, null, null, null).size());
+    assertEquals(saladId, dataEngine.searchMenuItems(null, "caesar sal", null, null, null).get(0).getId());
+    assertEquals(pizzaId, dataEngine.searchMenuItems(null, null, "olives", new BigDecimal("12.50"), null).get(0).getId());
+
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+    assertEquals(pizzaId, dataEngine.searchMenuItems(null, null, "onions", null, null).get(0).getId());
+    dataEngine.addOptionToItem(onionId, saladId);
+    assertEquals(saladId, dataEngine.searchMenuItems(null, null, "onions", null, null).get(0).getId());
+    dataEngine.deleteById(onionId);
+    assertThat(dataEngine.searchMenuItems(null, null, "onions", null, null), Matchers.empty());
+  }
+
+  @Test
+  public void remoteSearchTest() throws JsonProcessingException {
+    dataEngine.rebuildSearchIndex(); // The other tests delete their items without DataEngine.
+
+    // Another node's changes go straight to the database. This node only hears of them from the cache evictions.
+    MenuItem pizza = menuItemRepository.save(MenuItemMapper.toEntity(buildMenuItem(PIZZA_14_INCH)));
+    assertThat(dataEngine.searchMenuItems("pizza", null, null, null, null), Matchers.empty());
+    dataEngine.refreshSearchIndex(MenuItemRepository.MENU_ITEM_DTO_CACHE, pizza.getId());
+    assertEquals(pizza.getId(), dataEngine.searchMenuItems("pizza", null, "pepperoni", null, null).get(0).getId());
+
+    Integer pepperoniId = null;
+    for (MenuItemOption option : pizza.getAllowedOptions()) {
+      if ("Pepperoni".equals(option.getName())) {
+        pepperoniId = option.getId();
+      }
+    }
+    assertNotNull(pepperoniId);
+    menuItemOptionRepository.deleteByIdReturningMenuItemId(pepperoniId);
+    dataEngine.refreshSearchIndex(MenuItemRepository.MENU_ITEM_DTO_CACHE, pizza.getId());
+    assertThat(dataEngine.searchMenuItems(null, null, "pepperoni", null, null), Matchers.empty());
+
+    // An import names no items.
+    MenuItem salad = menuItemRepository.save(MenuItemMapper.toEntity(buildMenuItem(LARGE_CAESAR_SALAD)));
+    dataEngine.refreshSearchIndex(MenuItemRepository.MENU_ITEM_CACHE, null);
+    assertEquals(salad.getId(), dataEngine.searchMenuItems("caesar", null, null, null, null).get(0).getId());
+  }
+
+  @Test
+  public void quoteTest() throws JsonProcessingException {
+    dataEngine.rebuildSearchIndex(); // The other tests delete their items without DataEngine.
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+    String order = String.format(
+        "{\"options\": [{\"menuItemId\": %d, \"options\": [{\"optionId\": %d}]}]}", pizzaId, onionId
+    );
+    OrderQuoteDto quote = dataEngine.quoteOrder(objectMapper.readValue(order, OrderNodeDto.class));
+    assertEquals(new BigDecimal("13.00"), quote.getTotal());
+
+    dataEngine.deleteById(onionId);
+    try {
+      dataEngine.quoteOrder(objectMapper.readValue(order, OrderNodeDto.class));
+      fail();
+    } catch (BadRequest400Exception ignored) { }
+  }
+
+  @Test
+  public void suggestTest() throws JsonProcessingException {
+    dataEngine.rebuildSearchIndex(); // The other tests delete their items without DataEngine.
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    dataEngine.addMenuItemFromDto(buildMenuItem(LARGE_CAESAR_SALAD));
+    assertEquals(Collections.singletonList("Large Caesar Salad"), dataEngine.suggestMenuNames("caesar s", null));
+
+    // These prefixes are too long to be cached, so they see each change at once.
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+    assertEquals(Collections.singletonList("Onions"), dataEngine.suggestMenuNames("onion", null));
+    dataEngine.deleteById(onionId);
+    assertThat(dataEngine.suggestMenuNames("onion", null), Matchers.empty());
+    try {
+      dataEngine.suggestMenuNames("onion", 0);
+      fail();
+    } catch (BadRequest400Exception ignored) { }
+  }
+
+  @Test
+  public void placeOrderTest() throws Exception {
+    dataEngine.rebuildSearchIndex(); // The other tests delete their items without DataEngine.
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    Integer onionId = dataEngine.addOption(pizzaId, buildMenuItemOption(ONIONS_OPTION));
+    String order = String.format(
+        "{\"options\": [{\"menuItemId\": %d, \"options\": [{\"optionId\": %d}]}]}", pizzaId, onionId
+    );
+    Integer orderId = dataEngine.placeOrder(objectMapper.readValue(order, OrderNodeDto.class));
+    assertEquals(new BigDecimal("13.00"),
+        jdbcTemplate.queryForObject("select total from customer_order where id = ?", BigDecimal.class, orderId));
+    assertEquals(onionId, jdbcTemplate.queryForObject(
+        "select o.option_id from order_node o join order_node i on o.parent_id = i.id"
+            + " join order_node r on i.parent_id = r.id where r.order_id = ? and r.parent_id is null",
+        Integer.class, orderId
+    ));
+
+    // Orders placed at the same time share batches, but each one gets its own id.
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<Integer>> futures = new LinkedList<>();
+    for (int i = 0; i < 40; ++i) {
+      futures.add(executor.submit(() -> dataEngine.placeOrder(objectMapper.readValue(order, OrderNodeDto.class))));
+    }
+    Set<Integer> orderIds = new HashSet<>();
+    try {
+      for (Future<Integer> future : futures) {
+        orderIds.add(future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(orderIds, Matchers.hasSize(40));
+    assertEquals(Integer.valueOf(120),
+        jdbcTemplate.queryForObject("select count(*) from order_node where order_id > ?", Integer.class, orderId));
+
+    try {
+      dataEngine.placeOrder(objectMapper.readValue(String.format("{\"id\": 5, \"menuItemId\": %d}", pizzaId),
+          OrderNodeDto.class));
+      fail();
+    } catch (BadRequest400Exception ignored) { }
+  }
+
   private static MenuItemDto findById(int id, Collection<MenuItemDto> menuItemDtos) {
     for (MenuItemDto dto: menuItemDtos) {
       if (dto.getId() == id) {
@@ -120,6 +389,26 @@ public class IntegrationTest {
     throw new AssertionError(String.format("MenuItemOptionDto with id %d not found", id));
   }
   
+  @Test
+  public void fetchOptionsTest() throws JsonProcessingException {
+    Integer pizzaId = dataEngine.addMenuItemFromDto(buildMenuItem(PIZZA_14_INCH));
+    Integer saladId = dataEngine.addMenuItemFromDto(buildMenuItem(LARGE_CAESAR_SALAD));
+
+    // The options are lazy, so these must fetch them with their items.
+    MenuItem pizza = menuItemRepository.findById(pizzaId).orElseThrow(AssertionError::new);
+    assertTrue(Hibernate.isInitialized(pizza.getAllowedOptions()));
+    assertThat(pizza.getAllowedOptions(), Matchers.hasSize(4));
+
+    List<MenuItem> allItems = menuItemRepository.findAllWithOptions();
+    assertEquals(2, allItems.size()); // no duplicates from the join
+    assertEquals(pizzaId, allItems.get(0).getId());
+    assertEquals(saladId, allItems.get(1).getId());
+    for (MenuItem item : allItems) {
+      assertTrue(Hibernate.isInitialized(item.getAllowedOptions()));
+    }
+    assertThat(allItems.get(1).getAllowedOptions(), Matchers.hasSize(1));
+  }
+
   private static MenuItemDto buildMenuItem(String json) throws JsonProcessingException {
     return objectMapper.readValue(json, MenuItemDto.class);
   }
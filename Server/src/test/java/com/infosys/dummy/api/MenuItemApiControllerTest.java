@@ -0,0 +1,200 @@
+package com.infosys.dummy.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infosys.dummy.ServerMaster;
+import com.infosys.dummy.cache.MenuVersion;
+import com.infosys.dummy.engine.DataEngine;
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import com.infosys.dummy.repository.MenuItemOptionRepository;
+import com.infosys.dummy.repository.MenuItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings({"HardCodedStringLiteral", "MagicNumber"})
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ServerMaster.class)
+@AutoConfigureMockMvc
+public class MenuItemApiControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private DataEngine dataEngine;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MenuVersion menuVersion;
+
+  @Autowired
+  private MenuItemRepository menuItemRepository;
+
+  @Autowired
+  private MenuItemOptionRepository menuItemOptionRepository;
+
+  @Test
+  public void testConditionalGetAll() throws Exception {
+    Integer id = dataEngine.addMenuItemFromDto(makeMenuItem("Calzone", "9.50"));
+
+    MvcResult result = mockMvc.perform(get("/menuItem"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/json"))
+        .andExpect(jsonPath("$[0].id").value(id))
+        .andExpect(jsonPath("$[0].name").value("Calzone"))
+        .andReturn();
+    String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+    assertNotNull(eTag);
+    assertEquals(eTag, menuVersion.getMenuETag()); // So the next request can get its 304 without the snapshot.
+
+    mockMvc.perform(get("/menuItem").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+    String itemETag = mockMvc.perform(get("/menuItem/" + id))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertNotNull(itemETag);
+    mockMvc.perform(get("/menuItem/" + id).header(HttpHeaders.IF_NONE_MATCH, "W/" + itemETag))
+        .andExpect(status().isNotModified());
+    mockMvc.perform(get("/menuItem/100000").header(HttpHeaders.IF_NONE_MATCH, itemETag))
+        .andExpect(status().isNotFound());
+
+    MenuItemOptionDto option = new MenuItemOptionDto();
+    option.setName("Ricotta");
+    option.setDeltaPrice(new BigDecimal("1.00"));
+    dataEngine.addOption(id, option);
+    assertNull(menuVersion.getMenuETag());
+
+    MvcResult changed = mockMvc.perform(get("/menuItem").header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].allowedOptions[0].name").value("Ricotta"))
+        .andReturn();
+    assertNotEquals(eTag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  public void testGetMissingMenuItem() throws Exception {
+    mockMvc.perform(get("/menuItem/100000"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void testSnapshotBody() throws Exception {
+    dataEngine.addMenuItemFromDto(makeMenuItem("Garlic Bread", "3.25"));
+    List<MenuItemDto> menu = dataEngine.getAllMenuItems();
+    MvcResult result = mockMvc.perform(get("/menuItem"))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertEquals(1, menu.size());
+    assertEquals(result.getResponse().getContentLength(), result.getResponse().getContentAsByteArray().length);
+  }
+
+  @Test
+  public void testExport() throws Exception {
+    // Options are fetched with a join, so each item spans several rows.
+    MenuItemDto pizza = makeMenuItem("Pizza", "12.00");
+    for (String topping : new String[]{"Olives", "Onions", "Peppers"}) {
+      MenuItemOptionDto option = new MenuItemOptionDto();
+      option.setName(topping);
+      option.setDeltaPrice(new BigDecimal("0.50"));
+      pizza.addAllowedOptionsItem(option);
+    }
+    Integer pizzaId = dataEngine.addMenuItemFromDto(pizza);
+    Integer breadId = dataEngine.addMenuItemFromDto(makeMenuItem("Garlic Bread", "3.25"));
+
+    MvcResult result = mockMvc.perform(get("/menuItem/export"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+        .andReturn();
+    String[] lines = result.getResponse().getContentAsString().split("\n");
+    assertEquals(2, lines.length);
+    ObjectMapper objectMapper = new ObjectMapper();
+    MenuItemDto exportedPizza = objectMapper.readValue(lines[0], MenuItemDto.class);
+    assertEquals(pizzaId, exportedPizza.getId());
+    assertEquals(3, exportedPizza.getAllowedOptions().size());
+    MenuItemDto exportedBread = objectMapper.readValue(lines[1], MenuItemDto.class);
+    assertEquals(breadId, exportedBread.getId());
+    assertEquals(0, exportedBread.getAllowedOptions().size());
+  }
+
+  @Test
+  public void testCacheMetrics() throws Exception {
+    Integer id = dataEngine.addMenuItemFromDto(makeMenuItem("Cannoli", "4.00"));
+    double hits = cacheGets(MenuItemRepository.MENU_ITEM_DTO_CACHE, "hit");
+    double misses = cacheGets(MenuItemRepository.MENU_ITEM_DTO_CACHE, "miss");
+    mockMvc.perform(get("/menuItem/" + id)).andExpect(status().isOk());
+    mockMvc.perform(get("/menuItem/" + id)).andExpect(status().isOk());
+    assertEquals(misses + 1, cacheGets(MenuItemRepository.MENU_ITEM_DTO_CACHE, "miss"), 0.0);
+    assertEquals(hits + 1, cacheGets(MenuItemRepository.MENU_ITEM_DTO_CACHE, "hit"), 0.0);
+  }
+
+  @Test
+  public void testNotModifiedIsNotAView() throws Exception {
+    Integer cupId = dataEngine.addMenuItemFromDto(makeMenuItem("Zabaglione Cup", "6.00"));
+    Integer bowlId = dataEngine.addMenuItemFromDto(makeMenuItem("Zabaglione Bowl", "8.00"));
+    String eTag = mockMvc.perform(get("/menuItem/" + cupId))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertNotNull(eTag);
+    for (int i = 0; i < 3; ++i) {
+      mockMvc.perform(get("/menuItem/" + bowlId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+          .andExpect(status().isNotModified());
+    }
+    // Longer than the cached prefixes, so this sees the current popularity.
+    assertEquals(Arrays.asList("Zabaglione Cup", "Zabaglione Bowl"), dataEngine.suggestMenuNames("zabag", null));
+  }
+
+  private double cacheGets(String cacheName, String result) {
+    return meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", result).functionCounter().count();
+  }
+
+  private static MenuItemDto makeMenuItem(String name, String price) {
+    MenuItemDto menuItemDto = new MenuItemDto();
+    menuItemDto.setName(name);
+    menuItemDto.setItemPrice(new BigDecimal(price));
+    return menuItemDto;
+  }
+
+  @After
+  public void tearDown() {
+    List<MenuItem> menuItems = menuItemRepository.findAll();
+    for (MenuItem menuItem : menuItems) {
+      Collection<MenuItemOption> ops = menuItem.getAllowedOptions();
+      menuItem.setAllowedOptions(new LinkedList<>());
+      menuItemRepository.save(menuItem);
+      menuItemOptionRepository.deleteInBatch(ops);
+    }
+    menuItemRepository.deleteInBatch(menuItems);
+
+    List<MenuItemOption> optionList = menuItemOptionRepository.findAll();
+    menuItemOptionRepository.deleteInBatch(optionList);
+  }
+}
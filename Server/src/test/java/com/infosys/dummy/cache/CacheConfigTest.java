@@ -0,0 +1,48 @@
+package com.infosys.dummy.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CacheConfigTest {
+
+  @Test
+  public void testMissIsNotAFailedLoad() {
+    LoadingCache<Object, Object> nativeCache = Caffeine.newBuilder()
+        .refreshAfterWrite(1, TimeUnit.NANOSECONDS)
+        .executor(Runnable::run)
+        .recordStats()
+        .build(new CacheLoader<Object, Object>() {
+          @Override
+          public Object load(@NotNull final Object key) {
+            throw new AssertionError("Loaded " + key);
+          }
+
+          @Override
+          public Object reload(@NotNull final Object key, @NotNull final Object oldValue) {
+            return "refreshed";
+          }
+        });
+    Cache cache = new CacheConfig.RefreshingCaffeineCache("menu", nativeCache, true);
+
+    assertNull(cache.get(1));
+    CacheStats stats = nativeCache.stats();
+    assertEquals(1, stats.missCount());
+    assertEquals(0, stats.loadCount());
+
+    // Entries are still refreshed by the loader.
+    cache.put(1, "one");
+    cache.get(1);
+    assertEquals("refreshed", cache.get(1, String.class));
+    assertEquals(0, nativeCache.stats().loadFailureCount());
+  }
+}
@@ -0,0 +1,146 @@
+package com.infosys.dummy.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infosys.dummy.engine.MenuSnapshot;
+import com.infosys.dummy.model.MenuItemDto;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Simulates two nodes that share an InMemorySharedCacheStore and an InMemoryCacheInvalidationBus.
+ */
+public class TwoTierCacheManagerTest {
+  private static final String SHARED = "shared";
+  private static final String LOCAL = "local";
+
+  private final SharedCacheStore store = new InMemorySharedCacheStore();
+  private final MenuVersion versionA = new MenuVersion();
+  private final MenuVersion versionB = new MenuVersion();
+  private TwoTierCacheManager nodeA;
+  private TwoTierCacheManager nodeB;
+  private final AtomicInteger remoteInvalidationsOnB = new AtomicInteger();
+
+  @Before
+  public void setup() {
+    CacheInvalidationBus bus = new InMemoryCacheInvalidationBus();
+    nodeA = new TwoTierCacheManager(new CaffeineCacheManager(), store, bus, versionA, SHARED);
+    nodeB = new TwoTierCacheManager(new CaffeineCacheManager(), store, bus, versionB, SHARED);
+    nodeB.addRemoteInvalidationListener(invalidation -> remoteInvalidationsOnB.incrementAndGet());
+  }
+
+  @Test
+  public void testSharedTier() {
+    Cache cacheA = getCache(nodeA, SHARED);
+    Cache cacheB = getCache(nodeB, SHARED);
+    assertTrue(cacheA instanceof TwoTierCacheManager.TwoTierCache);
+
+    cacheA.put(1, "one");
+    assertEquals("one", cacheB.get(1, String.class));
+    assertEquals("one", cacheB.get(1, () -> "loaded"));
+
+    // A value loaded on one node is served by the other without loading it again.
+    assertEquals("two", cacheB.get(2, () -> "two"));
+    assertEquals("two", cacheA.get(2, () -> "loaded"));
+
+    // Unlisted caches stay local
+    getCache(nodeA, LOCAL).put(1, "one");
+    assertNull(getCache(nodeB, LOCAL).get(1));
+  }
+
+  @Test
+  public void testInvalidationBroadcast() {
+    Cache cacheA = getCache(nodeA, SHARED);
+    Cache cacheB = getCache(nodeB, SHARED);
+    cacheA.put(1, "one");
+    cacheA.put(2, "two");
+    assertNotNull(cacheB.get(1)); // now in B's local tier
+    assertNotNull(cacheB.get(2));
+
+    cacheA.evict(1);
+    assertNull(cacheB.get(1));
+    assertNull(((TwoTierCacheManager.TwoTierCache) cacheB).getLocalCache().get(1));
+    assertEquals("two", cacheB.get(2, String.class));
+    assertEquals(1, remoteInvalidationsOnB.get());
+
+    cacheA.clear();
+    assertNull(((TwoTierCacheManager.TwoTierCache) cacheB).getLocalCache().get(2));
+    assertNull(cacheB.get(2));
+    assertEquals(2, remoteInvalidationsOnB.get());
+
+    // A node ignores its own invalidations.
+    cacheB.evict(3);
+    assertEquals(2, remoteInvalidationsOnB.get());
+  }
+
+  @Test
+  public void testStaleLoad() {
+    Cache cacheA = getCache(nodeA, SHARED);
+
+    // Another node's write lands while this one is loading, so what it read may be stale.
+    assertEquals("old", cacheA.get(1, () -> {
+      versionA.bump();
+      return "old";
+    }));
+    assertNull(store.get(SHARED, 1));
+
+    assertEquals("new", getCache(nodeA, SHARED).get(2, () -> "new"));
+    assertNotNull(store.get(SHARED, 2));
+  }
+
+  @Test
+  public void testSharedSnapshot() throws JsonProcessingException {
+    // Each node counts versions on its own, so their counts have nothing to do with each other.
+    for (int i = 0; i < 5; ++i) {
+      versionA.bump();
+    }
+    Cache cacheA = getCache(new VersionedCacheManager(nodeA, versionA, SHARED), SHARED);
+    Cache cacheB = getCache(new VersionedCacheManager(nodeB, versionB, SHARED), SHARED);
+
+    MenuSnapshot built = makeSnapshot("Pizza");
+    assertSame(built, cacheB.get("snapshot", () -> built));
+    MenuSnapshot served = cacheA.get("snapshot", () -> {
+      throw new AssertionError("Node A should get the snapshot from the shared tier");
+    });
+    assertSame(built, served);
+
+    // The snapshot stays in node A's local tier, even though node B's version is behind node A's.
+    Cache localA = ((TwoTierCacheManager.TwoTierCache) ((VersionedCacheManager.VersionedCache) cacheA).getDelegate())
+        .getLocalCache();
+    assertNotNull(localA.get("snapshot"));
+
+    // Its ETag depends only on the menu, so it means the same thing on either node.
+    assertEquals(makeSnapshot("Pizza").getETag(), served.getETag());
+    assertNotEquals(makeSnapshot("Salad").getETag(), served.getETag());
+  }
+
+  private static MenuSnapshot makeSnapshot(String name) throws JsonProcessingException {
+    MenuItemDto dto = new MenuItemDto();
+    dto.setId(1);
+    dto.setName(name);
+    dto.setItemPrice(new BigDecimal("10.50"));
+    List<MenuItemDto> items = Collections.singletonList(dto);
+    return new MenuSnapshot(items, new ObjectMapper().writeValueAsBytes(items));
+  }
+
+  private static Cache getCache(CacheManager cacheManager, String name) {
+    Cache cache = cacheManager.getCache(name);
+    assertNotNull(cache);
+    return cache;
+  }
+}
@@ -0,0 +1,41 @@
+package com.infosys.dummy.cache;
+
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class VersionedCacheManagerTest {
+  private static final String MENU = "menu";
+
+  private final MenuVersion menuVersion = new MenuVersion();
+  private final Cache cache = new VersionedCacheManager(new CaffeineCacheManager(), menuVersion, MENU).getCache(MENU);
+
+  @Test
+  public void testEvictionBumpsVersion() {
+    assertNotNull(cache);
+    cache.put(1, "one");
+    long version = menuVersion.current();
+    cache.evict(1);
+    assertEquals(version + 1, menuVersion.current());
+    assertNull(cache.get(1));
+  }
+
+  @Test
+  public void testLoadDuringChange() {
+    assertNotNull(cache);
+
+    // Another thread's write changes the menu while we're loading, so what we read may be stale.
+    assertEquals("old", cache.get(1, () -> {
+      menuVersion.bump();
+      return "old";
+    }));
+    assertNull(cache.get(1));
+
+    assertEquals("new", cache.get(1, () -> "new"));
+    assertEquals("new", cache.get(1, () -> "loaded"));
+  }
+}
@@ -0,0 +1,27 @@
+package com.infosys.dummy.engine;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CentsTest {
+
+  @Test
+  public void testConversions() {
+    assertEquals(1250L, Cents.of(new BigDecimal("12.50")));
+    assertEquals(1200L, Cents.of(new BigDecimal("12")));
+    assertEquals(-35L, Cents.of(new BigDecimal("-0.35")));
+    assertEquals(13L, Cents.of(new BigDecimal("0.125")));
+    assertEquals(12L, Cents.of(new BigDecimal("0.125"), RoundingMode.FLOOR));
+    assertEquals(new BigDecimal("12.50"), Cents.toBigDecimal(1250L));
+    assertEquals(new BigDecimal("-0.05"), Cents.toBigDecimal(-5L));
+    try {
+      Cents.of(new BigDecimal("1E20"));
+      fail();
+    } catch (ArithmeticException ignored) { }
+  }
+}
@@ -0,0 +1,78 @@
+package com.infosys.dummy.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that MenuItemMapper gives the same results as ObjectMapper.convertValue(), which it replaced.
+ */
+public class MenuItemMapperTest {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void testToDto() {
+    MenuItem menuItem = makeMenuItem();
+    assertEquals(objectMapper.convertValue(menuItem, MenuItemDto.class), MenuItemMapper.toDto(menuItem));
+
+    menuItem.setAllowedOptions(null);
+    MenuItemDto emptyDto = MenuItemMapper.toDto(menuItem);
+    assertEquals(objectMapper.convertValue(menuItem, MenuItemDto.class), emptyDto);
+    assertEquals(Collections.emptyList(), emptyDto.getAllowedOptions());
+  }
+
+  @Test
+  public void testToEntity() {
+    MenuItemDto dto = objectMapper.convertValue(makeMenuItem(), MenuItemDto.class);
+    MenuItem expected = objectMapper.convertValue(dto, MenuItem.class);
+    MenuItem menuItem = MenuItemMapper.toEntity(dto);
+    assertEquals(expected.getId(), menuItem.getId());
+    assertEquals(expected.getName(), menuItem.getName());
+    assertEquals(expected.getItemPrice(), menuItem.getItemPrice());
+    assertEquals(expected.getAllowedOptions().size(), menuItem.getAllowedOptions().size());
+    Iterator<MenuItemOption> expectedOptions = expected.getAllowedOptions().iterator();
+    for (MenuItemOption option : menuItem.getAllowedOptions()) {
+      MenuItemOption expectedOption = expectedOptions.next();
+      assertEquals(expectedOption.getId(), option.getId());
+      assertEquals(expectedOption.getName(), option.getName());
+      assertEquals(expectedOption.getDeltaPrice(), option.getDeltaPrice());
+      assertSame(menuItem, option.getMenuItem());
+    }
+
+    dto.setAllowedOptions(null);
+    final MenuItem noOptions = MenuItemMapper.toEntity(dto);
+    assertNotNull(noOptions.getAllowedOptions());
+    assertTrue(noOptions.getAllowedOptions().isEmpty());
+  }
+
+  private static MenuItem makeMenuItem() {
+    MenuItem menuItem = new MenuItem();
+    menuItem.setId(7);
+    menuItem.setName("Calzone");
+    menuItem.setItemPrice(new BigDecimal("8.25"));
+    menuItem.getAllowedOptions().add(makeOption(11, "Ricotta", "0.75", menuItem));
+    menuItem.getAllowedOptions().add(makeOption(12, "Basil", "0.00", menuItem));
+    return menuItem;
+  }
+
+  private static MenuItemOption makeOption(int id, String name, String price, MenuItem menuItem) {
+    MenuItemOption option = new MenuItemOption();
+    option.setId(id);
+    option.setName(name);
+    option.setDeltaPrice(new BigDecimal(price));
+    option.setMenuItem(menuItem);
+    return option;
+  }
+}
@@ -0,0 +1,121 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.model.MenuItemDto;
+import com.infosys.dummy.model.MenuItemOptionDto;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class MenuSearchIndexTest {
+
+  @Test
+  public void testSearch() {
+    MenuSearchIndex index = new MenuSearchIndex();
+    index.rebuild(Arrays.asList(
+        makeMenuItem(1, "14 inch Pizza", "12.50", option(11, "Extra cheese"), option(12, "Olives")),
+        makeMenuItem(2, "Large Caesar Salad", "10.50", option(21, "Ranch Dressing")),
+        makeMenuItem(3, "Small Caesar Salad", "6.50", option(31, "Caesar dressing"), option(32, "Olives")),
+        makeMenuItem(4, "Pizza-by-the-slice", "3.00")
+    ));
+
+    assertEquals(Arrays.asList(1, 2, 3, 4), ids(index.search(null, null, null, null, null)));
+    assertEquals(Arrays.asList(1, 4), ids(index.search("PIZZA", null, null, null, null)));
+    assertEquals(Arrays.asList(2, 3), ids(index.search("salad, caesar", null, null, null, null)));
+    assertEquals(Arrays.asList(), ids(index.search("pizza salad", null, null, null, null)));
+    assertEquals(Arrays.asList(), ids(index.search("pizz", null, null, null, null)));
+    assertEquals(Arrays.asList(1, 4), ids(index.search(null, "pizz", null, null, null)));
+    assertEquals(Arrays.asList(2), ids(index.search(null, "caesar salad, la", null, null, null)));
+    assertEquals(Arrays.asList(1, 3), ids(index.search(null, null, "olives", null, null)));
+    assertEquals(Arrays.asList(2, 3), ids(index.search(null, null, "dressing", null, null)));
+    assertEquals(Arrays.asList(1, 2), ids(index.search(null, null, null, new BigDecimal("10.5"), null)));
+    assertEquals(Arrays.asList(3, 4), ids(index.search(null, null, null, null, new BigDecimal("6.50"))));
+    assertEquals(Arrays.asList(3), ids(index.search("salad", null, "olives", new BigDecimal("5"), new BigDecimal("7"))));
+    assertEquals(Arrays.asList(), ids(index.search(null, null, null, new BigDecimal("7"), new BigDecimal("10"))));
+    assertEquals(Arrays.asList(), ids(index.search(null, null, null, new BigDecimal("10"), new BigDecimal("7"))));
+    assertEquals(Arrays.asList(), ids(index.search(null, null, null, new BigDecimal("1e20"), null)));
+    assertEquals(
+        Arrays.asList(1, 2, 3, 4),
+        ids(index.search(null, null, null, new BigDecimal("-1e20"), new BigDecimal("1e999999999")))
+    );
+    assertEquals(Arrays.asList(), ids(index.search(null, null, null, new BigDecimal("3.001"), new BigDecimal("3.009"))));
+  }
+
+  @Test
+  public void testUpdates() {
+    MenuSearchIndex index = new MenuSearchIndex();
+    MenuItem pizza = makeMenuItem(1, "Pizza", "12.50", option(11, "Olives"));
+    MenuItem salad = makeMenuItem(2, "Salad", "10.50");
+    index.rebuild(Arrays.asList(pizza, salad));
+
+    // A newer version moves the option. An older one doesn't.
+    MenuItemOption olives = option(11, "Olives");
+    olives.setMenuItem(salad);
+    olives.setVersion(2);
+    index.putOption(olives);
+    MenuItemOption staleOlives = option(11, "Olives");
+    staleOlives.setMenuItem(pizza);
+    staleOlives.setVersion(1);
+    index.putOption(staleOlives);
+    assertEquals(Arrays.asList(2), ids(index.search(null, null, "olives", null, null)));
+    assertEquals(Arrays.asList(11), optionIds(index.search("salad", null, null, null, null).get(0)));
+    assertEquals(Arrays.asList(), optionIds(index.search("pizza", null, null, null, null).get(0)));
+
+    // A deleted option stays deleted.
+    index.removeOption(11);
+    staleOlives.setVersion(3);
+    index.putOption(staleOlives);
+    assertEquals(Arrays.asList(), ids(index.search(null, null, "olives", null, null)));
+
+    // An option can arrive before its item.
+    MenuItem soup = makeMenuItem(3, "Soup", "5.00");
+    MenuItemOption crackers = option(31, "Crackers");
+    crackers.setMenuItem(soup);
+    index.putOption(crackers);
+    assertEquals(Arrays.asList(), ids(index.search("soup", null, null, null, null)));
+    index.putItem(soup);
+    assertEquals(Arrays.asList(3), ids(index.search("soup", null, "crackers", null, null)));
+  }
+
+  private static List<Integer> ids(List<MenuItemDto> dtos) {
+    List<Integer> ids = new ArrayList<>();
+    for (MenuItemDto dto : dtos) {
+      ids.add(dto.getId());
+    }
+    return ids;
+  }
+
+  private static List<Integer> optionIds(MenuItemDto dto) {
+    List<Integer> ids = new ArrayList<>();
+    for (MenuItemOptionDto option : dto.getAllowedOptions()) {
+      ids.add(option.getId());
+    }
+    return ids;
+  }
+
+  private static MenuItem makeMenuItem(int id, String name, String price, MenuItemOption... options) {
+    MenuItem menuItem = new MenuItem();
+    menuItem.setId(id);
+    menuItem.setName(name);
+    menuItem.setItemPrice(new BigDecimal(price));
+    for (MenuItemOption option : options) {
+      option.setMenuItem(menuItem);
+      menuItem.getAllowedOptions().add(option);
+    }
+    return menuItem;
+  }
+
+  private static MenuItemOption option(int id, String name) {
+    MenuItemOption option = new MenuItemOption();
+    option.setId(id);
+    option.setName(name);
+    option.setDeltaPrice(new BigDecimal("0.50"));
+    return option;
+  }
+}
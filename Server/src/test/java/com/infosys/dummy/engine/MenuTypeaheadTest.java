@@ -0,0 +1,105 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class MenuTypeaheadTest {
+
+  @Test
+  public void testSuggest() {
+    // No hot prefixes, so every suggestion is ranked when it's asked for.
+    MenuTypeahead typeahead = new MenuTypeahead(10, -1, 0, Duration.ZERO);
+    typeahead.addNames(Arrays.asList("Large Pizza", "Pizza-by-the-slice", "Small Pizza", "Pepperoni Pizza", "Olives"));
+    typeahead.addNames(Arrays.asList("Large Caesar Salad", "olives"));
+
+    assertEquals(Arrays.asList("Large Caesar Salad", "Large Pizza"), typeahead.suggest("LA", 10));
+    assertEquals(Arrays.asList("Large Pizza"), typeahead.suggest("large  PI", 10));
+    assertEquals(Arrays.asList(), typeahead.suggest("large-s", 10));
+    assertEquals(Arrays.asList("Pizza-by-the-slice"), typeahead.suggest("pizza ", 10));
+    assertEquals(Arrays.asList("Pizza-by-the-slice"), typeahead.suggest("by the", 10));
+
+    // Olives is on the menu twice, so it wins the tie. Pepperoni Pizza has two words that start with p, but is
+    // only suggested once.
+    assertEquals(Arrays.asList("Olives", "Large Caesar Salad"), typeahead.suggest("", 2));
+    assertEquals(
+        Arrays.asList("Large Pizza", "Pepperoni Pizza", "Pizza-by-the-slice", "Small Pizza"),
+        typeahead.suggest("p", 10)
+    );
+
+    typeahead.recordUse(Arrays.asList("small pizza", "Lasagna"));
+    typeahead.recordUse(Collections.singletonList("Small Pizza"));
+    typeahead.recordUse(Collections.singletonList("Pepperoni Pizza"));
+    assertEquals(Arrays.asList("Small Pizza", "Pepperoni Pizza"), typeahead.suggest("piz", 2));
+
+    // Olives stays until it's been removed twice.
+    typeahead.removeNames(Collections.singletonList("Olives"));
+    assertEquals(Arrays.asList("Olives"), typeahead.suggest("o", 10));
+    typeahead.removeNames(Collections.singletonList("OLIVES"));
+    assertEquals(Arrays.asList(), typeahead.suggest("o", 10));
+  }
+
+  @Test
+  public void testHotPrefixes() {
+    MenuTypeahead typeahead = new MenuTypeahead(2, 2, 100, Duration.ofHours(1));
+    typeahead.addNames(Arrays.asList("Soup", "Salad", "Sandwich"));
+    assertEquals(Arrays.asList("Salad", "Sandwich"), typeahead.suggest("s", 2));
+
+    // The cached ranking doesn't see the change in popularity yet.
+    typeahead.recordUse(Collections.singletonList("Soup"));
+    assertEquals(Arrays.asList("Salad", "Sandwich"), typeahead.suggest("s", 2));
+    assertEquals(Arrays.asList("Soup", "Salad", "Sandwich"), typeahead.suggest("s", 3));
+
+    // A change to the names is seen at once.
+    typeahead.addNames(Collections.singletonList("Salad"));
+    assertEquals(Arrays.asList("Soup", "Salad"), typeahead.suggest("s", 2));
+    typeahead.removeNames(Collections.singletonList("Soup"));
+    assertEquals(Arrays.asList("Salad", "Sandwich"), typeahead.suggest("s", 2));
+    assertEquals(Arrays.asList("Salad"), typeahead.suggest("s", 1));
+  }
+
+  @Test
+  public void testSearchIndexUpdates() {
+    MenuSearchIndex index = new MenuSearchIndex(new MenuTypeahead(10, -1, 0, Duration.ZERO));
+    MenuTypeahead typeahead = index.getTypeahead();
+    MenuItem pizza = makeMenuItem(1, "Pizza");
+    MenuItem salad = makeMenuItem(2, "Salad");
+    MenuItemOption olives = new MenuItemOption();
+    olives.setId(11);
+    olives.setName("Olives");
+    olives.setDeltaPrice(new BigDecimal("0.50"));
+    olives.setMenuItem(pizza);
+    pizza.getAllowedOptions().add(olives);
+    index.rebuild(Arrays.asList(pizza, salad));
+
+    index.recordView(1);
+    assertEquals(Arrays.asList("Olives", "Pizza", "Salad"), typeahead.suggest("", 10));
+
+    // Moving the option keeps its popularity.
+    olives.setMenuItem(salad);
+    olives.setVersion(1);
+    index.putOption(olives);
+    assertEquals(Arrays.asList("Olives", "Pizza", "Salad"), typeahead.suggest("", 10));
+    index.recordView(2);
+    index.recordView(2);
+    assertEquals(Arrays.asList("Olives", "Salad", "Pizza"), typeahead.suggest("", 10));
+
+    index.removeOption(11);
+    assertEquals(Arrays.asList("Salad", "Pizza"), typeahead.suggest("", 10));
+  }
+
+  private static MenuItem makeMenuItem(int id, String name) {
+    MenuItem menuItem = new MenuItem();
+    menuItem.setId(id);
+    menuItem.setName(name);
+    menuItem.setItemPrice(new BigDecimal("10.00"));
+    return menuItem;
+  }
+}
@@ -0,0 +1,125 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.entity.MenuItem;
+import com.infosys.dummy.entity.MenuItemOption;
+import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.exception.NotFound404Exception;
+import com.infosys.dummy.exception.ResponseException;
+import com.infosys.dummy.model.OrderNodeDto;
+import com.infosys.dummy.model.OrderQuoteDto;
+import com.infosys.dummy.model.OrderQuoteLineDto;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class OrderPricerTest {
+  private final MenuSearchIndex index = new MenuSearchIndex();
+
+  public OrderPricerTest() {
+    MenuItem pizza = makeMenuItem(1, "Pizza", "12.50");
+    addOption(pizza, 11, "Olives", "0.50");
+    addOption(pizza, 12, "Extra cheese", "1.25");
+    MenuItem salad = makeMenuItem(2, "Salad", "10.50");
+    addOption(salad, 21, "Croutons", "0.35");
+    index.rebuild(Arrays.asList(pizza, salad));
+  }
+
+  @Test
+  public void testQuote() {
+    OrderNodeDto order = group(
+        item(1, option(11), option(12), option(11)),
+        group(item(2, group(option(21)))),
+        item(2)
+    );
+    OrderQuoteDto quote = index.readPrices(prices -> OrderPricer.quote(order, prices));
+    assertEquals(new BigDecimal("36.10"), quote.getTotal());
+    List<String> lines = new ArrayList<>();
+    for (OrderQuoteLineDto line : quote.getLines()) {
+      lines.add(line.getMenuItemId() + " " + line.getName() + " " + line.getPrice());
+    }
+    assertEquals(Arrays.asList("1 Pizza 14.75", "2 Salad 10.85", "2 Salad 10.50"), lines);
+
+    OrderQuoteDto empty = index.readPrices(prices -> OrderPricer.quote(new OrderNodeDto(), prices));
+    assertEquals(new BigDecimal("0.00"), empty.getTotal());
+  }
+
+  @Test
+  public void testDeepOrder() {
+    // Deep enough to overflow the stack, if this were recursive.
+    OrderNodeDto order = item(1, option(11));
+    for (int i = 0; i < 100_000; ++i) {
+      order = group(order);
+    }
+    final OrderNodeDto deepOrder = order;
+    OrderQuoteDto quote = index.readPrices(prices -> OrderPricer.quote(deepOrder, prices));
+    assertEquals(new BigDecimal("13.00"), quote.getTotal());
+  }
+
+  @Test
+  public void testBadOrders() {
+    expect(NotFound404Exception.class, group(item(3)));
+    expect(BadRequest400Exception.class, item(2, option(11)));
+    expect(BadRequest400Exception.class, group(option(11)));
+    expect(BadRequest400Exception.class, item(1, item(2, option(11))));
+    OrderNodeDto optionWithOptions = option(11);
+    optionWithOptions.addOptionsItem(option(12));
+    expect(BadRequest400Exception.class, item(1, optionWithOptions));
+    OrderNodeDto both = item(1);
+    both.setOptionId(11);
+    expect(BadRequest400Exception.class, both);
+    OrderNodeDto nullOption = item(1);
+    nullOption.addOptionsItem(null);
+    expect(BadRequest400Exception.class, nullOption);
+    expect(BadRequest400Exception.class, group(item(1, option(11)), null));
+  }
+
+  private void expect(Class<? extends ResponseException> exceptionClass, OrderNodeDto order) {
+    try {
+      index.readPrices(prices -> OrderPricer.quote(order, prices));
+      fail(order.toString());
+    } catch (ResponseException e) {
+      assertEquals(exceptionClass, e.getClass());
+    }
+  }
+
+  private static OrderNodeDto group(OrderNodeDto... nodes) {
+    OrderNodeDto group = new OrderNodeDto();
+    group.setOptions(new ArrayList<>(Arrays.asList(nodes)));
+    return group;
+  }
+
+  private static OrderNodeDto item(int menuItemId, OrderNodeDto... nodes) {
+    OrderNodeDto item = group(nodes);
+    item.setMenuItemId(menuItemId);
+    return item;
+  }
+
+  private static OrderNodeDto option(int optionId) {
+    OrderNodeDto option = new OrderNodeDto();
+    option.setOptionId(optionId);
+    return option;
+  }
+
+  private static MenuItem makeMenuItem(int id, String name, String price) {
+    MenuItem menuItem = new MenuItem();
+    menuItem.setId(id);
+    menuItem.setName(name);
+    menuItem.setItemPrice(new BigDecimal(price));
+    return menuItem;
+  }
+
+  private static void addOption(MenuItem menuItem, int id, String name, String deltaPrice) {
+    MenuItemOption option = new MenuItemOption();
+    option.setId(id);
+    option.setName(name);
+    option.setDeltaPrice(new BigDecimal(deltaPrice));
+    option.setMenuItem(menuItem);
+    menuItem.getAllowedOptions().add(option);
+  }
+}
@@ -0,0 +1,147 @@
+package com.infosys.dummy.engine;
+
+import com.infosys.dummy.exception.InternalError500Exception;
+import com.infosys.dummy.exception.ServiceUnavailable503Exception;
+import com.infosys.dummy.model.OrderNodeDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs an OrderWriter against a stand-in database, so the tests can decide when it fails or stalls.
+ */
+@SuppressWarnings({"HardCodedStringLiteral", "MagicNumber"})
+public class OrderWriterTest {
+  private final AtomicInteger nextId = new AtomicInteger(1);
+  private volatile Supplier<Integer> idSource = nextId::getAndIncrement;
+  private OrderWriter orderWriter;
+
+  @Test
+  public void testFailedBatch() {
+    orderWriter = makeOrderWriter(Duration.ofSeconds(10));
+    idSource = () -> {
+      throw new AssertionError("Failed batch");
+    };
+    InternalError500Exception first = placeFailedOrder();
+    InternalError500Exception second = placeFailedOrder();
+    assertEquals("Failed batch", first.getCause().getMessage());
+    assertNotSame(first, second); // Each request gets its own exception.
+
+    // The writer thread survives an Error, and goes on to the next batch.
+    idSource = nextId::getAndIncrement;
+    assertEquals(1, orderWriter.place(makeOrder(), 100));
+  }
+
+  private InternalError500Exception placeFailedOrder() {
+    try {
+      orderWriter.place(makeOrder(), 100);
+      throw new AssertionError("The order should have failed");
+    } catch (InternalError500Exception e) {
+      return e;
+    }
+  }
+
+  @Test
+  public void testTimeout() throws InterruptedException {
+    orderWriter = makeOrderWriter(Duration.ofMillis(100));
+    CountDownLatch release = new CountDownLatch(1);
+    idSource = () -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return nextId.getAndIncrement();
+    };
+    try {
+      orderWriter.place(makeOrder(), 100);
+      fail();
+    } catch (ServiceUnavailable503Exception e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("may still be saved"));
+    }
+    release.countDown();
+  }
+
+  @Test
+  public void testClosed() throws InterruptedException {
+    orderWriter = makeOrderWriter(Duration.ofSeconds(10));
+    orderWriter.destroy();
+    try {
+      orderWriter.place(makeOrder(), 100);
+      fail();
+    } catch (ServiceUnavailable503Exception e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Orders are no longer being taken"));
+    }
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    orderWriter.destroy();
+  }
+
+  private OrderWriter makeOrderWriter(Duration commitTimeout) {
+    OrderProperties orderProperties = new OrderProperties();
+    orderProperties.setCommitTimeout(commitTimeout);
+    return new OrderWriter(new StandInJdbcTemplate(), new StandInTransactionManager(), new SimpleMeterRegistry(),
+        orderProperties);
+  }
+
+  private static OrderNodeDto makeOrder() {
+    OrderNodeDto order = new OrderNodeDto();
+    order.setMenuItemId(1);
+    return order;
+  }
+
+  private class StandInJdbcTemplate extends JdbcTemplate {
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> @NotNull List<T> queryForList(@NotNull String sql, @NotNull Class<T> elementType, Object... args) {
+      List<T> ids = new ArrayList<>();
+      for (int i = 0; i < (Integer) args[0]; ++i) {
+        ids.add((T) idSource.get());
+      }
+      return ids;
+    }
+
+    @Override
+    public void execute(@NotNull String sql) { }
+
+    @Override
+    public int @NotNull [] batchUpdate(@NotNull String sql, @NotNull BatchPreparedStatementSetter pss) {
+      return new int[pss.getBatchSize()];
+    }
+  }
+
+  private static class StandInTransactionManager implements PlatformTransactionManager {
+    @Override
+    public @NotNull TransactionStatus getTransaction(@Nullable TransactionDefinition definition) {
+      return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(@NotNull TransactionStatus status) { }
+
+    @Override
+    public void rollback(@NotNull TransactionStatus status) { }
+  }
+}
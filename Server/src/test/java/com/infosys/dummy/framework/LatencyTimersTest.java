@@ -0,0 +1,50 @@
+package com.infosys.dummy.framework;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyTimersTest {
+
+  @Test
+  public void testPercentiles() {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AtomicLong now = new AtomicLong();
+    double[] percentiles = {0.5, 0.99};
+    LatencyTimers timers
+        = new LatencyTimers(meterRegistry, "api.test", "Test", percentiles, Duration.ofSeconds(3), now::get);
+
+    for (int i = 1; i <= 100; i++) {
+      timers.record("getAll", 200, TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    timers.record("getMenuItem", 404, TimeUnit.MILLISECONDS.toNanos(5));
+    assertEquals(100.0, meterRegistry.get("api.test").tag("endpoint", "getAll").functionTimer().count(), 0.0);
+    assertEquals(5050.0, meterRegistry.get("api.test").tag("endpoint", "getAll").functionTimer()
+        .totalTime(TimeUnit.MILLISECONDS), 0.0);
+
+    // Nothing shows up until the first step ends.
+    assertEquals(0.0, percentile(meterRegistry, "getAll", "0.5"), 0.0);
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertEquals(0.050, percentile(meterRegistry, "getAll", "0.5"), 0.001);
+    assertEquals(0.099, percentile(meterRegistry, "getAll", "0.99"), 0.001);
+    assertEquals(0.005, percentile(meterRegistry, "getMenuItem", "0.5"), 0.0001);
+
+    // The percentiles cover the window, until it slides past the recorded latencies.
+    now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    assertEquals(0.050, percentile(meterRegistry, "getAll", "0.5"), 0.001);
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertEquals(0.0, percentile(meterRegistry, "getAll", "0.5"), 0.0);
+    assertEquals(100.0, meterRegistry.get("api.test").tag("endpoint", "getAll").functionTimer().count(), 0.0);
+  }
+
+  private static double percentile(MeterRegistry meterRegistry, String endpoint, String phi) {
+    return meterRegistry.get("api.test.percentile").tag("endpoint", endpoint).tag("phi", phi).gauge().value();
+  }
+}
@@ -4,6 +4,9 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.infosys.dummy.engine.PojoUtility;
 import com.infosys.dummy.entity.MenuItem;
 import com.infosys.dummy.exception.BadRequest400Exception;
+import com.infosys.dummy.exception.InternalError500Exception;
+import com.infosys.dummy.exception.NotFound404Exception;
+import com.infosys.dummy.exception.ResponseException;
 import com.infosys.dummy.model.MenuItemDto;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -40,6 +43,36 @@ public class PojoUtilityTest {
     throw new AssertionError("Assertions are off");
   }
   
+  @Test
+  public void testStackless() {
+    boolean wasStackless = ResponseException.isStackless();
+    try {
+      ResponseException.setStackless(false);
+      BadRequest400Exception missing = catchBadRequest(null);
+      assertNotSame(missing, catchBadRequest(null));
+      assertNotEquals(0, missing.getStackTrace().length);
+
+      ResponseException.setStackless(true);
+      missing = catchBadRequest(null);
+      assertSame(missing, catchBadRequest(null)); // shared
+      assertEquals(0, missing.getStackTrace().length);
+      assertEquals("Missing object -- Code: 400 BAD_REQUEST Bad Request", missing.getMessage());
+      assertEquals(0, new NotFound404Exception("Missing").getStackTrace().length);
+      assertNotEquals(0, new InternalError500Exception(new IllegalStateException()).getStackTrace().length);
+    } finally {
+      ResponseException.setStackless(wasStackless);
+    }
+  }
+
+  private static BadRequest400Exception catchBadRequest(Object object) {
+    try {
+      PojoUtility.confirmNotNull(object);
+    } catch (BadRequest400Exception e) {
+      return e;
+    }
+    throw new AssertionError("No exception");
+  }
+
   @Test
   public void testSkipNull() {
     Iterable<?> iterable = PojoUtility.skipNull(null);
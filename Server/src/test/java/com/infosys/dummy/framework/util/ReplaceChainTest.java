@@ -2,9 +2,14 @@ package com.infosys.dummy.framework.util;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * <p>Created by IntelliJ IDEA.
@@ -70,4 +75,150 @@ public class ReplaceChainTest {
       assertEquals(expected, result);
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCompiledMatchesChain() {
+    String[] texts = {
+        "/abc/def",
+        "/abc/%7Bdef%7D",
+        "/abc/%7Bdef%7D/%7Bghi%7D/",
+        "%7Babc%7D",
+        "%7B",
+        "%7",
+        "%%7B7D%7D%",
+        "/abc/%7bdef%7d",
+        "",
+    };
+    Pattern openBrace = Pattern.compile("%7B");
+    Pattern closeBrace = Pattern.compile("%7D");
+    ReplaceChain.Compiled literals = ReplaceChain.compile()
+        .replace("%7B", "{")
+        .replace("%7D", "}")
+        .build();
+    ReplaceChain.Compiled regexes = ReplaceChain.compile()
+        .replaceAll(openBrace, "{")
+        .replaceAll(Pattern.compile("%7d", Pattern.CASE_INSENSITIVE), "}")
+        .build();
+    ReplaceChain.Compiled mixed = ReplaceChain.compile()
+        .replace("%7B", "{")
+        .replaceAll(closeBrace, "}")
+        .build();
+
+    for (String text : texts) {
+      String expected = ReplaceChain.build(text)
+          .replaceAll(openBrace, "{")
+          .replaceAll(closeBrace, "}")
+          .toString();
+      assertEquals(text, expected, literals.apply(text));
+      assertEquals(text, expected, mixed.apply(text));
+      String expectedIgnoringCase = ReplaceChain.build(text)
+          .replaceAll(openBrace, "{")
+          .replaceAll(Pattern.compile("%7d", Pattern.CASE_INSENSITIVE), "}")
+          .toString();
+      assertEquals(text, expectedIgnoringCase, regexes.apply(text));
+    }
+
+    String unchanged = "/abc/def";
+    assertSame(unchanged, literals.apply(unchanged));
+    assertSame(unchanged, regexes.apply(unchanged));
+  }
+
+  @Test
+  public void testGroupReferences() {
+    ReplaceChain.Compiled compiled = ReplaceChain.compile()
+        .replaceAll(Pattern.compile("(a)(b)"), "$2$1")
+        .replace("$", "\\$")
+        .replaceAll(Pattern.compile("(?<digit>[0-9])x"), "<${digit}>\\$1")
+        .build();
+    String text = "ab $ 7x ab12";
+    String expected = ReplaceChain.build(text)
+        .replaceAll(Pattern.compile("(a)(b)"), "$2$1")
+        .replaceAll(Pattern.compile(Pattern.quote("$")), Matcher.quoteReplacement("\\$"))
+        .replaceAll(Pattern.compile("(?<digit>[0-9])x"), "<${digit}>\\$1")
+        .toString();
+    assertEquals("ba \\$ <7>$1 ba12", expected);
+    assertEquals(expected, compiled.apply(text));
+  }
+
+  /**
+   * Numbered back references inside a pattern must still refer to the pattern's own groups once it's combined with
+   * the others, including when a digit follows the reference.
+   */
+  @Test
+  public void testBackReferences() {
+    String[] patterns = {
+        "(a)\\1",
+        "(a)(b)\\2\\1",
+        "(a)\\10",
+        "(?<d>[0-9])\\k<d>",
+        "(?:c)(d)\\1",
+        "(e)(?<=e)\\1",
+        "\\Q\\1\\E(f)\\1",
+    };
+    String text = "xaay abba a0 aa0 77 78 cdd ee \\1ff q qq";
+    for (String regex : patterns) {
+      Pattern pattern = Pattern.compile(regex);
+      String expected = ReplaceChain.build(text)
+          .replaceAll(Pattern.compile("q+"), "Q")
+          .replaceAll(pattern, "Z")
+          .toString();
+      ReplaceChain.Compiled compiled = ReplaceChain.compile()
+          .replaceAll(Pattern.compile("(q)+"), "Q")
+          .replaceAll(pattern, "Z")
+          .build();
+      assertEquals(regex, expected, compiled.apply(text));
+    }
+    assertEquals("xZy", ReplaceChain.build("xaay").replaceAll(Pattern.compile("(a)\\1"), "Z").toString());
+  }
+
+  /**
+   * Literal chains, including ones with overlapping literals, should match a regular expression alternation of the
+   * same literals, which picks the first alternative that matches at the leftmost position.
+   */
+  @Test
+  public void testLiteralsMatchAlternation() {
+    Random random = new Random(142857);
+    for (int trial = 0; trial < 500; trial++) {
+      ReplaceChain.Builder builder = ReplaceChain.compile();
+      List<String> alternatives = new ArrayList<>();
+      List<String> replacements = new ArrayList<>();
+      int count = 1 + random.nextInt(5);
+      for (int i = 0; i < count; i++) {
+        String literal = randomText(random, 1 + random.nextInt(4));
+        String replacement = "<" + i + '>';
+        builder.replace(literal, replacement);
+        alternatives.add('(' + Pattern.quote(literal) + ')');
+        replacements.add(replacement);
+      }
+      ReplaceChain.Compiled compiled = builder.build();
+      Pattern alternation = Pattern.compile(String.join("|", alternatives));
+      for (int j = 0; j < 20; j++) {
+        String text = randomText(random, random.nextInt(30));
+        assertEquals(alternation.pattern() + " on " + text, replaceAlternation(alternation, replacements, text),
+            compiled.apply(text));
+      }
+    }
+  }
+
+  private static String randomText(Random random, int length) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      builder.append((char) ('a' + random.nextInt(3)));
+    }
+    return builder.toString();
+  }
+
+  private static String replaceAlternation(Pattern alternation, List<String> replacements, String text) {
+    Matcher matcher = alternation.matcher(text);
+    StringBuffer buffer = new StringBuffer();
+    while (matcher.find()) {
+      int group = 1;
+      while (matcher.group(group) == null) {
+        group++;
+      }
+      matcher.appendReplacement(buffer, Matcher.quoteReplacement(replacements.get(group - 1)));
+    }
+    matcher.appendTail(buffer);
+    return buffer.toString();
+  }
+}
@@ -0,0 +1,56 @@
+package com.infosys.dummy.repository;
+
+import com.infosys.dummy.ServerMaster;
+import com.infosys.dummy.entity.MenuItem;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings({"HardCodedStringLiteral", "MagicNumber"})
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ServerMaster.class)
+public class IdSequenceMigrationTest {
+  private static final int OLD_ID = 100_000;
+
+  @Autowired
+  private IdSequenceMigration idSequenceMigration;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private MenuItemRepository menuItemRepository;
+
+  @Test
+  public void testRestartPastExistingIds() {
+    // An item saved before the menu tables had their own sequences.
+    jdbcTemplate.update("insert into menu_item (id, name, item_price) values (?, 'Old Item', 1.00)", OLD_ID);
+    idSequenceMigration.afterPropertiesSet();
+
+    MenuItem menuItem = new MenuItem();
+    menuItem.setName("New Item");
+    menuItem.setItemPrice(new BigDecimal("2.00"));
+    Integer id = menuItemRepository.save(menuItem).getId();
+    assertTrue(String.valueOf(id), id > OLD_ID);
+
+    // Once it's caught up, running it again changes nothing.
+    idSequenceMigration.afterPropertiesSet();
+    menuItem = new MenuItem();
+    menuItem.setName("Newer Item");
+    menuItem.setItemPrice(new BigDecimal("3.00"));
+    assertTrue(menuItemRepository.save(menuItem).getId() > id);
+  }
+
+  @After
+  public void tearDown() {
+    menuItemRepository.deleteInBatch(menuItemRepository.findAllWithOptions());
+  }
+}
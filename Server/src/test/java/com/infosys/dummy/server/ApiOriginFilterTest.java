@@ -0,0 +1,129 @@
+package com.infosys.dummy.server;
+
+import com.infosys.dummy.framework.LatencyTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ApiOriginFilterTest {
+
+  @Test
+  public void testDecodeBraces() {
+    String plain = "/demo/menuItem/5";
+    assertSame(plain, ApiOriginFilter.decodeBraces(plain));
+    String otherEscapes = "/demo/menuItem/a%20b%7";
+    assertSame(otherEscapes, ApiOriginFilter.decodeBraces(otherEscapes));
+
+    assertEquals("/demo/menuItem/{id}/options", ApiOriginFilter.decodeBraces("/demo/menuItem/%7Bid%7D/options"));
+    assertEquals("{}", ApiOriginFilter.decodeBraces("%7b%7d"));
+    assertEquals("/a%20{b}%7", ApiOriginFilter.decodeBraces("/a%20%7Bb%7D%7"));
+    assertEquals("%%7C{", ApiOriginFilter.decodeBraces("%%7C%7B"));
+  }
+
+  @Test
+  public void testPreflight() throws IOException, ServletException {
+    CorsProperties corsProperties = new CorsProperties();
+    corsProperties.setAllowedOrigins(Arrays.asList("https://menu.example.com", "https://admin.example.com"));
+    corsProperties.setMaxAge(Duration.ofHours(2));
+    ApiOriginFilter filter = new ApiOriginFilter(corsProperties, new LatencyProperties(), new SimpleMeterRegistry());
+
+    MockFilterChain chain = new MockFilterChain();
+    MockHttpServletResponse response = filter(filter, preflight("https://menu.example.com", "POST"), chain);
+    assertEquals(204, response.getStatus());
+    assertNull(chain.getRequest()); // Never reached Spring MVC
+    assertEquals("https://menu.example.com", response.getHeader("Access-Control-Allow-Origin"));
+    assertEquals("GET, POST, DELETE, PUT", response.getHeader("Access-Control-Allow-Methods"));
+    assertEquals("Content-Type", response.getHeader("Access-Control-Allow-Headers"));
+    assertEquals("7200", response.getHeader("Access-Control-Max-Age"));
+    assertEquals(Collections.singletonList("Origin"), response.getHeaders("Vary"));
+
+    response = filter(filter, preflight("https://evil.example.com", "POST"), new MockFilterChain());
+    assertEquals(403, response.getStatus());
+    assertNull(response.getHeader("Access-Control-Allow-Origin"));
+
+    response = filter(filter, preflight("https://menu.example.com", "PATCH"), new MockFilterChain());
+    assertEquals(403, response.getStatus());
+
+    // An actual request goes through, with the origin echoed back only if it's allowed.
+    chain = new MockFilterChain();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/demo/menuItem");
+    request.addHeader("Origin", "https://admin.example.com");
+    response = filter(filter, request, chain);
+    assertNotNull(chain.getRequest());
+    assertEquals("https://admin.example.com", response.getHeader("Access-Control-Allow-Origin"));
+    assertEquals("Origin", response.getHeader("Vary"));
+
+    request = new MockHttpServletRequest("GET", "/demo/menuItem");
+    request.addHeader("Origin", "https://evil.example.com");
+    response = filter(filter, request, new MockFilterChain());
+    assertNull(response.getHeader("Access-Control-Allow-Origin"));
+  }
+
+  @Test
+  public void testAnyOrigin() throws IOException, ServletException {
+    ApiOriginFilter filter
+        = new ApiOriginFilter(new CorsProperties(), new LatencyProperties(), new SimpleMeterRegistry());
+    MockHttpServletResponse response = filter(filter, preflight("https://menu.example.com", "GET"), new MockFilterChain());
+    assertEquals(204, response.getStatus());
+    assertEquals("*", response.getHeader("Access-Control-Allow-Origin"));
+    assertFalse(response.containsHeader("Vary"));
+
+    // Not a cross-origin request
+    response = filter(filter, new MockHttpServletRequest("GET", "/demo/menuItem"), new MockFilterChain());
+    assertNull(response.getHeader("Access-Control-Allow-Origin"));
+  }
+
+  @Test
+  public void testTimers() throws IOException, ServletException, NoSuchMethodException {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ApiOriginFilter filter = new ApiOriginFilter(new CorsProperties(), new LatencyProperties(), meterRegistry);
+    filter(filter, preflight("https://menu.example.com", "GET"), new MockFilterChain());
+
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/demo/menuItem");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, new HandlerMethod(this, "testTimers"));
+    filter(filter, request, new MockFilterChain());
+    filter(filter, new MockHttpServletRequest("GET", "/demo/nowhere"), new MockFilterChain());
+
+    assertEquals(1.0, count(meterRegistry, "preflight", "204"), 0.0);
+    assertEquals(1.0, count(meterRegistry, "testTimers", "200"), 0.0);
+    assertEquals(1.0, count(meterRegistry, LatencyTimers.UNMAPPED, "200"), 0.0);
+  }
+
+  private static double count(MeterRegistry meterRegistry, String endpoint, String status) {
+    return meterRegistry.get("api.requests").tag("endpoint", endpoint).tag("status", status).functionTimer().count();
+  }
+
+  private static MockHttpServletRequest preflight(String origin, String method) {
+    MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/demo/menuItem");
+    request.addHeader("Origin", origin);
+    request.addHeader("Access-Control-Request-Method", method);
+    return request;
+  }
+
+  private static MockHttpServletResponse filter(
+      ApiOriginFilter filter,
+      MockHttpServletRequest request,
+      MockFilterChain chain
+  ) throws IOException, ServletException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+}
@@ -0,0 +1,40 @@
+package com.infosys.dummy.server;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.infosys.dummy.server.ErrorLogLimiter.SUPPRESSED;
+import static org.junit.Assert.assertEquals;
+
+public class ErrorLogLimiterTest {
+
+  @Test
+  public void testLimit() {
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AtomicLong now = new AtomicLong();
+    ErrorLogLimiter limiter = new ErrorLogLimiter(meterRegistry, 2, Duration.ofSeconds(1), 100, now::get);
+
+    assertEquals(0, limiter.acquire(400, "/menuItem/{id}"));
+    assertEquals(0, limiter.acquire(400, "/menuItem/{id}"));
+    assertEquals(SUPPRESSED, limiter.acquire(400, "/menuItem/{id}"));
+    assertEquals(SUPPRESSED, limiter.acquire(400, "/menuItem/{id}"));
+    assertEquals(0, limiter.acquire(404, "/menuItem/{id}")); // different status
+    assertEquals(0, limiter.acquire(400, "/menuItem/search")); // different route
+
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertEquals(2, limiter.acquire(400, "/menuItem/{id}"));
+    assertEquals(0, limiter.acquire(400, "/menuItem/{id}"));
+
+    assertEquals(5.0, count(meterRegistry, "400", "logged"), 0.0);
+    assertEquals(2.0, count(meterRegistry, "400", "suppressed"), 0.0);
+    assertEquals(1.0, count(meterRegistry, "404", "logged"), 0.0);
+  }
+
+  private static double count(MeterRegistry meterRegistry, String status, String outcome) {
+    return meterRegistry.get("error.responses").tag("status", status).tag("outcome", outcome).counter().count();
+  }
+}
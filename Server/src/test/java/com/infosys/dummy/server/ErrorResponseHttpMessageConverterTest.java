@@ -0,0 +1,53 @@
+package com.infosys.dummy.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ErrorResponseHttpMessageConverterTest {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final ErrorResponse errorResponse = new ErrorResponse(
+      "2022-06-03T10:46:31.387269-07:00",
+      HttpStatus.BAD_REQUEST,
+      "Bad \"name\" -- Code: 400 BAD_REQUEST Bad Request",
+      "/demo/admin/menuItem/addOption/"
+  );
+
+  @Test
+  public void testCompact() throws IOException {
+    String json = write(false);
+    assertFalse(json.contains("\n"));
+    assertEquals(
+        "{\"timestamp\":\"2022-06-03T10:46:31.387269-07:00\",\"status\":400,\"error\":\"Bad Request\"," +
+            "\"message\":\"Bad \\\"name\\\" -- Code: 400 BAD_REQUEST Bad Request\"," +
+            "\"path\":\"/demo/admin/menuItem/addOption/\"}",
+        json
+    );
+  }
+
+  @Test
+  public void testPrettyPrint() throws IOException {
+    String json = write(true);
+    assertTrue(json.contains("\n"));
+    JsonNode node = objectMapper.readTree(json);
+    assertEquals(400, node.get("status").asInt());
+    assertEquals("Bad Request", node.get("error").asText());
+    assertEquals(errorResponse.getMessage(), node.get("message").asText());
+  }
+
+  private static String write(boolean prettyPrint) throws IOException {
+    MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+    new ErrorResponseHttpMessageConverter(prettyPrint).write(errorResponse, MediaType.APPLICATION_JSON, outputMessage);
+    assertEquals(MediaType.APPLICATION_JSON, outputMessage.getHeaders().getContentType());
+    return outputMessage.getBodyAsString();
+  }
+}